@@ -3,8 +3,8 @@ package com.distributed.documentsearch;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
-import org.springframework.context.annotation.ComponentScan;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.amqp.rabbit.annotation.EnableRabbit;
 
 /**
@@ -16,7 +16,7 @@ import org.springframework.amqp.rabbit.annotation.EnableRabbit;
  *
  * Key Features:
  * - Multi-tenant document storage and search
- * - Full-text search with relevance ranking
+ * - Full-text search with relevance ranking on Elasticsearch or embedded Lucene
  * - Asynchronous document indexing
  * - Redis caching for performance
  * - Rate limiting per tenant
@@ -30,8 +30,8 @@ import org.springframework.amqp.rabbit.annotation.EnableRabbit;
 @SpringBootApplication
 @EnableCaching
 @EnableAsync
+@EnableScheduling
 @EnableRabbit
-@ComponentScan(basePackages = "com.distributed.documentsearch")
 public class DocumentSearchApplication {
 
     /**
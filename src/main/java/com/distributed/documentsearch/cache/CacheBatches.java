@@ -0,0 +1,42 @@
+package com.distributed.documentsearch.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Multi-key reads and writes on any {@link Cache}, batched when the cache is a
+ * {@link TwoTierCache} and key by key otherwise.
+ */
+public final class CacheBatches {
+
+    private CacheBatches() {
+    }
+
+    /**
+     * @return the values found, by key
+     */
+    public static Map<String, Object> getAll(Cache cache, Collection<String> keys) {
+        if (cache instanceof TwoTierCache twoTierCache) {
+            return twoTierCache.getAll(keys);
+        }
+        Map<String, Object> found = new HashMap<>();
+        for (String key : keys) {
+            Cache.ValueWrapper wrapper = cache.get(key);
+            if (wrapper != null && wrapper.get() != null) {
+                found.put(key, wrapper.get());
+            }
+        }
+        return found;
+    }
+
+    public static void putAll(Cache cache, Map<String, ?> entries) {
+        if (cache instanceof TwoTierCache twoTierCache) {
+            twoTierCache.putAll(entries);
+        } else {
+            entries.forEach(cache::put);
+        }
+    }
+}
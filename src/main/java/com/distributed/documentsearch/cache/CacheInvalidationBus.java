@@ -0,0 +1,70 @@
+package com.distributed.documentsearch.cache;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.function.BiConsumer;
+
+/**
+ * Broadcasts near-cache invalidations to every node over Redis pub/sub.
+ *
+ * A message names the originating node, the cache and the key to evict; an empty
+ * key clears the whole cache. Messages published by this node are ignored on
+ * receipt, since the local near-cache has already been updated.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+public class CacheInvalidationBus implements MessageListener {
+
+    /** Pub/sub channel shared by all nodes */
+    public static final String CHANNEL = "cache:invalidation";
+
+    private static final String SEPARATOR = "\n";
+
+    /** Template used for publishing invalidation messages */
+    private final RedisTemplate<String, String> redisTemplate;
+
+    /** Identifier of this node, used to skip its own messages */
+    @Getter
+    private final String nodeId = UUID.randomUUID().toString();
+
+    /** Callback evicting (cache name, key) locally; a null key clears the cache */
+    private volatile BiConsumer<String, String> handler = (cacheName, key) -> { };
+
+    public CacheInvalidationBus(RedisTemplate<String, String> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public void onInvalidation(BiConsumer<String, String> handler) {
+        this.handler = handler;
+    }
+
+    /**
+     * Asks all other nodes to evict a key, or to clear the cache if the key is null.
+     */
+    public void publish(String cacheName, String key) {
+        String payload = nodeId + SEPARATOR + cacheName + SEPARATOR + (key != null ? key : "");
+        try {
+            redisTemplate.convertAndSend(CHANNEL, payload);
+        } catch (Exception e) {
+            log.error("Failed to publish cache invalidation for {}:{}", cacheName, key, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        handler.accept(parts[1], parts[2].isEmpty() ? null : parts[2]);
+    }
+}
@@ -0,0 +1,259 @@
+package com.distributed.documentsearch.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Answers lookups of documents that do not exist without reaching PostgreSQL.
+ *
+ * Every tenant has a Bloom filter of its document IDs, a Redis bitmap of a fixed
+ * number of bits in which each ID sets a fixed number of bits. A document whose
+ * bits are not all set definitely does not exist. Created documents are added
+ * before their transaction commits, so that no committed document can be missing
+ * from the filter; a creation that is rolled back leaves its bits set, like a
+ * deletion. If they cannot be added, the tenant's filter is dropped. Bloom filters
+ * cannot forget, so deleted documents stay in the filter until the next rebuild,
+ * which writes a fresh bitmap next to the live one from the database and swaps it
+ * in; documents created meanwhile are added to both. A tenant without a filter,
+ * because it was never rebuilt or was dropped, is not filtered.
+ *
+ * Lookups that missed anyway, and deleted documents, are remembered per node for
+ * a short time in a negative cache. Document IDs are never reused, so these entries
+ * never have to be invalidated.
+ *
+ * Skipped lookups are counted as {@code documents.lookups.skipped}, tagged with
+ * the structure that answered them. Redis errors are logged and make every
+ * document look like it might exist.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+public class DocumentExistenceFilter {
+
+    private static final String KEY_PREFIX = "documents-bloom:";
+
+    private static final String REBUILD_LOCK_KEY = KEY_PREFIX + "rebuild-lock";
+
+    /** Returns 0 if any of the bits is clear, 1 otherwise or if the filter does not exist */
+    private static final DefaultRedisScript<Long> CHECK_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('exists', KEYS[1]) == 0 then return 1 end
+            for i = 1, #ARGV do
+              if redis.call('getbit', KEYS[1], ARGV[i]) == 0 then return 0 end
+            end
+            return 1
+            """, Long.class);
+
+    /** Sets the bits in every one of the keys that exists */
+    private static final DefaultRedisScript<Long> ADD_SCRIPT = new DefaultRedisScript<>("""
+            local updated = 0
+            for k = 1, #KEYS do
+              if redis.call('exists', KEYS[k]) == 1 then
+                for i = 1, #ARGV do redis.call('setbit', KEYS[k], ARGV[i], 1) end
+                updated = updated + 1
+              end
+            end
+            return updated
+            """, Long.class);
+
+    /** Allocates an empty bitmap that expires unless it is published in time */
+    private static final DefaultRedisScript<Long> BEGIN_SCRIPT = new DefaultRedisScript<>("""
+            redis.call('del', KEYS[1])
+            redis.call('setbit', KEYS[1], ARGV[1], 0)
+            redis.call('pexpire', KEYS[1], ARGV[2])
+            return 1
+            """, Long.class);
+
+    /** Replaces the live bitmap with the rebuilt one */
+    private static final DefaultRedisScript<Long> PUBLISH_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('exists', KEYS[1]) == 0 then return 0 end
+            redis.call('rename', KEYS[1], KEYS[2])
+            redis.call('persist', KEYS[2])
+            return 1
+            """, Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+
+    /** Bits per tenant filter */
+    private final long bits;
+
+    /** Bits set per document */
+    private final int hashes;
+
+    /** How long an unpublished rebuild is kept */
+    private final Duration rebuildTimeout;
+
+    /** Documents known not to exist, by {@link DocumentStatusCache#key(UUID, String) cache key} */
+    private final Cache<String, Boolean> missing;
+
+    private final Counter skippedByFilter;
+    private final Counter skippedByNegativeCache;
+
+    /**
+     * @param bits bits per tenant filter
+     * @param hashes bits set per document
+     * @param rebuildTimeout how long a rebuild may take before it is abandoned
+     * @param negativeTtl how long a node remembers a missing document
+     * @param negativeMaxSize how many missing documents a node remembers
+     */
+    public DocumentExistenceFilter(RedisTemplate<String, String> redisTemplate, long bits, int hashes,
+                                   Duration rebuildTimeout, Duration negativeTtl, long negativeMaxSize,
+                                   MeterRegistry meterRegistry) {
+        this.redisTemplate = redisTemplate;
+        this.bits = bits;
+        this.hashes = hashes;
+        this.rebuildTimeout = rebuildTimeout;
+        this.missing = Caffeine.newBuilder()
+                .maximumSize(negativeMaxSize)
+                .expireAfterWrite(negativeTtl)
+                .build();
+
+        this.skippedByFilter = Counter.builder("documents.lookups.skipped")
+                .description("Lookups of missing documents answered without the database")
+                .tag("by", "filter")
+                .register(meterRegistry);
+        this.skippedByNegativeCache = Counter.builder("documents.lookups.skipped")
+                .description("Lookups of missing documents answered without the database")
+                .tag("by", "negative-cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return true if the document definitely does not exist
+     */
+    public boolean isMissing(UUID id, String tenantId) {
+        if (missing.getIfPresent(DocumentStatusCache.key(id, tenantId)) != null) {
+            skippedByNegativeCache.increment();
+            return true;
+        }
+        try {
+            Long present = redisTemplate.execute(CHECK_SCRIPT, List.of(liveKey(tenantId)), positions(List.of(id)));
+            if (present != null && present == 0) {
+                skippedByFilter.increment();
+                markMissing(id, tenantId);
+                return true;
+            }
+        } catch (Exception e) {
+            log.warn("Failed to check the existence filter of tenant {}", tenantId, e);
+        }
+        return false;
+    }
+
+    /**
+     * Remembers on this node that the document does not exist, once the current
+     * transaction commits.
+     */
+    public void markMissing(UUID id, String tenantId) {
+        TransactionCallbacks.afterCommit(() -> missing.put(DocumentStatusCache.key(id, tenantId), Boolean.TRUE));
+    }
+
+    /**
+     * Adds created documents to the tenant's filter, and to a rebuild in progress,
+     * right away rather than once the current transaction commits.
+     */
+    public void addAll(String tenantId, Collection<UUID> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        List<String> keys = List.of(liveKey(tenantId), rebuildKey(tenantId));
+        try {
+            redisTemplate.execute(ADD_SCRIPT, keys, positions(ids));
+        } catch (Exception e) {
+            log.warn("Failed to add {} documents to the existence filter of tenant {}; dropping the filter",
+                    ids.size(), tenantId, e);
+            try {
+                redisTemplate.delete(keys);
+            } catch (Exception deleteFailure) {
+                log.error("Failed to drop the existence filter of tenant {}; "
+                        + "it may report existing documents as missing until it is rebuilt", tenantId, deleteFailure);
+            }
+        }
+    }
+
+    /**
+     * Elects the node that rebuilds the filters, at most once per interval.
+     *
+     * @return true if this node should rebuild
+     */
+    public boolean claimRebuild(Duration interval) {
+        Boolean claimed = redisTemplate.opsForValue().setIfAbsent(REBUILD_LOCK_KEY, "1", interval);
+        return Boolean.TRUE.equals(claimed);
+    }
+
+    /**
+     * Starts rebuilding the tenant's filter into an empty bitmap. From now on,
+     * created documents are added to it as well.
+     */
+    public void beginRebuild(String tenantId) {
+        redisTemplate.execute(BEGIN_SCRIPT, List.of(rebuildKey(tenantId)),
+                String.valueOf(bits - 1), String.valueOf(rebuildTimeout.toMillis()));
+    }
+
+    /**
+     * Adds existing documents to the tenant's rebuild in progress.
+     */
+    public void addRebuilt(String tenantId, Collection<UUID> ids) {
+        if (!ids.isEmpty()) {
+            redisTemplate.execute(ADD_SCRIPT, List.of(rebuildKey(tenantId)), positions(ids));
+        }
+    }
+
+    /**
+     * Replaces the tenant's filter with the rebuilt one.
+     *
+     * @return false if the rebuild timed out and was dropped
+     */
+    public boolean publishRebuild(String tenantId) {
+        Long published = redisTemplate.execute(PUBLISH_SCRIPT, List.of(rebuildKey(tenantId), liveKey(tenantId)));
+        return published != null && published == 1;
+    }
+
+    /**
+     * Bit positions of the documents, by double hashing of the two halves of their
+     * random IDs.
+     */
+    Object[] positions(Collection<UUID> ids) {
+        List<String> positions = new ArrayList<>(ids.size() * hashes);
+        for (UUID id : ids) {
+            long h1 = mix(id.getMostSignificantBits());
+            long h2 = mix(id.getLeastSignificantBits()) | 1;
+            for (int i = 0; i < hashes; i++) {
+                positions.add(String.valueOf(Math.floorMod(h1 + i * h2, bits)));
+            }
+        }
+        return positions.toArray();
+    }
+
+    /**
+     * The finalizer of MurmurHash3, spreading version and variant bits of the ID.
+     */
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    /** Hash tags keep both bitmaps of a tenant in the same cluster slot */
+    private static String liveKey(String tenantId) {
+        return KEY_PREFIX + "{" + tenantId + "}";
+    }
+
+    private static String rebuildKey(String tenantId) {
+        return KEY_PREFIX + "{" + tenantId + "}:rebuild";
+    }
+}
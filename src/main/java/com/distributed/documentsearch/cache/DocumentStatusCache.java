@@ -0,0 +1,160 @@
+package com.distributed.documentsearch.cache;
+
+import com.distributed.documentsearch.model.DocumentStatus;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.types.Expiration;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Current status of the documents in the {@code documents} cache, kept in small
+ * Redis keys of their own.
+ *
+ * A cached document holds the status it had when it was cached, typically INDEXING
+ * right after its creation. Rather than rewriting the whole entry, content included,
+ * whenever indexing changes the status, the new status is written to a separate key
+ * that readers consult while the cached status is not final. Status keys live as
+ * long as the cached documents. Writes made inside a transaction are deferred until
+ * it commits, so a rolled back status change is never visible. Redis errors are
+ * logged; if a status cannot be written, the cached documents are evicted instead,
+ * so that readers fall back to the database rather than keep the stale status.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+public class DocumentStatusCache {
+
+    private static final String KEY_PREFIX = "documents-status:";
+
+    private static final String DOCUMENTS_CACHE = "documents";
+
+    /** Suffix of the cache key of a document cached without its content */
+    private static final String SUMMARY_KEY_SUFFIX = ":summary";
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final CacheManager cacheManager;
+    private final Duration timeToLive;
+
+    public DocumentStatusCache(RedisTemplate<String, String> redisTemplate, CacheManager cacheManager,
+                               Duration timeToLive) {
+        this.redisTemplate = redisTemplate;
+        this.cacheManager = cacheManager;
+        this.timeToLive = timeToLive;
+    }
+
+    /**
+     * Key of a document's status, and of the document with its content in the
+     * {@code documents} cache.
+     */
+    public static String key(UUID id, String tenantId) {
+        return id + ":" + tenantId;
+    }
+
+    /**
+     * @return the latest status recorded for the document, or null if none is
+     */
+    public DocumentStatus get(UUID id, String tenantId) {
+        try {
+            String status = redisTemplate.opsForValue().get(KEY_PREFIX + key(id, tenantId));
+            return status != null ? DocumentStatus.valueOf(status) : null;
+        } catch (Exception e) {
+            log.warn("Failed to read cached status of document {}", id, e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the status of many documents with one MGET.
+     *
+     * @param keys {@link #key(UUID, String) cache keys} of the documents
+     * @return the latest status recorded, by cache key, for the documents that have one
+     */
+    public Map<String, DocumentStatus> getAll(List<String> keys) {
+        Map<String, DocumentStatus> statuses = new HashMap<>();
+        if (keys.isEmpty()) {
+            return statuses;
+        }
+        try {
+            List<String> values = redisTemplate.opsForValue()
+                    .multiGet(keys.stream().map(key -> KEY_PREFIX + key).toList());
+            for (int i = 0; values != null && i < values.size(); i++) {
+                if (values.get(i) != null) {
+                    statuses.put(keys.get(i), DocumentStatus.valueOf(values.get(i)));
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Failed to read cached status of {} documents", keys.size(), e);
+        }
+        return statuses;
+    }
+
+    public void put(UUID id, String tenantId, DocumentStatus status) {
+        putAll(Map.of(key(id, tenantId), status));
+    }
+
+    /**
+     * Records the status of many documents in one pipeline.
+     *
+     * @param statuses the new status by {@link #key(UUID, String) cache key}
+     */
+    public void putAll(Map<String, DocumentStatus> statuses) {
+        if (statuses.isEmpty()) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            try {
+                redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    statuses.forEach((key, status) -> connection.stringCommands().set(
+                            (KEY_PREFIX + key).getBytes(StandardCharsets.UTF_8),
+                            status.name().getBytes(StandardCharsets.UTF_8),
+                            Expiration.from(timeToLive),
+                            RedisStringCommands.SetOption.upsert()));
+                    return null;
+                });
+            } catch (Exception e) {
+                log.warn("Failed to cache the status of {} documents; evicting them", statuses.size(), e);
+                evictDocuments(statuses.keySet());
+            }
+        });
+    }
+
+    /**
+     * Evicts both projections of the documents from the {@code documents} cache.
+     */
+    private void evictDocuments(Iterable<String> keys) {
+        try {
+            Cache documents = cacheManager.getCache(DOCUMENTS_CACHE);
+            if (documents == null) {
+                return;
+            }
+            for (String key : keys) {
+                documents.evict(key);
+                documents.evict(key + SUMMARY_KEY_SUFFIX);
+            }
+        } catch (Exception e) {
+            log.error("Failed to evict documents whose status could not be cached", e);
+        }
+    }
+
+    public void evict(UUID id, String tenantId) {
+        TransactionCallbacks.afterCommit(() -> {
+            try {
+                redisTemplate.delete(KEY_PREFIX + key(id, tenantId));
+            } catch (Exception e) {
+                log.warn("Failed to evict cached status of document {}", id, e);
+            }
+        });
+    }
+}
@@ -0,0 +1,92 @@
+package com.distributed.documentsearch.cache;
+
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes many entries of a {@link RedisCache} in one round trip.
+ *
+ * {@link RedisCache} only addresses one key per command. This class builds the
+ * same keys and values from the cache's configuration, reads them with a single
+ * MGET and writes them with pipelined SETs, so that entries it writes can be read
+ * by the cache and the other way round.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class RedisCacheBatch {
+
+    private final RedisConnectionFactory connectionFactory;
+
+    public RedisCacheBatch(RedisConnectionFactory connectionFactory) {
+        this.connectionFactory = connectionFactory;
+    }
+
+    /**
+     * @return the values found, by key
+     */
+    public Map<String, Object> getAll(RedisCache cache, List<String> keys) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        byte[][] redisKeys = new byte[keys.size()][];
+        for (int i = 0; i < keys.size(); i++) {
+            redisKeys[i] = redisKey(cache, keys.get(i));
+        }
+
+        List<byte[]> values;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            values = connection.stringCommands().mGet(redisKeys);
+        }
+
+        Map<String, Object> found = new HashMap<>();
+        for (int i = 0; values != null && i < values.size(); i++) {
+            byte[] value = values.get(i);
+            if (value != null && value.length > 0) {
+                Object deserialized = config.getValueSerializationPair().read(ByteBuffer.wrap(value));
+                if (deserialized != null) {
+                    found.put(keys.get(i), deserialized);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Writes the entries with the cache's time-to-live, in one pipeline.
+     */
+    public void putAll(RedisCache cache, Map<String, ?> entries) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            try {
+                entries.forEach((key, value) -> {
+                    Duration ttl = config.getTtlFunction().getTimeToLive(key, value);
+                    connection.stringCommands().set(
+                            redisKey(cache, key),
+                            ByteUtils.getBytes(config.getValueSerializationPair().write(value)),
+                            ttl == null || ttl.isZero() || ttl.isNegative() ? Expiration.persistent() : Expiration.from(ttl),
+                            RedisStringCommands.SetOption.upsert());
+                });
+            } finally {
+                connection.closePipeline();
+            }
+        }
+    }
+
+    private byte[] redisKey(RedisCache cache, String key) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        String prefixed = config.usePrefix() ? config.getKeyPrefixFor(cache.getName()) + key : key;
+        return ByteUtils.getBytes(config.getKeySerializationPair().write(prefixed));
+    }
+}
@@ -0,0 +1,63 @@
+package com.distributed.documentsearch.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Short-lived Redis lock electing the node that recomputes a missing cache entry.
+ *
+ * The lock expires on its own after the configured time-to-live, so a node that
+ * dies while computing only delays the others by that much. Redis errors are
+ * treated as an acquired lock, so coalescing degrades to per-node only.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+public class RedisCacheLoadLock {
+
+    private static final String KEY_PREFIX = "cache-lock:";
+
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final RedisTemplate<String, String> redisTemplate;
+    private final Duration lockTtl;
+
+    public RedisCacheLoadLock(RedisTemplate<String, String> redisTemplate, Duration lockTtl) {
+        this.redisTemplate = redisTemplate;
+        this.lockTtl = lockTtl;
+    }
+
+    /**
+     * Tries to take the lock for a cache entry.
+     *
+     * @return the token to release the lock with, or null if another node holds it
+     */
+    public String tryAcquire(String cacheName, String key) {
+        String token = UUID.randomUUID().toString();
+        try {
+            Boolean acquired = redisTemplate.opsForValue()
+                    .setIfAbsent(KEY_PREFIX + cacheName + ":" + key, token, lockTtl);
+            return Boolean.FALSE.equals(acquired) ? null : token;
+        } catch (Exception e) {
+            log.warn("Failed to acquire cache load lock for {}:{}", cacheName, key, e);
+            return token;
+        }
+    }
+
+    public void release(String cacheName, String key, String token) {
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(KEY_PREFIX + cacheName + ":" + key), token);
+        } catch (Exception e) {
+            log.warn("Failed to release cache load lock for {}:{}", cacheName, key, e);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.distributed.documentsearch.cache;
+
+import com.distributed.documentsearch.dto.SearchRequest;
+import com.distributed.documentsearch.service.IndexGenerationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.interceptor.KeyGenerator;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.stream.Collectors;
+
+/**
+ * Key generator for the search cache.
+ *
+ * The key spells out the complete normalized request rather than a hash of it, so
+ * two different searches can never share an entry. The query text is only trimmed,
+ * as it is echoed back in the response; sort and field names are case-insensitive.
+ * The key also embeds the tenant's
+ * current index generation, so that indexing or deleting a document makes every
+ * earlier cached search of that tenant unreachable. Free-text parts are URL
+ * encoded to keep the separator unambiguous.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Component("searchCacheKeyGenerator")
+@RequiredArgsConstructor
+public class SearchCacheKeyGenerator implements KeyGenerator {
+
+    private static final char SEPARATOR = ':';
+
+    /** Source of the per-tenant index generation */
+    private final IndexGenerationService indexGenerationService;
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        SearchRequest request = (SearchRequest) params[0];
+        String tenantId = request.getTenant();
+
+        return encode(tenantId)
+                + SEPARATOR + "g" + indexGenerationService.current(tenantId)
+                + SEPARATOR + "p" + request.getPage()
+                + SEPARATOR + "s" + request.getSize()
+                + SEPARATOR + "o" + encode(normalize(request.getSort()))
+                + SEPARATOR + "f" + normalizeFields(request)
+                + SEPARATOR + "q" + encode(request.getQ() != null ? request.getQ().trim() : "");
+    }
+
+    private String normalizeFields(SearchRequest request) {
+        if (request.getFields() == null || request.getFields().isEmpty()) {
+            return "*";
+        }
+        return request.getFields().stream()
+                .map(this::normalize)
+                .distinct()
+                .sorted()
+                .map(this::encode)
+                .collect(Collectors.joining(","));
+    }
+
+    private String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private String encode(String value) {
+        return URLEncoder.encode(value != null ? value : "", StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,406 @@
+package com.distributed.documentsearch.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cache with an in-process Caffeine near-cache (L1) in front of a shared cache (L2).
+ *
+ * Reads are served from L1 when possible and otherwise from L2, populating L1 on
+ * the way back. Writes go to both tiers. Evictions, clears and puts that overwrite
+ * an entry of L2 are broadcast through the {@link CacheInvalidationBus} so that
+ * other nodes drop their L1 copy and fall back to L2 on the next read. Filling an
+ * entry that L2 did not have is not broadcast, since no node can hold a copy of it.
+ *
+ * Keys are normalized to strings so that local and remote invalidations address
+ * the same L1 entry.
+ *
+ * Loads through {@link #get(Object, Callable)}, used by {@code @Cacheable(sync = true)},
+ * are coalesced: concurrent misses for the same key on one node share a single
+ * call of the value loader, and with a {@link RedisCacheLoadLock} configured, only
+ * one node recomputes while the others wait for its result to appear in L2.
+ * Entries computed on this node are recomputed ahead of their expiry with the
+ * XFetch probability, which grows with the computation time and as expiry nears,
+ * so that hot entries are refreshed by a single caller instead of expiring under
+ * load.
+ *
+ * {@link #getAll(Collection)} and {@link #putAll(Map)} read and write many entries
+ * at once, in one round trip to the shared tier when it is a {@link RedisCache} and
+ * a {@link RedisCacheBatch} is configured.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class TwoTierCache implements org.springframework.cache.Cache {
+
+    private final String name;
+    private final Cache<String, Object> local;
+    private final org.springframework.cache.Cache remote;
+    private final CacheInvalidationBus invalidationBus;
+    private final TwoTierCacheSettings settings;
+
+    /** Loads currently running on this node, by key */
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    /** Computation time and expiry of entries computed on this node, for early refresh */
+    private final Cache<String, Freshness> freshness;
+
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final Counter coalescedLoads;
+    private final Counter earlyRefreshes;
+
+    public TwoTierCache(String name,
+                        Cache<String, Object> local,
+                        org.springframework.cache.Cache remote,
+                        CacheInvalidationBus invalidationBus,
+                        MeterRegistry meterRegistry,
+                        TwoTierCacheSettings settings) {
+        this.name = name;
+        this.local = local;
+        this.remote = remote;
+        this.invalidationBus = invalidationBus;
+        this.settings = settings;
+
+        Duration timeToLive = settings.getTimeToLive().get(name);
+        this.freshness = timeToLive != null && settings.getEarlyRefreshBeta() > 0
+                ? Caffeine.newBuilder().expireAfterWrite(timeToLive).maximumSize(100_000).build()
+                : null;
+
+        this.l1Hits = counter(meterRegistry, "l1", "hit");
+        this.l1Misses = counter(meterRegistry, "l1", "miss");
+        this.l2Hits = counter(meterRegistry, "l2", "hit");
+        this.l2Misses = counter(meterRegistry, "l2", "miss");
+        hitRatio(meterRegistry, "l1", l1Hits, l1Misses);
+        hitRatio(meterRegistry, "l2", l2Hits, l2Misses);
+        this.coalescedLoads = Counter.builder("cache.loads.coalesced")
+                .description("Misses served by a load already running for the same key")
+                .tag("cache", name)
+                .register(meterRegistry);
+        this.earlyRefreshes = Counter.builder("cache.loads.early.refresh")
+                .description("Hits recomputed ahead of expiry")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            l1Hits.increment();
+            return new SimpleValueWrapper(value);
+        }
+        l1Misses.increment();
+
+        ValueWrapper wrapper = remote.get(key);
+        if (wrapper == null || wrapper.get() == null) {
+            l2Misses.increment();
+            return null;
+        }
+        l2Hits.increment();
+        local.put(localKey, wrapper.get());
+        return wrapper;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null && !shouldRefreshEarly(localKey)) {
+            return (T) wrapper.get();
+        }
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(localKey, flight);
+        if (running != null) {
+            if (wrapper != null) {
+                return (T) wrapper.get();
+            }
+            coalescedLoads.increment();
+            return (T) await(running);
+        }
+        if (wrapper != null) {
+            earlyRefreshes.increment();
+        }
+
+        try {
+            Object value = load(key, localKey, valueLoader, wrapper == null);
+            flight.complete(value);
+            return (T) value;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(localKey, flight);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null) {
+            evict(key);
+            return;
+        }
+        String localKey = localKey(key);
+        if (remote.putIfAbsent(key, value) != null) {
+            remote.put(key, value);
+            invalidationBus.publish(name, localKey);
+        }
+        local.put(localKey, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.invalidate(localKey(key));
+        if (freshness != null) {
+            freshness.invalidate(localKey(key));
+        }
+        invalidationBus.publish(name, localKey(key));
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        if (freshness != null) {
+            freshness.invalidateAll();
+        }
+        invalidationBus.publish(name, null);
+    }
+
+    /**
+     * Looks many keys up at once, reading the near-cache misses from the shared tier
+     * together.
+     *
+     * @return the values found, by key
+     */
+    public Map<String, Object> getAll(Collection<String> keys) {
+        Map<String, Object> found = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        for (String key : keys) {
+            Object value = local.getIfPresent(key);
+            if (value != null) {
+                l1Hits.increment();
+                found.put(key, value);
+            } else {
+                l1Misses.increment();
+                misses.add(key);
+            }
+        }
+        if (misses.isEmpty()) {
+            return found;
+        }
+
+        Map<String, Object> remoteValues;
+        if (settings.getBatch() != null && remote instanceof RedisCache redisCache) {
+            remoteValues = settings.getBatch().getAll(redisCache, misses);
+        } else {
+            remoteValues = new HashMap<>();
+            for (String key : misses) {
+                ValueWrapper wrapper = remote.get(key);
+                if (wrapper != null && wrapper.get() != null) {
+                    remoteValues.put(key, wrapper.get());
+                }
+            }
+        }
+        for (String key : misses) {
+            Object value = remoteValues.get(key);
+            if (value == null) {
+                l2Misses.increment();
+                continue;
+            }
+            l2Hits.increment();
+            local.put(key, value);
+            found.put(key, value);
+        }
+        return found;
+    }
+
+    /**
+     * Fills many entries at once, writing them to the shared tier together.
+     *
+     * Meant for values just loaded after a miss in both tiers: unlike {@link #put},
+     * no invalidation is broadcast, since any change to an entry is broadcast by
+     * whoever makes it and other nodes therefore hold no outdated copy.
+     */
+    public void putAll(Map<String, ?> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        if (settings.getBatch() != null && remote instanceof RedisCache redisCache) {
+            settings.getBatch().putAll(redisCache, entries);
+        } else {
+            entries.forEach(remote::put);
+        }
+        entries.forEach(local::put);
+    }
+
+    /**
+     * Drops an entry from the near-cache only, in response to a change on another node.
+     */
+    void evictLocal(String key) {
+        if (key == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(key);
+        }
+    }
+
+    /**
+     * Computes the value, unless another node already does. In that case the shared
+     * tier is polled until the other node's result arrives or the wait expires.
+     */
+    private Object load(Object key, String localKey, Callable<?> valueLoader, boolean missing) {
+        RedisCacheLoadLock loadLock = settings.getLoadLock();
+        if (loadLock == null) {
+            return compute(key, localKey, valueLoader);
+        }
+
+        String token = loadLock.tryAcquire(name, localKey);
+        if (token != null) {
+            try {
+                return compute(key, localKey, valueLoader);
+            } finally {
+                loadLock.release(name, localKey, token);
+            }
+        }
+
+        long deadline = System.nanoTime() + settings.getLockWait().toNanos();
+        do {
+            ValueWrapper wrapper = remote.get(key);
+            if (wrapper != null && wrapper.get() != null) {
+                local.put(localKey, wrapper.get());
+                return wrapper.get();
+            }
+            if (!missing) {
+                break;
+            }
+            try {
+                Thread.sleep(settings.getLockPollInterval().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        } while (System.nanoTime() < deadline);
+        return compute(key, localKey, valueLoader);
+    }
+
+    private Object compute(Object key, String localKey, Callable<?> valueLoader) {
+        long start = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        long computeNanos = System.nanoTime() - start;
+
+        put(key, value);
+        if (freshness != null && value != null) {
+            Duration timeToLive = settings.getTimeToLive().get(name);
+            freshness.put(localKey, new Freshness(computeNanos, System.nanoTime() + timeToLive.toNanos()));
+        }
+        return value;
+    }
+
+    /**
+     * XFetch: refresh once {@code now - delta * beta * ln(random)} reaches the expiry,
+     * where delta is the time the last computation took.
+     */
+    private boolean shouldRefreshEarly(String localKey) {
+        if (freshness == null) {
+            return false;
+        }
+        Freshness entry = freshness.getIfPresent(localKey);
+        if (entry == null) {
+            return false;
+        }
+        double random = 1.0 - ThreadLocalRandom.current().nextDouble();
+        double gap = entry.computeNanos() * settings.getEarlyRefreshBeta() * -Math.log(random);
+        return System.nanoTime() + gap >= entry.expiresAtNanos();
+    }
+
+    private Object await(CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private String localKey(Object key) {
+        return String.valueOf(key);
+    }
+
+    private Counter counter(MeterRegistry registry, String tier, String result) {
+        return Counter.builder("cache.tier.gets")
+                .description("Cache lookups per tier")
+                .tag("cache", name)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private void hitRatio(MeterRegistry registry, String tier, Counter hits, Counter misses) {
+        Gauge.builder("cache.tier.hit.ratio", () -> {
+                    double total = hits.count() + misses.count();
+                    return total == 0 ? 0.0 : hits.count() / total;
+                })
+                .description("Share of lookups served by the tier")
+                .tag("cache", name)
+                .tag("tier", tier)
+                .register(registry);
+    }
+
+    private record Freshness(long computeNanos, long expiresAtNanos) {
+    }
+}
@@ -0,0 +1,108 @@
+package com.distributed.documentsearch.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link CacheManager} layering a per-node Caffeine near-cache over another cache
+ * manager, typically Redis.
+ *
+ * Every cache gets its own near-cache bounded by an estimate of the retained
+ * bytes, measured as the JSON size of each value, and by a short time-to-live
+ * that caps staleness should an invalidation message be lost.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Slf4j
+public class TwoTierCacheManager implements CacheManager {
+
+    /** Weight used when a value cannot be measured */
+    private static final int DEFAULT_WEIGHT = 1024;
+
+    private final CacheManager remoteCacheManager;
+    private final CacheInvalidationBus invalidationBus;
+    private final MeterRegistry meterRegistry;
+    private final ObjectMapper objectMapper;
+    private final TwoTierCacheSettings settings;
+
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    public TwoTierCacheManager(CacheManager remoteCacheManager,
+                               CacheInvalidationBus invalidationBus,
+                               MeterRegistry meterRegistry,
+                               ObjectMapper objectMapper,
+                               TwoTierCacheSettings settings) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.invalidationBus = invalidationBus;
+        this.meterRegistry = meterRegistry;
+        this.objectMapper = objectMapper;
+        this.settings = settings;
+
+        invalidationBus.onInvalidation((cacheName, key) -> {
+            TwoTierCache cache = caches.get(cacheName);
+            if (cache != null) {
+                cache.evictLocal(key);
+            }
+        });
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, this::createCache);
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return remoteCacheManager.getCacheNames();
+    }
+
+    private TwoTierCache createCache(String name) {
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            throw new IllegalArgumentException("Unknown cache: " + name);
+        }
+        com.github.benmanes.caffeine.cache.Cache<String, Object> local = Caffeine.newBuilder()
+                .maximumWeight(settings.getNearCacheMaxBytes())
+                .<String, Object>weigher((key, value) -> key.length() + estimateSize(value))
+                .expireAfterWrite(settings.getNearCacheTtl())
+                .build();
+        return new TwoTierCache(name, local, remote, invalidationBus, meterRegistry, settings);
+    }
+
+    private int estimateSize(Object value) {
+        CountingOutputStream counter = new CountingOutputStream();
+        try {
+            objectMapper.writeValue(counter, value);
+            return (int) Math.min(Integer.MAX_VALUE, counter.count);
+        } catch (Exception e) {
+            log.debug("Could not measure cached value of type {}", value.getClass().getName(), e);
+            return DEFAULT_WEIGHT;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.distributed.documentsearch.cache;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Tuning of the {@link TwoTierCacheManager}.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Data
+@Builder
+public class TwoTierCacheSettings {
+
+    /** Upper bound of the estimated bytes retained by each near-cache */
+    private long nearCacheMaxBytes;
+
+    /** Near-cache time-to-live, bounding staleness if an invalidation is missed */
+    private Duration nearCacheTtl;
+
+    /** Time-to-live of the shared tier per cache name; caches without one are never refreshed early */
+    @Builder.Default
+    private Map<String, Duration> timeToLive = Map.of();
+
+    /** XFetch aggressiveness; 0 disables probabilistic early refresh */
+    @Builder.Default
+    private double earlyRefreshBeta = 1.0;
+
+    /** Cross-node lock letting a single node recompute a missing entry, or null */
+    private RedisCacheLoadLock loadLock;
+
+    /** Multi-key access to the shared tier, or null to read and write its entries one by one */
+    private RedisCacheBatch batch;
+
+    /** How long a node waits for another node's recomputation before computing itself */
+    @Builder.Default
+    private Duration lockWait = Duration.ofSeconds(2);
+
+    /** Interval between shared-tier reads while waiting for another node */
+    @Builder.Default
+    private Duration lockPollInterval = Duration.ofMillis(50);
+}
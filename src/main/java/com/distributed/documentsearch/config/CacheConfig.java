@@ -1,33 +1,131 @@
 package com.distributed.documentsearch.config;
 
+import com.distributed.documentsearch.cache.CacheInvalidationBus;
+import com.distributed.documentsearch.cache.CompactCacheSerializer;
+import com.distributed.documentsearch.cache.DocumentExistenceFilter;
+import com.distributed.documentsearch.cache.DocumentStatusCache;
+import com.distributed.documentsearch.cache.RedisCacheBatch;
+import com.distributed.documentsearch.cache.RedisCacheLoadLock;
+import com.distributed.documentsearch.cache.TwoTierCacheManager;
+import com.distributed.documentsearch.cache.TwoTierCacheSettings;
+import com.distributed.documentsearch.dto.DocumentResponse;
+import com.distributed.documentsearch.dto.SearchResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
-import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.util.unit.DataSize;
 
 import java.time.Duration;
+import java.util.Map;
 
 @Configuration
 public class CacheConfig {
-    
+
+    /**
+     * Cache manager serving lookups from a per-node Caffeine near-cache backed by
+     * Redis. Near-cache invalidations are broadcast over Redis pub/sub. Concurrent
+     * misses are coalesced per node, and optionally across nodes through a short
+     * Redis lock. Document and search results are stored in Redis in the compact
+     * binary format of {@link CompactCacheSerializer}. Multi-key lookups read Redis
+     * with a single MGET.
+     */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
+    public CacheManager cacheManager(
+            RedisConnectionFactory redisConnectionFactory,
+            CacheInvalidationBus cacheInvalidationBus,
+            RedisTemplate<String, String> redisTemplate,
+            MeterRegistry meterRegistry,
+            ObjectMapper objectMapper,
+            @Value("${app.cache.search-ttl-seconds:3600}") long searchTtlSeconds,
+            @Value("${app.cache.document-ttl-seconds:3600}") long documentTtlSeconds,
+            @Value("${app.cache.near.max-size:64MB}") DataSize nearCacheMaxSize,
+            @Value("${app.cache.near.ttl:60s}") Duration nearCacheTtl,
+            @Value("${app.cache.coalescing.early-refresh-beta:1.0}") double earlyRefreshBeta,
+            @Value("${app.cache.coalescing.distributed-lock:false}") boolean distributedLock,
+            @Value("${app.cache.coalescing.lock-ttl:5s}") Duration lockTtl,
+            @Value("${app.cache.coalescing.lock-wait:2s}") Duration lockWait,
+            @Value("${app.cache.codec.compression-threshold:512B}") DataSize compressionThreshold) {
+        Duration documentTtl = Duration.ofSeconds(documentTtlSeconds);
+        Duration searchTtl = Duration.ofSeconds(searchTtlSeconds);
+
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(5))
                 .serializeKeysWith(RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()))
+                .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(CompactCacheSerializer.legacySerializer()))
                 .disableCachingNullValues();
-        
-        return RedisCacheManager.builder(redisConnectionFactory)
+
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisConnectionFactory)
                 .cacheDefaults(config)
-                .withCacheConfiguration("documents", config.entryTtl(Duration.ofHours(1)))
-                .withCacheConfiguration("search", config.entryTtl(Duration.ofMinutes(5)))
+                .withCacheConfiguration("documents", config.entryTtl(documentTtl)
+                        .serializeValuesWith(compact("documents", DocumentResponse.class, compressionThreshold, meterRegistry)))
+                .withCacheConfiguration("search", config.entryTtl(searchTtl)
+                        .serializeValuesWith(compact("search", SearchResponse.class, compressionThreshold, meterRegistry)))
+                .build();
+        redisCacheManager.initializeCaches();
+
+        TwoTierCacheSettings settings = TwoTierCacheSettings.builder()
+                .nearCacheMaxBytes(nearCacheMaxSize.toBytes())
+                .nearCacheTtl(nearCacheTtl)
+                .timeToLive(Map.of("documents", documentTtl, "search", searchTtl))
+                .earlyRefreshBeta(earlyRefreshBeta)
+                .loadLock(distributedLock ? new RedisCacheLoadLock(redisTemplate, lockTtl) : null)
+                .lockWait(lockWait)
+                .batch(new RedisCacheBatch(redisConnectionFactory))
                 .build();
+
+        return new TwoTierCacheManager(redisCacheManager, cacheInvalidationBus, meterRegistry, objectMapper, settings);
+    }
+
+    private static RedisSerializationContext.SerializationPair<Object> compact(
+            String cacheName, Class<?> type, DataSize compressionThreshold, MeterRegistry meterRegistry) {
+        return RedisSerializationContext.SerializationPair.fromSerializer(new CompactCacheSerializer(
+                cacheName, type, Math.toIntExact(compressionThreshold.toBytes()), meterRegistry));
+    }
+
+    @Bean
+    public DocumentStatusCache documentStatusCache(
+            RedisTemplate<String, String> redisTemplate,
+            CacheManager cacheManager,
+            @Value("${app.cache.document-ttl-seconds:3600}") long documentTtlSeconds) {
+        return new DocumentStatusCache(redisTemplate, cacheManager, Duration.ofSeconds(documentTtlSeconds));
+    }
+
+    @Bean
+    public DocumentExistenceFilter documentExistenceFilter(
+            RedisTemplate<String, String> redisTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.cache.existence-filter.bits:8388608}") long bits,
+            @Value("${app.cache.existence-filter.hashes:7}") int hashes,
+            @Value("${app.cache.existence-filter.rebuild-timeout:10m}") Duration rebuildTimeout,
+            @Value("${app.cache.existence-filter.negative-ttl:30s}") Duration negativeTtl,
+            @Value("${app.cache.existence-filter.negative-max-size:100000}") long negativeMaxSize) {
+        return new DocumentExistenceFilter(redisTemplate, bits, hashes, rebuildTimeout,
+                negativeTtl, negativeMaxSize, meterRegistry);
+    }
+
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(RedisTemplate<String, String> redisTemplate) {
+        return new CacheInvalidationBus(redisTemplate);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory redisConnectionFactory,
+            CacheInvalidationBus cacheInvalidationBus) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(cacheInvalidationBus, new ChannelTopic(CacheInvalidationBus.CHANNEL));
+        return container;
     }
 }
@@ -3,6 +3,10 @@ package com.distributed.documentsearch.config;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.CustomExchange;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
+import org.springframework.amqp.core.FanoutExchange;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.core.TopicExchange;
@@ -11,14 +15,20 @@ import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitAdmin;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
-import org.springframework.amqp.rabbit.listener.adapter.MessageListenerAdapter;
 import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.DependsOn;
 import org.springframework.boot.ApplicationRunner;
 
-import com.distributed.documentsearch.listener.DocumentIndexListener;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import com.distributed.documentsearch.listener.DocumentBatchIndexListener;
+import com.distributed.documentsearch.listener.InteractiveIndexListener;
 
 /**
  * Configuration class for RabbitMQ messaging infrastructure.
@@ -29,8 +39,20 @@ import com.distributed.documentsearch.listener.DocumentIndexListener;
  *
  * Topology:
  * - Topic exchange: document-exchange
- * - Queues: document.index, document.delete
- * - Routing keys: document.index.*, document.delete.*
+ * - Consistent-hash exchange: document-index-lanes, bound to document.bulk.*
+ *   (requires the rabbitmq_consistent_hash_exchange plugin)
+ * - Queues: document.index.interactive for documents created one at a time,
+ *   document.index.lane.0..n-1 for bulk traffic (hashed by routing key, so by tenant),
+ *   document.delete, and document.index, which is no longer bound and only drained
+ * - Routing keys: document.index.* (interactive), document.bulk.* (bulk), document.delete.*
+ * - Retry tiers: one fanout exchange document-retry.{delay} per delay, feeding a
+ *   queue document.retry.{delay} whose TTL dead-letters messages back to
+ *   document-exchange under their original routing key
+ * - Parking lot: fanout exchange document-parking-lot and queue document.parking-lot
+ *   for messages that used up their retries
+ *
+ * Interactive and bulk indexing have separate queues and consumer pools, each
+ * with its own batch size, so that single documents never wait behind imports.
  *
  * @author Distributed Document Search Team
  * @version 1.0
@@ -43,12 +65,33 @@ public class RabbitMQConfig {
     /** Name of the topic exchange for document operations */
     public static final String DOCUMENT_EXCHANGE = "document-exchange";
 
-    /** Name of the queue for document indexing operations */
+    /** Name of the queue for document indexing operations used before indexing lanes; drained only */
     public static final String INDEX_QUEUE = "document.index";
 
+    /** Name of the queue for documents created one at a time */
+    public static final String INTERACTIVE_INDEX_QUEUE = "document.index.interactive";
+
+    /** Name of the consistent-hash exchange spreading bulk indexing messages over the lanes */
+    public static final String INDEX_LANES_EXCHANGE = "document-index-lanes";
+
+    /** Name prefix of the indexing lane queues */
+    public static final String INDEX_LANE_PREFIX = "document.index.lane.";
+
     /** Name of the queue for document deletion operations */
     public static final String DELETE_QUEUE = "document.delete";
 
+    /** Name prefix of the exchanges of the retry tiers */
+    public static final String RETRY_EXCHANGE_PREFIX = "document-retry.";
+
+    /** Name prefix of the delay queues of the retry tiers */
+    public static final String RETRY_QUEUE_PREFIX = "document.retry.";
+
+    /** Name of the exchange for messages that used up their retries */
+    public static final String PARKING_LOT_EXCHANGE = "document-parking-lot";
+
+    /** Name of the queue holding messages that used up their retries until they are replayed */
+    public static final String PARKING_LOT_QUEUE = "document.parking-lot";
+
     /* ---------- Exchange ---------- */
     @Bean
     public TopicExchange documentExchange() {
@@ -61,20 +104,94 @@ public class RabbitMQConfig {
         return QueueBuilder.durable(INDEX_QUEUE).build();
     }
 
+    @Bean
+    public Queue interactiveIndexQueue() {
+        return QueueBuilder.durable(INTERACTIVE_INDEX_QUEUE).build();
+    }
+
     @Bean
     public Queue documentDeleteQueue() {
         return QueueBuilder.durable(DELETE_QUEUE).build();
     }
 
+    /* ---------- Indexing lanes ---------- */
+    @Bean
+    public CustomExchange indexLanesExchange() {
+        return new CustomExchange(INDEX_LANES_EXCHANGE, "x-consistent-hash", true, false);
+    }
+
+    /**
+     * Lane queues, each bound with the same weight so that tenants spread evenly.
+     * The consistent hash keeps a tenant on its lane; changing the lane count moves
+     * only a share of the tenants.
+     */
+    @Bean
+    public Declarables indexLanes(@Value("${app.indexing.fairness.lanes:16}") int lanes) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (String name : indexLaneNames(lanes)) {
+            declarables.add(QueueBuilder.durable(name).build());
+            declarables.add(new Binding(name, Binding.DestinationType.QUEUE, INDEX_LANES_EXCHANGE, "1", null));
+        }
+        return new Declarables(declarables);
+    }
+
+    /* ---------- Retry tiers and parking lot ---------- */
+
+    /**
+     * Delay queues, one per retry tier. A message waits for the TTL of its tier and
+     * is then dead-lettered to the document exchange with the routing key it was
+     * republished with, which is its original one. Queue names include the delay,
+     * so that changing the delays declares new queues instead of conflicting with
+     * the TTL of existing ones.
+     */
+    @Bean
+    public Declarables retryTiers(@Value("${app.indexing.retry.delays:5s,1m,10m}") List<Duration> delays) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (Duration delay : delays) {
+            FanoutExchange exchange = new FanoutExchange(RETRY_EXCHANGE_PREFIX + retryTierName(delay), true, false);
+            Queue queue = QueueBuilder.durable(RETRY_QUEUE_PREFIX + retryTierName(delay))
+                    .ttl(Math.toIntExact(delay.toMillis()))
+                    .deadLetterExchange(DOCUMENT_EXCHANGE)
+                    .build();
+            declarables.add(exchange);
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(exchange));
+        }
+        return new Declarables(declarables);
+    }
+
+    @Bean
+    public FanoutExchange parkingLotExchange() {
+        return new FanoutExchange(PARKING_LOT_EXCHANGE, true, false);
+    }
+
+    @Bean
+    public Queue parkingLotQueue() {
+        return QueueBuilder.durable(PARKING_LOT_QUEUE).build();
+    }
+
+    @Bean
+    public Binding parkingLotBinding() {
+        return BindingBuilder.bind(parkingLotQueue()).to(parkingLotExchange());
+    }
+
     /* ---------- Bindings (use wildcard routing) ---------- */
     @Bean
-    public Binding indexBinding() {
+    public Binding interactiveIndexBinding() {
         return BindingBuilder
-                .bind(documentIndexQueue())
+                .bind(interactiveIndexQueue())
                 .to(documentExchange())
                 .with("document.index.*");
     }
 
+    @Bean
+    public Binding indexLanesBinding() {
+        return BindingBuilder
+                .bind(indexLanesExchange())
+                .to(documentExchange())
+                .with("document.bulk.*");
+    }
+
     @Bean
     public Binding deleteBinding() {
         return BindingBuilder
@@ -101,6 +218,8 @@ public class RabbitMQConfig {
             Jackson2JsonMessageConverter converter) {
         RabbitTemplate template = new RabbitTemplate(connectionFactory);
         template.setMessageConverter(converter);
+        // Unroutable messages are returned, so that the outbox relay keeps them
+        template.setMandatory(true);
         return template;
     }
 
@@ -111,6 +230,16 @@ public class RabbitMQConfig {
             // Force initialization of RabbitMQ declarations
             try {
                 rabbitAdmin.initialize();
+                // Bindings of earlier releases: the old queue is drained but no longer fed,
+                // and the lanes only receive bulk traffic
+                rabbitAdmin.removeBinding(BindingBuilder
+                        .bind(documentIndexQueue())
+                        .to(documentExchange())
+                        .with("document.index.*"));
+                rabbitAdmin.removeBinding(BindingBuilder
+                        .bind(indexLanesExchange())
+                        .to(documentExchange())
+                        .with("document.index.*"));
                 log.info("RabbitMQ declarations initialized successfully");
             } catch (Exception e) {
                 log.error("Failed to initialize RabbitMQ declarations: {}", e.getMessage());
@@ -119,24 +248,77 @@ public class RabbitMQConfig {
         };
     }
 
-    // Programmatic listener container to ensure messages are consumed
+    /**
+     * Batched listener container for interactive indexing.
+     *
+     * Batches are small and are handed over as soon as no further message arrives
+     * within the short batch timeout, so a single document is indexed within a few
+     * milliseconds of arriving. Acknowledgement is manual so that every message can
+     * be acked or rescheduled according to its own bulk indexing result.
+     */
+    @Bean
+    @DependsOn("rabbitAdmin")
+    public SimpleMessageListenerContainer interactiveIndexListenerContainer(
+            ConnectionFactory connectionFactory,
+            InteractiveIndexListener listener,
+            @Value("${app.indexing.interactive.batch-size:50}") int batchSize,
+            @Value("${app.indexing.interactive.batch-timeout-ms:20}") long batchTimeoutMs,
+            @Value("${app.indexing.interactive.concurrency:4}") int concurrency) {
+
+        SimpleMessageListenerContainer container = new SimpleMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.setQueueNames(INTERACTIVE_INDEX_QUEUE);
+        container.setMessageListener(listener);
+        container.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        container.setConsumerBatchEnabled(true);
+        container.setBatchSize(batchSize);
+        container.setPrefetchCount(batchSize);
+        container.setReceiveTimeout(batchTimeoutMs);
+        container.setConcurrentConsumers(concurrency);
+        container.setMaxConcurrentConsumers(concurrency);
+
+        log.info("Created batched RabbitMQ listener container for queue: {} (batchSize={}, consumers={})",
+                INTERACTIVE_INDEX_QUEUE, batchSize, concurrency);
+        return container;
+    }
+
+    /**
+     * Listener container for the bulk indexing lanes and the old index queue.
+     *
+     * The container only hands messages over to the listener, which queues them per
+     * tenant for its indexing workers and acknowledges them once indexed; a single
+     * consumer is therefore enough. The prefetch applies to every lane separately,
+     * bounding the messages a busy lane holds in memory while other lanes keep
+     * delivering.
+     */
     @Bean
     @DependsOn("rabbitAdmin")
     public SimpleMessageListenerContainer indexListenerContainer(
             ConnectionFactory connectionFactory,
-            DocumentIndexListener listener,
-            Jackson2JsonMessageConverter converter) {
+            DocumentBatchIndexListener listener,
+            @Value("${app.indexing.fairness.lanes:16}") int lanes,
+            @Value("${app.indexing.fairness.lane-prefetch:100}") int lanePrefetch) {
+
+        List<String> queues = new ArrayList<>(indexLaneNames(lanes));
+        queues.add(INDEX_QUEUE);
 
         SimpleMessageListenerContainer container = new SimpleMessageListenerContainer();
         container.setConnectionFactory(connectionFactory);
-        container.setQueueNames(INDEX_QUEUE);
-        container.setMessageListener(new MessageListenerAdapter(listener, "handleIndexMessage"));
-        ((MessageListenerAdapter) container.getMessageListener()).setMessageConverter(converter);
-        container.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        container.setQueueNames(queues.toArray(String[]::new));
+        container.setMessageListener(listener);
+        container.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        container.setPrefetchCount(lanePrefetch);
         container.setConcurrentConsumers(1);
-        container.setMaxConcurrentConsumers(1);
 
-        log.info("Created programmatic RabbitMQ listener container for queue: {}", INDEX_QUEUE);
+        log.info("Created RabbitMQ listener container for {} indexing lanes (prefetch={})", lanes, lanePrefetch);
         return container;
     }
+
+    public static List<String> indexLaneNames(int lanes) {
+        return IntStream.range(0, lanes).mapToObj(lane -> INDEX_LANE_PREFIX + lane).toList();
+    }
+
+    public static String retryTierName(Duration delay) {
+        return delay.toMillis() + "ms";
+    }
 }
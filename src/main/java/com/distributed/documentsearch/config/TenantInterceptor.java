@@ -17,8 +17,9 @@ public class TenantInterceptor implements HandlerInterceptor {
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
         String tenantId = request.getHeader(TENANT_HEADER);
         logger.info("Incoming request URI={}, tenant={}", request.getRequestURI(), tenantId);
-        // Allow health check without tenant
-        if (request.getRequestURI().startsWith("/api/v1/health")) {
+        // Allow health check and operator endpoints without tenant
+        if (request.getRequestURI().startsWith("/api/v1/health")
+                || request.getRequestURI().startsWith("/api/v1/admin")) {
             return true;
         }
 
@@ -1,17 +1,28 @@
 package com.distributed.documentsearch.controller;
 
 import com.distributed.documentsearch.config.TenantContext;
+import com.distributed.documentsearch.dto.BulkDocumentResponse;
 import com.distributed.documentsearch.dto.DocumentRequest;
 import com.distributed.documentsearch.dto.DocumentResponse;
+import com.distributed.documentsearch.dto.MultiGetRequest;
+import com.distributed.documentsearch.dto.MultiGetResponse;
+import com.distributed.documentsearch.service.BulkIngestService;
 import com.distributed.documentsearch.service.DocumentService;
+import com.distributed.documentsearch.service.RateLimitCosts;
+import com.distributed.documentsearch.service.RateLimitDecision;
 import com.distributed.documentsearch.service.RateLimitService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.util.HashSet;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -25,9 +36,11 @@ import java.util.UUID;
  *
  * Key Features:
  * - Document creation with automatic indexing
- * - Document retrieval by ID with tenant isolation
+ * - Streaming bulk ingestion of NDJSON or JSON arrays
+ * - Document retrieval by ID with tenant isolation, one or many at a time,
+ *   optionally restricted to some fields
  * - Document deletion with index cleanup
- * - Rate limiting per tenant
+ * - Rate limiting per tenant, weighted by operation, with quota headers
  * - Input validation and error handling
  *
  * @author Distributed Document Search Team
@@ -43,9 +56,15 @@ public class DocumentController {
     /** Service for document business logic operations */
     private final DocumentService documentService;
 
+    /** Service for streaming bulk ingestion */
+    private final BulkIngestService bulkIngestService;
+
     /** Service for rate limiting functionality */
     private final RateLimitService rateLimitService;
 
+    /** Rate limit units charged per operation */
+    private final RateLimitCosts rateLimitCosts;
+
     /**
      * Creates a new document for the current tenant.
      *
@@ -61,12 +80,33 @@ public class DocumentController {
     public ResponseEntity<DocumentResponse> createDocument(@Valid @RequestBody DocumentRequest request) {
         String tenantId = TenantContext.getTenantId();
 
-        if (!rateLimitService.isAllowed(tenantId)) {
-            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        RateLimitDecision decision = rateLimitService.acquire(tenantId, rateLimitCosts.write());
+        if (!decision.allowed()) {
+            return RateLimitHeaders.tooManyRequests(decision);
         }
 
         DocumentResponse response = documentService.createDocument(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+        return ResponseEntity.status(HttpStatus.CREATED).headers(RateLimitHeaders.of(decision)).body(response);
+    }
+
+    /**
+     * Creates many documents for the current tenant in one request.
+     *
+     * The body is either newline-delimited JSON or a JSON array of document creation
+     * requests and is streamed rather than buffered. Documents are persisted in
+     * batches and queued for indexing with one message per batch. The tenant's rate
+     * limit is charged by item count instead of once per request.
+     *
+     * @param request the HTTP request whose body contains the documents
+     * @return ResponseEntity containing per-item results
+     * @throws IOException if the request body cannot be read
+     */
+    @PostMapping(value = "/_bulk", consumes = {"application/x-ndjson", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<BulkDocumentResponse> bulkCreateDocuments(HttpServletRequest request) throws IOException {
+        String tenantId = TenantContext.getTenantId();
+
+        BulkDocumentResponse response = bulkIngestService.ingest(tenantId, request.getInputStream());
+        return ResponseEntity.ok(response);
     }
 
     /**
@@ -74,28 +114,60 @@ public class DocumentController {
      *
      * This endpoint fetches a document from the database using both the document ID
      * and the current tenant ID for proper data isolation. The document must belong
-     * to the requesting tenant.
+     * to the requesting tenant. With {@code fields}, only those fields are returned,
+     * and the content is not read at all unless it is one of them.
      *
      * @param id the unique identifier of the document to retrieve
+     * @param fields the fields to return, e.g. {@code title,status,metadata}; all when absent
      * @return ResponseEntity containing the document response if found, or HTTP 404 if not found
      * @throws DocumentNotFoundException if the document does not exist or belongs to a different tenant
      */
     @GetMapping("/{id}")
-    public ResponseEntity<DocumentResponse> getDocument(@PathVariable UUID id) {
+    public ResponseEntity<DocumentResponse> getDocument(@PathVariable UUID id,
+                                                        @RequestParam(required = false) List<String> fields) {
         String tenantId = TenantContext.getTenantId();
 
-        if (!rateLimitService.isAllowed(tenantId)) {
-            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        RateLimitDecision decision = rateLimitService.acquire(tenantId, rateLimitCosts.read());
+        if (!decision.allowed()) {
+            return RateLimitHeaders.tooManyRequests(decision);
         }
 
         try {
-            DocumentResponse response = documentService.getDocument(id, tenantId);
-            return ResponseEntity.ok(response);
+            DocumentResponse response = documentService.getDocument(id, tenantId, fields);
+            return ResponseEntity.ok().headers(RateLimitHeaders.of(decision)).body(response);
         } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
+            return ResponseEntity.notFound().headers(RateLimitHeaders.of(decision)).build();
         }
     }
 
+    /**
+     * Retrieves many documents by their IDs for the current tenant.
+     *
+     * Meant for clients rendering a page of search hits, which would otherwise fetch
+     * every document with its own request. The documents are read from the cache
+     * together and the rest from the database with a single query. The tenant's rate
+     * limit is charged once, by the number of distinct IDs. {@code fields} works as
+     * for single documents.
+     *
+     * @param request the IDs of the documents to retrieve
+     * @param fields the fields to return; all when absent
+     * @return ResponseEntity containing the documents found in request order and the missing IDs
+     */
+    @PostMapping("/_mget")
+    public ResponseEntity<MultiGetResponse> getDocuments(@Valid @RequestBody MultiGetRequest request,
+                                                         @RequestParam(required = false) List<String> fields) {
+        String tenantId = TenantContext.getTenantId();
+
+        int documents = new HashSet<>(request.getIds()).size();
+        RateLimitDecision decision = rateLimitService.acquire(tenantId, rateLimitCosts.multiGet(documents));
+        if (!decision.allowed()) {
+            return RateLimitHeaders.tooManyRequests(decision);
+        }
+
+        MultiGetResponse response = documentService.getDocuments(request.getIds(), tenantId, fields);
+        return ResponseEntity.ok().headers(RateLimitHeaders.of(decision)).body(response);
+    }
+
     /**
      * Deletes a document by its ID for the current tenant.
      *
@@ -111,15 +183,16 @@ public class DocumentController {
     public ResponseEntity<Void> deleteDocument(@PathVariable UUID id) {
         String tenantId = TenantContext.getTenantId();
         
-        if (!rateLimitService.isAllowed(tenantId)) {
-            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        RateLimitDecision decision = rateLimitService.acquire(tenantId, rateLimitCosts.delete());
+        if (!decision.allowed()) {
+            return RateLimitHeaders.tooManyRequests(decision);
         }
         
         try {
             documentService.deleteDocument(id, tenantId);
-            return ResponseEntity.noContent().build();
+            return ResponseEntity.noContent().headers(RateLimitHeaders.of(decision)).build();
         } catch (RuntimeException e) {
-            return ResponseEntity.notFound().build();
+            return ResponseEntity.notFound().headers(RateLimitHeaders.of(decision)).build();
         }
     }
 }
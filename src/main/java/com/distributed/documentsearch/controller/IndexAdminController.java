@@ -0,0 +1,63 @@
+package com.distributed.documentsearch.controller;
+
+import com.distributed.documentsearch.dto.ReindexProgress;
+import com.distributed.documentsearch.search.ReindexJob;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+
+/**
+ * REST controller for operator actions on the shared search index.
+ *
+ * Base path: /api/v1/admin/reindex
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+@RequestMapping("/api/v1/admin/reindex")
+@ConditionalOnProperty(name = "app.search.backend", havingValue = "elasticsearch", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class IndexAdminController {
+
+    /** Rebuilds the shared index behind its alias */
+    private final ReindexJob reindexJob;
+
+    /**
+     * Starts rebuilding the shared index into its next version.
+     *
+     * @param source where documents are copied from: database (default) or index
+     * @return ResponseEntity with HTTP 202 and the job progress, or 409 if a rebuild is already running
+     * @throws IOException if Elasticsearch cannot be reached
+     */
+    @PostMapping
+    public ResponseEntity<ReindexProgress> start(
+            @RequestParam(defaultValue = "DATABASE") ReindexJob.Source source) throws IOException {
+        try {
+            ReindexProgress progress = reindexJob.start(source);
+            log.info("Reindex from {} into {} started", source, progress.getTargetIndex());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(progress);
+        } catch (IllegalStateException e) {
+            log.warn("Reindex not started: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+
+    /**
+     * Returns the progress of the most recent rebuild started on this node.
+     *
+     * @return ResponseEntity with the job progress, or 404 if no rebuild was started
+     */
+    @GetMapping
+    public ResponseEntity<ReindexProgress> progress() {
+        ReindexProgress progress = reindexJob.lastRun();
+        return progress != null ? ResponseEntity.ok(progress) : ResponseEntity.notFound().build();
+    }
+}
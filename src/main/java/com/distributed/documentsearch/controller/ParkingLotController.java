@@ -0,0 +1,56 @@
+package com.distributed.documentsearch.controller;
+
+import com.distributed.documentsearch.dto.ParkingLotStatus;
+import com.distributed.documentsearch.service.ParkingLotService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for operator actions on messages that used up their retries.
+ *
+ * Base path: /api/v1/admin/parking-lot
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+@RequestMapping("/api/v1/admin/parking-lot")
+@RequiredArgsConstructor
+@Slf4j
+public class ParkingLotController {
+
+    /** Inspects and replays the parking lot */
+    private final ParkingLotService parkingLotService;
+
+    /**
+     * Returns the number of parked messages.
+     *
+     * @return ResponseEntity with the parking-lot status
+     */
+    @GetMapping
+    public ResponseEntity<ParkingLotStatus> status() {
+        return ResponseEntity.ok(ParkingLotStatus.builder()
+                .parked(parkingLotService.count())
+                .build());
+    }
+
+    /**
+     * Republishes parked messages to their original queues, after the cause of
+     * their failures was fixed.
+     *
+     * @param limit maximum number of messages to replay
+     * @return ResponseEntity with the number of replayed and remaining messages
+     */
+    @PostMapping("/replay")
+    public ResponseEntity<ParkingLotStatus> replay(@RequestParam(defaultValue = "1000") int limit) {
+        log.info("Replay of up to {} parked messages requested", limit);
+        int replayed = parkingLotService.replay(limit);
+        return ResponseEntity.ok(ParkingLotStatus.builder()
+                .parked(parkingLotService.count())
+                .replayed(replayed)
+                .build());
+    }
+}
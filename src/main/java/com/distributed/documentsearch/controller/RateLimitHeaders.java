@@ -0,0 +1,39 @@
+package com.distributed.documentsearch.controller;
+
+import com.distributed.documentsearch.service.RateLimitDecision;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Response headers reporting a tenant's rate limit quota.
+ *
+ * X-RateLimit-Limit and X-RateLimit-Remaining are set on every rate-limited
+ * response, Retry-After (in seconds) on 429 responses.
+ */
+final class RateLimitHeaders {
+
+    static final String LIMIT = "X-RateLimit-Limit";
+
+    static final String REMAINING = "X-RateLimit-Remaining";
+
+    private RateLimitHeaders() {
+    }
+
+    static HttpHeaders of(RateLimitDecision decision) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(LIMIT, String.valueOf(decision.limit()));
+        if (decision.remaining() >= 0) {
+            headers.set(REMAINING, String.valueOf(decision.remaining()));
+        }
+        if (!decision.allowed()) {
+            long millis = decision.retryAfter().toMillis();
+            headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (millis + 999) / 1000)));
+        }
+        return headers;
+    }
+
+    static <T> ResponseEntity<T> tooManyRequests(RateLimitDecision decision) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).headers(of(decision)).build();
+    }
+}
@@ -2,12 +2,13 @@ package com.distributed.documentsearch.controller;
 
 import com.distributed.documentsearch.dto.SearchRequest;
 import com.distributed.documentsearch.dto.SearchResponse;
+import com.distributed.documentsearch.service.RateLimitCosts;
+import com.distributed.documentsearch.service.RateLimitDecision;
 import com.distributed.documentsearch.service.RateLimitService;
 import com.distributed.documentsearch.service.SearchService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -35,12 +36,16 @@ public class SearchController {
     /** Service for rate limiting functionality */
     private final RateLimitService rateLimitService;
 
+    /** Rate limit units charged per operation */
+    private final RateLimitCosts rateLimitCosts;
+
     /**
      * Performs a full-text search across documents for the specified tenant.
      *
      * This endpoint searches both document titles and content using Elasticsearch,
      * returning results with relevance scoring, snippets, and pagination support.
      * Results are filtered by tenant for data isolation.
+     * The tenant's rate limit is charged by the number of hits requested.
      *
      * @param request the search request containing query, tenant, and pagination parameters
      * @return ResponseEntity containing search results with relevance-ranked documents
@@ -48,11 +53,13 @@ public class SearchController {
      */
     @GetMapping
     public ResponseEntity<SearchResponse> search(@Valid SearchRequest request) {
-        if (!rateLimitService.isAllowed(request.getTenant())) {
-            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).build();
+        RateLimitDecision decision =
+                rateLimitService.acquire(request.getTenant(), rateLimitCosts.search(request.getSize()));
+        if (!decision.allowed()) {
+            return RateLimitHeaders.tooManyRequests(decision);
         }
         
         SearchResponse response = searchService.search(request);
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok().headers(RateLimitHeaders.of(decision)).body(response);
     }
 }
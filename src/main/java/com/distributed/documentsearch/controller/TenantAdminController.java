@@ -0,0 +1,41 @@
+package com.distributed.documentsearch.controller;
+
+import com.distributed.documentsearch.search.TenantIndexPromoter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * REST controller for operator actions on tenants.
+ *
+ * Base path: /api/v1/admin/tenants
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@RestController
+@RequestMapping("/api/v1/admin/tenants")
+@ConditionalOnProperty(name = "app.search.backend", havingValue = "elasticsearch", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class TenantAdminController {
+
+    /** Moves tenants to dedicated indices */
+    private final TenantIndexPromoter tenantIndexPromoter;
+
+    /**
+     * Starts moving the tenant from the shared index to a dedicated index.
+     *
+     * @param tenantId the tenant to promote
+     * @return ResponseEntity with HTTP 202 status; the move continues in the background
+     */
+    @PostMapping("/{tenantId}/promote")
+    public ResponseEntity<Void> promote(@PathVariable String tenantId) {
+        log.info("Promotion of tenant {} to a dedicated index requested", tenantId);
+        tenantIndexPromoter.promote(tenantId);
+        return ResponseEntity.accepted().build();
+    }
+}
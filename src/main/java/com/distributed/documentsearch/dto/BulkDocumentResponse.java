@@ -0,0 +1,47 @@
+package com.distributed.documentsearch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object for the result of a bulk document ingestion request.
+ *
+ * Every item of the request body gets its own result entry, identified by its
+ * zero-based position in the request, so that clients can retry only the items
+ * that failed.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkDocumentResponse {
+
+    /** Time spent processing the request in milliseconds */
+    private Long took;
+
+    /** Whether at least one item failed */
+    private Boolean errors;
+
+    /** Per-item results in request order */
+    private List<ItemResult> items;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private Integer index;
+        private UUID id;
+        private Integer status;
+        private String error;
+    }
+}
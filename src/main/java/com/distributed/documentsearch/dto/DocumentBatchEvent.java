@@ -0,0 +1,21 @@
+package com.distributed.documentsearch.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class DocumentBatchEvent {
+    private String tenantId;
+
+    /** Bare document IDs, as sent by releases before {@link DocumentEvent} snapshots */
+    private List<String> documentIds;
+
+    private List<DocumentEvent> documents;
+}
@@ -1,13 +1,126 @@
 package com.distributed.documentsearch.dto;
 
+import com.distributed.documentsearch.model.Document;
+import com.distributed.documentsearch.model.DocumentIndex;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Map;
+
+/**
+ * Indexing event for a single document.
+ *
+ * The event normally carries a snapshot of everything the search index needs, so
+ * that the indexer does not read the document back from PostgreSQL. Documents
+ * whose text exceeds the inline limit are sent as a reference that only holds the
+ * ID and tenant, and are loaded by the indexer instead. Deletion events are
+ * references carrying the version of the deleted document.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
 @Data
-@AllArgsConstructor
+@Builder
 @NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class DocumentEvent {
+
+    /**
+     * Schema version written by this release; consumers load newer events from the database.
+     * Version 2 added the document version.
+     */
+    public static final int SCHEMA_VERSION = 2;
+
+    /** Schema version of the event, 0 for events from releases before versioning */
+    private int schemaVersion;
+
     private String documentId;
+
     private String tenantId;
+
+    /** Version of the document when the event was written, null in events written before schema version 2 */
+    private Long version;
+
+    /** Whether the fields below hold a snapshot of the document */
+    private boolean inline;
+
+    private String title;
+
+    private String content;
+
+    private Map<String, Object> metadata;
+
+    private String createdAt;
+
+    private String updatedAt;
+
+    /**
+     * Builds an event carrying a snapshot of the document.
+     */
+    public static DocumentEvent snapshot(Document document) {
+        DocumentIndex index = DocumentIndex.from(document);
+        return DocumentEvent.builder()
+                .schemaVersion(SCHEMA_VERSION)
+                .documentId(index.getId())
+                .tenantId(index.getTenantId())
+                .version(index.getVersion())
+                .inline(true)
+                .title(index.getTitle())
+                .content(index.getContent())
+                .metadata(index.getMetadata())
+                .createdAt(index.getCreatedAt())
+                .updatedAt(index.getUpdatedAt())
+                .build();
+    }
+
+    /**
+     * Builds an event the indexer resolves by reading the document from the database.
+     */
+    public static DocumentEvent reference(String documentId, String tenantId) {
+        return DocumentEvent.builder()
+                .schemaVersion(SCHEMA_VERSION)
+                .documentId(documentId)
+                .tenantId(tenantId)
+                .build();
+    }
+
+    /**
+     * Builds the event announcing the deletion of a document, carrying the version
+     * the document had when it was deleted.
+     */
+    public static DocumentEvent deletion(Document document) {
+        DocumentEvent event = reference(document.getId().toString(), document.getTenantId());
+        event.setVersion(document.getVersion());
+        return event;
+    }
+
+    /**
+     * Whether the indexer can index this event without reading the database.
+     */
+    @JsonIgnore
+    public boolean isSelfContained() {
+        return inline && schemaVersion >= 1 && schemaVersion <= SCHEMA_VERSION;
+    }
+
+    /**
+     * Returns the searchable copy carried by a self-contained event.
+     */
+    public DocumentIndex toIndex() {
+        return DocumentIndex.builder()
+                .id(documentId)
+                .tenantId(tenantId)
+                .title(title)
+                .content(content)
+                .metadata(metadata)
+                .version(version)
+                .createdAt(createdAt)
+                .updatedAt(updatedAt)
+                .build();
+    }
 }
@@ -1,6 +1,7 @@
 package com.distributed.documentsearch.dto;
 
 import com.distributed.documentsearch.model.DocumentStatus;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -14,14 +15,16 @@ import java.util.UUID;
  * Data Transfer Object for document response information.
  *
  * This class represents the response structure returned by document-related API endpoints,
- * containing all document details including metadata and timestamps.
+ * containing all document details including metadata and timestamps. Fields left out
+ * by a {@code fields=} projection are null and omitted from the JSON.
  *
  * @author Distributed Document Search Team
  * @version 1.0
  * @since 1.0
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
+@JsonInclude(JsonInclude.Include.NON_NULL)
 @NoArgsConstructor
 @AllArgsConstructor
 public class DocumentResponse {
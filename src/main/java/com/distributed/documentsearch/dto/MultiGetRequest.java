@@ -0,0 +1,20 @@
+package com.distributed.documentsearch.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class MultiGetRequest {
+
+    /** Upper bound of the IDs fetched in one request */
+    public static final int MAX_IDS = 500;
+
+    @NotEmpty(message = "IDs are required")
+    @Size(max = MAX_IDS, message = "At most " + MAX_IDS + " IDs can be fetched at once")
+    private List<@NotNull UUID> ids;
+}
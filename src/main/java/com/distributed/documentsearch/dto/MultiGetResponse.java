@@ -0,0 +1,32 @@
+package com.distributed.documentsearch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Data Transfer Object for the result of a multi-get request.
+ *
+ * Found documents are listed in the order of the requested IDs, each once; IDs of
+ * documents that do not exist, or belong to another tenant, are listed separately.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MultiGetResponse {
+
+    /** Found documents in request order */
+    private List<DocumentResponse> documents;
+
+    /** Requested IDs without a document */
+    private List<UUID> missing;
+}
@@ -0,0 +1,27 @@
+package com.distributed.documentsearch.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Data Transfer Object for the state of the parking-lot queue, which holds the
+ * indexing and deletion messages that used up their retries.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ParkingLotStatus {
+
+    /** Messages waiting in the parking lot */
+    private Long parked;
+
+    /** Messages republished by the request, null if nothing was replayed */
+    private Integer replayed;
+}
@@ -0,0 +1,101 @@
+package com.distributed.documentsearch.dto;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Data Transfer Object reporting the progress of a reindex job.
+ *
+ * The job updates the counters from several copy threads while the admin API
+ * reads them, so all mutable state is atomic or volatile.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Getter
+public class ReindexProgress {
+
+    public enum State {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    /** Where documents are copied from: database or index */
+    private final String source;
+
+    /** Physical index behind the alias when the job started */
+    private final String sourceIndex;
+
+    /** Physical index being built */
+    private final String targetIndex;
+
+    /** Time the job started */
+    private final Instant startedAt = Instant.now();
+
+    /** Current state of the job */
+    private volatile State state = State.RUNNING;
+
+    /** Number of documents to copy, known once the copy starts */
+    private volatile long total;
+
+    /** Time the job completed or failed */
+    private volatile Instant finishedAt;
+
+    /** Failure reason, null unless the job failed */
+    private volatile String error;
+
+    private final AtomicLong copied = new AtomicLong();
+
+    private final AtomicLong failed = new AtomicLong();
+
+    public ReindexProgress(String source, String sourceIndex, String targetIndex) {
+        this.source = source;
+        this.sourceIndex = sourceIndex;
+        this.targetIndex = targetIndex;
+    }
+
+    public long getCopied() {
+        return copied.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * Copy throughput since the job started, in documents per second.
+     */
+    public double getDocsPerSecond() {
+        Instant end = finishedAt != null ? finishedAt : Instant.now();
+        long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+        return copied.get() * 1000.0 / millis;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public void recordCopied(long count) {
+        copied.addAndGet(count);
+    }
+
+    public void recordFailed(long count) {
+        failed.addAndGet(count);
+    }
+
+    public void complete() {
+        finishedAt = Instant.now();
+        state = State.COMPLETED;
+    }
+
+    public void fail(String reason) {
+        error = reason;
+        finishedAt = Instant.now();
+        state = State.FAILED;
+    }
+}
@@ -4,6 +4,8 @@ import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Data;
 
+import java.util.List;
+
 @Data
 public class SearchRequest {
     
@@ -20,4 +22,9 @@ public class SearchRequest {
     private Integer size = 10;
     
     private String sort = "relevance";
+    
+    private String cursor;
+
+    /** Result fields to return (id, title, snippet, score, metadata); all when empty */
+    private List<String> fields;
 }
@@ -1,5 +1,6 @@
 package com.distributed.documentsearch.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -18,11 +19,13 @@ public class SearchResponse {
     private Integer page;
     private Integer size;
     private List<SearchResult> results;
+    private String nextCursor;
 
     @Data
     @Builder
     @NoArgsConstructor
     @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     public static class SearchResult {
         private String id;
         private String title;
@@ -0,0 +1,7 @@
+package com.distributed.documentsearch.exception;
+
+public class RequestCostExceedsLimitException extends RuntimeException {
+    public RequestCostExceedsLimitException(String message) {
+        super(message);
+    }
+}
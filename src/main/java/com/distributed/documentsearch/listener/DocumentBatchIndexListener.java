@@ -0,0 +1,122 @@
+package com.distributed.documentsearch.listener;
+
+import com.distributed.documentsearch.search.IndexingPriority;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareMessageListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Consumer for bulk indexing traffic, scheduling the indexing work fairly across tenants.
+ *
+ * Bulk indexing messages are spread over several lane queues by hashing the tenant
+ * in the routing key, so that one tenant's backlog only queues up in front of the
+ * tenants sharing its lane. Consumed messages are not processed right away but
+ * queued per tenant in a {@link TenantFairQueue}; indexing workers take large
+ * batches from it in weighted round robin and hand them to the
+ * {@link IndexBatchProcessor}. Messages stay unacknowledged until then, so the lane
+ * prefetch bounds the memory held by waiting messages and nothing is lost on
+ * shutdown. {@code indexing.pending} gauges the documents waiting for a worker.
+ * It is not tagged by tenant, since every tenant would add a meter for good.
+ */
+@Component
+@Slf4j
+public class DocumentBatchIndexListener implements ChannelAwareMessageListener {
+
+    private final IndexBatchProcessor processor;
+
+    /** Maximum documents per bulk request */
+    private final int batchSize;
+
+    /** How long a worker waits for messages before checking again */
+    private final long batchTimeoutMs;
+
+    /** Number of indexing workers */
+    private final int concurrency;
+
+    /** Consumed messages waiting for a worker */
+    private final TenantFairQueue<IndexBatchProcessor.Received> queue;
+
+    private ExecutorService workers;
+
+    public DocumentBatchIndexListener(
+            IndexBatchProcessor processor,
+            MeterRegistry meterRegistry,
+            Environment environment,
+            @Value("${app.indexing.bulk.batch-size:2000}") int batchSize,
+            @Value("${app.indexing.bulk.batch-timeout-ms:1000}") long batchTimeoutMs,
+            @Value("${app.indexing.bulk.concurrency:4}") int concurrency,
+            @Value("${app.indexing.fairness.quantum:100}") int quantum,
+            @Value("${app.indexing.fairness.default-weight:1}") int defaultWeight) {
+        this.processor = processor;
+        this.batchSize = batchSize;
+        this.batchTimeoutMs = batchTimeoutMs;
+        this.concurrency = concurrency;
+
+        Map<String, Integer> weights = Binder.get(environment)
+                .bind("app.indexing.fairness.weights", Bindable.mapOf(String.class, Integer.class))
+                .orElse(Map.of());
+        this.queue = new TenantFairQueue<>(quantum,
+                tenantId -> weights.getOrDefault(tenantId, defaultWeight),
+                received -> Math.max(1, received.events().size()));
+        log.info("Fair indexing across tenants with quantum {} and weights {}", quantum, weights);
+
+        Gauge.builder("indexing.pending", queue, q -> q.pendingCost())
+                .description("Documents waiting for a bulk indexing worker")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        AtomicInteger counter = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(concurrency,
+                r -> new Thread(r, "bulk-indexing-worker-" + counter.incrementAndGet()));
+        for (int i = 0; i < concurrency; i++) {
+            workers.execute(this::work);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        // Unacknowledged messages are redelivered once the consumers' channels close
+        workers.shutdownNow();
+    }
+
+    @Override
+    public void onMessage(Message message, Channel channel) {
+        IndexBatchProcessor.Received received = processor.receive(message, channel);
+        if (received == null) {
+            return;
+        }
+
+        queue.add(received.tenantId(), received);
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                List<IndexBatchProcessor.Received> batch = queue.poll(batchSize, batchTimeoutMs);
+                if (!batch.isEmpty()) {
+                    processor.index(batch, IndexingPriority.BULK);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -1,34 +1,52 @@
 package com.distributed.documentsearch.listener;
 
 import com.distributed.documentsearch.config.RabbitMQConfig;
+import com.distributed.documentsearch.dto.DocumentEvent;
 import com.distributed.documentsearch.service.DocumentService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitHandler;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.messaging.handler.annotation.Header;
 import org.springframework.stereotype.Component;
 import jakarta.annotation.PostConstruct;
 
 import java.util.UUID;
 
+/**
+ * Consumes deletion messages. Deletions are versioned, so several consumers may
+ * process them concurrently and in any order. Failed deletions are handed to the
+ * {@link IndexingRetryRecoverer} by the container's single-attempt retry.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
+@RabbitListener(queues = RabbitMQConfig.DELETE_QUEUE, concurrency = "${app.indexing.delete-concurrency:4}")
 public class DocumentIndexListener {
 
+    private static final String DELETE_ROUTING_PREFIX = "document.delete.";
+
     private final DocumentService documentService;
 
-    @RabbitListener(queues = RabbitMQConfig.INDEX_QUEUE)
-    public void handleIndexMessage(String documentId) {
-        UUID id = UUID.fromString(documentId);
-        log.info("Received indexing request for document={}", id);
-        documentService.indexDocument(id);
+    @RabbitHandler
+    public void handleDeleteEvent(DocumentEvent event) {
+        UUID id = UUID.fromString(event.getDocumentId());
+        log.info("Received deletion request for document: {} at version {}", id, event.getVersion());
+        documentService.deleteIndex(id, event.getTenantId(), event.getVersion());
     }
 
-    @RabbitListener(queues = RabbitMQConfig.DELETE_QUEUE)
-    public void handleDeleteMessage(String documentId) {
+    /**
+     * Handles deletion messages enqueued before deletions were versioned, which
+     * only carry the document ID.
+     */
+    @RabbitHandler
+    public void handleDeleteMessage(String documentId,
+                                    @Header(AmqpHeaders.RECEIVED_ROUTING_KEY) String routingKey) {
         UUID id = UUID.fromString(documentId);
+        String tenantId = routingKey.substring(DELETE_ROUTING_PREFIX.length());
         log.info("Received deletion request for document: {}", id);
-        documentService.deleteIndex(id);
+        documentService.deleteIndex(id, tenantId, null);
     }
 
     @PostConstruct
@@ -0,0 +1,192 @@
+package com.distributed.documentsearch.listener;
+
+import com.distributed.documentsearch.dto.DocumentBatchEvent;
+import com.distributed.documentsearch.dto.DocumentEvent;
+import com.distributed.documentsearch.search.IndexingPriority;
+import com.distributed.documentsearch.service.BulkIndexService;
+import com.distributed.documentsearch.service.BulkIndexService.Outcome;
+import com.rabbitmq.client.Channel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Indexes batches of consumed indexing messages, shared by the interactive and bulk priorities.
+ *
+ * A message carries a {@link DocumentEvent}, a {@link DocumentBatchEvent} published
+ * by bulk ingestion, or a bare document ID from earlier releases. All documents of a
+ * batch are indexed together through {@link BulkIndexService}, and every message is
+ * then acknowledged, rescheduled or parked through the {@link IndexingRetryRecoverer}
+ * according to the per-item result of the bulk request. Consumers never wait for a
+ * retry themselves. Per priority and consumed queue, {@code indexing.lag} times
+ * how long documents took from being written to being indexed. Bulk lanes are
+ * hashed by tenant, so a tenant falling behind shows up on its lane without a
+ * meter per tenant.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IndexBatchProcessor {
+
+    private static final List<String> ROUTING_PREFIXES = List.of("document.index.", "document.bulk.");
+
+    private final BulkIndexService bulkIndexService;
+    private final IndexingRetryRecoverer retryRecoverer;
+    private final Jackson2JsonMessageConverter messageConverter;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Parses a consumed message, parking it if it is malformed.
+     *
+     * @return the parsed message, or null if it was parked
+     */
+    public Received receive(Message message, Channel channel) {
+        try {
+            List<DocumentEvent> events = extractEvents(message);
+            return new Received(message, channel, tenantOf(message, events), events);
+        } catch (Exception e) {
+            log.error("Malformed indexing message", e);
+            settle(channel, message, () -> retryRecoverer.park(message, e));
+            return null;
+        }
+    }
+
+    /**
+     * Indexes the documents of a batch of messages and settles every message.
+     */
+    public void index(List<Received> batch, IndexingPriority priority) {
+        List<DocumentEvent> events = new ArrayList<>();
+        batch.forEach(received -> events.addAll(received.events()));
+
+        log.info("Indexing {} batch of {} messages for {} documents", priority, batch.size(), events.size());
+        Map<UUID, Outcome> outcomes;
+        try {
+            outcomes = bulkIndexService.indexDocuments(events, priority);
+        } catch (Exception e) {
+            log.error("Indexing batch failed", e);
+            batch.forEach(received -> settle(received.channel(), received.message(),
+                    () -> retryRecoverer.recover(received.message(), e)));
+            return;
+        }
+
+        for (Received received : batch) {
+            List<UUID> ids = received.events().stream()
+                    .map(event -> UUID.fromString(event.getDocumentId()))
+                    .toList();
+            if (ids.stream().anyMatch(id -> outcomes.get(id) == Outcome.RETRY)) {
+                settle(received.channel(), received.message(), () -> retryRecoverer.recover(received.message(),
+                        new IllegalStateException("Search backend temporarily refused documents")));
+            } else if (ids.stream().anyMatch(id -> outcomes.get(id) == Outcome.REJECTED)) {
+                settle(received.channel(), received.message(), () -> retryRecoverer.park(received.message(),
+                        new IllegalStateException("Search backend rejected documents")));
+            } else {
+                ack(received.channel(), received.message());
+                recordLag(received, priority);
+            }
+        }
+    }
+
+    private void recordLag(Received received, IndexingPriority priority) {
+        Date timestamp = received.message().getMessageProperties().getTimestamp();
+        if (timestamp == null) {
+            return;
+        }
+        Timer.builder("indexing.lag")
+                .description("Time from writing a document to indexing it")
+                .tag("priority", priority.name().toLowerCase(Locale.ROOT))
+                .tag("queue", Objects.requireNonNullElse(
+                        received.message().getMessageProperties().getConsumerQueue(), "unknown"))
+                .register(meterRegistry)
+                .record(Duration.between(timestamp.toInstant(), Instant.now()));
+    }
+
+    /**
+     * The tenant is the last segment of the routing key; events carry it as well.
+     */
+    private String tenantOf(Message message, List<DocumentEvent> events) {
+        String routingKey = message.getMessageProperties().getReceivedRoutingKey();
+        if (routingKey != null) {
+            for (String prefix : ROUTING_PREFIXES) {
+                if (routingKey.startsWith(prefix)) {
+                    return routingKey.substring(prefix.length());
+                }
+            }
+        }
+        return events.stream()
+                .map(DocumentEvent::getTenantId)
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElse("unknown");
+    }
+
+    private List<DocumentEvent> extractEvents(Message message) {
+        Object payload = messageConverter.fromMessage(message);
+        if (payload instanceof DocumentEvent event) {
+            return List.of(event);
+        }
+        if (payload instanceof DocumentBatchEvent batch) {
+            if (batch.getDocuments() != null) {
+                return batch.getDocuments();
+            }
+            return batch.getDocumentIds().stream()
+                    .map(id -> DocumentEvent.reference(UUID.fromString(id).toString(), batch.getTenantId()))
+                    .toList();
+        }
+        if (payload instanceof String documentId) {
+            return List.of(DocumentEvent.reference(UUID.fromString(documentId).toString(), null));
+        }
+        throw new IllegalArgumentException("Unsupported indexing payload: " + payload);
+    }
+
+    /**
+     * Hands a message over to the retry tiers or the parking lot and acknowledges it
+     * once the broker confirmed the copy; if it did not, the message is requeued.
+     */
+    private void settle(Channel channel, Message message, Runnable republish) {
+        try {
+            republish.run();
+        } catch (Exception e) {
+            log.error("Failed to reschedule indexing message; requeueing it", e);
+            requeue(channel, message);
+            return;
+        }
+        ack(channel, message);
+    }
+
+    private void ack(Channel channel, Message message) {
+        try {
+            channel.basicAck(message.getMessageProperties().getDeliveryTag(), false);
+        } catch (IOException e) {
+            log.error("Failed to acknowledge indexing message", e);
+        }
+    }
+
+    private void requeue(Channel channel, Message message) {
+        try {
+            channel.basicNack(message.getMessageProperties().getDeliveryTag(), false, true);
+        } catch (IOException e) {
+            log.error("Failed to requeue indexing message", e);
+        }
+    }
+
+    /**
+     * A consumed indexing message, settled on the channel it arrived on.
+     */
+    public record Received(Message message, Channel channel, String tenantId, List<DocumentEvent> events) {
+    }
+}
@@ -0,0 +1,150 @@
+package com.distributed.documentsearch.listener;
+
+import com.distributed.documentsearch.config.RabbitMQConfig;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.retry.MessageRecoverer;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Reschedules indexing and deletion messages whose processing failed, without
+ * holding up the consumer.
+ *
+ * A failed message is republished to the delay queue of its next retry tier with
+ * the number of failed attempts in the {@value #ATTEMPT_HEADER} header. The delay
+ * queue holds it for its TTL and then dead-letters it back to the document exchange
+ * under its original routing key, so it returns to the queue it came from. Once
+ * every tier is used up, or if the message can never be processed, it is parked in
+ * the parking-lot queue until an operator replays it. Republishing waits for the
+ * publisher confirm, so the consumer may acknowledge the original as soon as this
+ * returns; if the broker does not confirm, an exception is thrown and the original
+ * should be requeued instead.
+ *
+ * Also serves as the recoverer of the {@code @RabbitListener} containers, whose
+ * stateless retry is limited to a single attempt.
+ */
+@Component
+@Slf4j
+public class IndexingRetryRecoverer implements MessageRecoverer {
+
+    /** Header counting the failed attempts of a message */
+    public static final String ATTEMPT_HEADER = "x-attempt";
+
+    /** Header describing the failure that parked a message */
+    public static final String EXCEPTION_HEADER = "x-exception-message";
+
+    private final RabbitTemplate rabbitTemplate;
+    private final MeterRegistry meterRegistry;
+
+    /** Delay of every retry tier, in order of the attempts */
+    private final List<Duration> delays;
+
+    /** How long a republished message waits for its publisher confirm */
+    private final Duration confirmTimeout;
+
+    public IndexingRetryRecoverer(
+            RabbitTemplate rabbitTemplate,
+            MeterRegistry meterRegistry,
+            @Value("${app.indexing.retry.delays:5s,1m,10m}") List<Duration> delays,
+            @Value("${app.indexing.retry.confirm-timeout:5s}") Duration confirmTimeout) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.meterRegistry = meterRegistry;
+        this.delays = delays;
+        this.confirmTimeout = confirmTimeout;
+    }
+
+    /**
+     * Schedules the next attempt of a failed message, or parks it once its retries are used up.
+     *
+     * @throws AmqpException if the broker did not confirm the republished message
+     */
+    @Override
+    public void recover(Message message, Throwable cause) {
+        int attempt = attemptsOf(message) + 1;
+        if (attempt > delays.size() || isUnprocessable(cause)) {
+            park(message, cause);
+            return;
+        }
+
+        Duration delay = delays.get(attempt - 1);
+        String tier = RabbitMQConfig.retryTierName(delay);
+        message.getMessageProperties().setHeader(ATTEMPT_HEADER, attempt);
+        publish(RabbitMQConfig.RETRY_EXCHANGE_PREFIX + tier, message);
+        meterRegistry.counter("indexing.retries", "tier", tier).increment();
+        log.warn("Retrying message {} in {} after failed attempt {}: {}",
+                message.getMessageProperties().getReceivedRoutingKey(), delay, attempt, describe(cause));
+    }
+
+    /**
+     * Moves a message to the parking lot right away.
+     *
+     * @throws AmqpException if the broker did not confirm the parked message
+     */
+    public void park(Message message, Throwable cause) {
+        message.getMessageProperties().setHeader(EXCEPTION_HEADER, describe(cause));
+        publish(RabbitMQConfig.PARKING_LOT_EXCHANGE, message);
+        meterRegistry.counter("indexing.parked").increment();
+        log.error("Parked message {} after {} failed attempts: {}",
+                message.getMessageProperties().getReceivedRoutingKey(), attemptsOf(message) + 1, describe(cause));
+    }
+
+    private void publish(String exchange, Message message) {
+        MessageProperties properties = message.getMessageProperties();
+        // Received messages only carry the delivery mode they arrived with
+        properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+
+        CorrelationData correlation = new CorrelationData();
+        rabbitTemplate.send(exchange, properties.getReceivedRoutingKey(), message, correlation);
+        try {
+            CorrelationData.Confirm confirm = correlation.getFuture()
+                    .get(confirmTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (!confirm.isAck() || correlation.getReturned() != null) {
+                throw new AmqpException("Broker did not accept the message for " + exchange);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AmqpException("Interrupted while waiting for the confirm of " + exchange, e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new AmqpException("No confirm for the message to " + exchange, e);
+        }
+    }
+
+    private static int attemptsOf(Message message) {
+        Object attempts = message.getMessageProperties().getHeader(ATTEMPT_HEADER);
+        return attempts instanceof Number number ? number.intValue() : 0;
+    }
+
+    /**
+     * Malformed messages fail the same way on every attempt.
+     */
+    private static boolean isUnprocessable(Throwable cause) {
+        for (Throwable t = cause; t != null; t = t.getCause()) {
+            if (t instanceof MessageConversionException || t instanceof IllegalArgumentException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String describe(Throwable cause) {
+        Throwable root = cause;
+        while (root.getCause() != null) {
+            root = root.getCause();
+        }
+        return root.getClass().getSimpleName() + ": " + root.getMessage();
+    }
+}
@@ -0,0 +1,39 @@
+package com.distributed.documentsearch.listener;
+
+import com.distributed.documentsearch.search.IndexingPriority;
+import com.rabbitmq.client.Channel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.listener.api.ChannelAwareBatchMessageListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Batched consumer for interactive indexing traffic.
+ *
+ * Documents created one at a time have their own queue and consumers, so they
+ * never wait behind imports. The listener container hands over small batches as
+ * soon as messages stop arriving for a few milliseconds, and they are indexed
+ * right away so that they are searchable once acknowledged.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InteractiveIndexListener implements ChannelAwareBatchMessageListener {
+
+    private final IndexBatchProcessor processor;
+
+    @Override
+    public void onMessageBatch(List<Message> messages, Channel channel) {
+        List<IndexBatchProcessor.Received> batch = messages.stream()
+                .map(message -> processor.receive(message, channel))
+                .filter(Objects::nonNull)
+                .toList();
+        if (!batch.isEmpty()) {
+            processor.index(batch, IndexingPriority.INTERACTIVE);
+        }
+    }
+}
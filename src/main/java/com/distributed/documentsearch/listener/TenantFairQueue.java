@@ -0,0 +1,162 @@
+package com.distributed.documentsearch.listener;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.ToIntFunction;
+
+/**
+ * Work queue shared fairly between tenants with deficit round robin.
+ *
+ * Items wait in one FIFO per tenant. Batches are assembled by visiting the tenants
+ * with waiting items in turn: on every visit a tenant is credited a quantum
+ * multiplied by its weight and contributes items for as long as its credit covers
+ * their cost, then the next tenant follows. The cost of an item is the number of
+ * documents it carries, so a tenant receives its weighted share of the indexing
+ * throughput regardless of how its documents are packed into messages, and a
+ * tenant with a large backlog delays the others by at most one round.
+ *
+ * @param <T> the queued items
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+public class TenantFairQueue<T> {
+
+    /** Cost credited per visit to a tenant of weight 1 */
+    private final int quantum;
+
+    /** Weight of each tenant; weights below 1 count as 1 */
+    private final ToIntFunction<String> weights;
+
+    /** Cost of an item */
+    private final ToIntFunction<T> cost;
+
+    /** Waiting items of every tenant that has any */
+    private final Map<String, Lane<T>> lanes = new HashMap<>();
+
+    /** Tenants with waiting items, in visiting order */
+    private final Deque<String> round = new ArrayDeque<>();
+
+    private int size;
+
+    /** Total cost of the waiting items of all tenants */
+    private long totalPendingCost;
+
+    public TenantFairQueue(int quantum, ToIntFunction<String> weights, ToIntFunction<T> cost) {
+        if (quantum < 1) {
+            throw new IllegalArgumentException("quantum must be positive");
+        }
+        this.quantum = quantum;
+        this.weights = weights;
+        this.cost = cost;
+    }
+
+    /**
+     * Queues an item at the end of its tenant's FIFO.
+     */
+    public synchronized void add(String tenantId, T item) {
+        Lane<T> lane = lanes.computeIfAbsent(tenantId, id -> {
+            round.addLast(id);
+            return new Lane<>();
+        });
+        lane.items.addLast(item);
+        int itemCost = cost.applyAsInt(item);
+        lane.pendingCost += itemCost;
+        totalPendingCost += itemCost;
+        size++;
+        notifyAll();
+    }
+
+    /**
+     * Takes the next batch, waiting up to the timeout for the first item.
+     *
+     * @param maxCost the batch is closed before an item would push its cost above
+     *                this limit; a single item costing more is returned on its own
+     * @return the batch, empty if nothing arrived within the timeout
+     */
+    public synchronized List<T> poll(int maxCost, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        while (size == 0) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (remaining <= 0) {
+                return List.of();
+            }
+            wait(remaining);
+        }
+
+        List<T> batch = new ArrayList<>();
+        long batchCost = 0;
+        while (!round.isEmpty() && batchCost < maxCost) {
+            String tenantId = round.peekFirst();
+            Lane<T> lane = lanes.get(tenantId);
+            if (!lane.credited) {
+                lane.deficit += (long) quantum * Math.max(1, weights.applyAsInt(tenantId));
+                lane.credited = true;
+            }
+
+            T next = lane.items.peekFirst();
+            int itemCost = cost.applyAsInt(next);
+            if (itemCost > lane.deficit) {
+                // Credit used up for this round; the remainder carries over to the next visit
+                round.addLast(round.pollFirst());
+                lane.credited = false;
+                continue;
+            }
+            if (!batch.isEmpty() && batchCost + itemCost > maxCost) {
+                break;
+            }
+
+            lane.items.pollFirst();
+            lane.deficit -= itemCost;
+            lane.pendingCost -= itemCost;
+            totalPendingCost -= itemCost;
+            batchCost += itemCost;
+            size--;
+            batch.add(next);
+            if (lane.items.isEmpty()) {
+                round.pollFirst();
+                lanes.remove(tenantId);
+            }
+        }
+        return batch;
+    }
+
+    /**
+     * Returns the total cost of the items a tenant has waiting.
+     */
+    public synchronized long pendingCost(String tenantId) {
+        Lane<T> lane = lanes.get(tenantId);
+        return lane != null ? lane.pendingCost : 0;
+    }
+
+    /**
+     * Returns the total cost of the items waiting across all tenants.
+     */
+    public synchronized long pendingCost() {
+        return totalPendingCost;
+    }
+
+    /**
+     * Returns the number of waiting items across all tenants.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    private static final class Lane<T> {
+
+        private final Deque<T> items = new ArrayDeque<>();
+
+        /** Credit left from earlier visits */
+        private long deficit;
+
+        /** Whether the tenant was credited for its current visit */
+        private boolean credited;
+
+        private long pendingCost;
+    }
+}
@@ -20,6 +20,8 @@ import java.util.UUID;
  * This entity maps to the 'documents' table in PostgreSQL and includes
  * multi-tenant support, audit timestamps, and indexing status tracking.
  * Documents are automatically indexed in Elasticsearch for search functionality.
+ * The version increases with every change and orders the changes applied to the
+ * search index, so that late or replayed indexing events cannot overwrite newer ones.
  *
  * @author Distributed Document Search Team
  * @version 1.0
@@ -27,8 +29,8 @@ import java.util.UUID;
  */
 @Entity
 @Table(name = "documents", indexes = {
-    @Index(name = "idx_tenant_id", columnList = "tenant_id"),
-    @Index(name = "idx_status", columnList = "status"),
+    @Index(name = "idx_tenant_id_id", columnList = "tenant_id, id"),
+    @Index(name = "idx_status_updated_at_id", columnList = "status, updated_at, id"),
     @Index(name = "idx_created_at", columnList = "created_at")
 })
 @Data
@@ -65,6 +67,11 @@ public class Document {
     @Column(name = "metadata", columnDefinition = "jsonb")
     private Map<String, Object> metadata;
 
+    /** Incremented on every update; used as the external version of the search index copy */
+    @Version
+    @Column(name = "version", columnDefinition = "bigint not null default 0")
+    private Long version;
+
     /** Timestamp when the document was created */
     @CreationTimestamp
     @Column(name = "created_at", nullable = false, updatable = false)
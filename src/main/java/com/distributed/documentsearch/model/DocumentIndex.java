@@ -5,10 +5,21 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.elasticsearch.annotations.Document;
 import org.springframework.data.elasticsearch.annotations.Field;
 import org.springframework.data.elasticsearch.annotations.FieldType;
+import org.springframework.data.elasticsearch.annotations.TermVector;
 
 import java.util.Map;
 
-@Document(indexName = "documents_v1")
+/**
+ * Searchable copy of a {@link com.distributed.documentsearch.model.Document}.
+ *
+ * The index name is the {@code documents} alias; the physical index behind it is
+ * versioned ({@code documents_v1}, {@code documents_v2}, ...) and replaced by the
+ * reindex job without downtime, so Spring Data never creates it.
+ *
+ * The version of the source document is written as the Elasticsearch external
+ * version, so a write carrying an older version than the indexed copy is ignored.
+ */
+@Document(indexName = "documents", createIndex = false)
 @Data
 @Builder
 @NoArgsConstructor
@@ -26,15 +37,36 @@ public class DocumentIndex {
     @Field(type = FieldType.Text)
     private String title;
 
-    @Field(type = FieldType.Text)
+    /** Term vectors with offsets let the fast vector highlighter build snippets without re-analysis */
+    @Field(type = FieldType.Text, termVector = TermVector.with_positions_offsets)
     private String content;
 
     @Field(type = FieldType.Object)
     private Map<String, Object> metadata;
 
+    /** Version of the source document, null for copies indexed without versioning */
+    @Field(type = FieldType.Long)
+    private Long version;
+
     @Field(type = FieldType.Keyword)
     private String createdAt;
 
     @Field(type = FieldType.Keyword)
     private String updatedAt;
+
+    /**
+     * Builds the searchable copy of a stored document.
+     */
+    public static DocumentIndex from(com.distributed.documentsearch.model.Document document) {
+        return DocumentIndex.builder()
+                .id(document.getId().toString())
+                .tenantId(document.getTenantId())
+                .title(document.getTitle())
+                .content(document.getContent())
+                .metadata(document.getMetadata())
+                .version(document.getVersion())
+                .createdAt(document.getCreatedAt() != null ? document.getCreatedAt().toString() : null)
+                .updatedAt(document.getUpdatedAt() != null ? document.getUpdatedAt().toString() : null)
+                .build();
+    }
 }
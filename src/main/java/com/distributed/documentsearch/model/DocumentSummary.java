@@ -0,0 +1,19 @@
+package com.distributed.documentsearch.model;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Projection of a {@link Document} without its content, for reads that only need
+ * the title, status and metadata.
+ */
+public record DocumentSummary(
+        UUID id,
+        String tenantId,
+        String title,
+        DocumentStatus status,
+        Map<String, Object> metadata,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt) {
+}
@@ -0,0 +1,57 @@
+package com.distributed.documentsearch.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA entity representing a message waiting to be published to RabbitMQ.
+ *
+ * This entity maps to the 'outbox_events' table in PostgreSQL. Rows are written in
+ * the same transaction as the change they announce and deleted by the outbox relay
+ * once the broker has confirmed the message, so a message is published if and
+ * only if its transaction committed.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@Table(name = "outbox_events")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+
+    /** Sequence number, giving the publishing order */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Exchange the message is published to */
+    @Column(nullable = false)
+    private String exchange;
+
+    /** Routing key of the message */
+    @Column(name = "routing_key", nullable = false)
+    private String routingKey;
+
+    /** Java type of the payload, sent as the JSON converter's type header */
+    @Column(name = "payload_type", nullable = false)
+    private String payloadType;
+
+    /** Message body as JSON */
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    /** Timestamp when the message was enqueued */
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,52 @@
+package com.distributed.documentsearch.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * JPA entity recording that a tenant has been moved out of the shared search index.
+ *
+ * This entity maps to the 'tenant_placements' table in PostgreSQL. Only promoted
+ * tenants have a row; every other tenant is served from the shared index.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Entity
+@Table(name = "tenant_placements")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TenantPlacement {
+
+    /** Tenant identifier */
+    @Id
+    @Column(name = "tenant_id", nullable = false)
+    private String tenantId;
+
+    /** Stage of the tenant's move to its dedicated index */
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TenantPlacementStatus status;
+
+    /** Physical dedicated index holding the tenant's documents */
+    @Column(name = "index_name", nullable = false)
+    private String indexName;
+
+    /** Filtered alias through which the dedicated index is read and written */
+    @Column(name = "alias_name", nullable = false)
+    private String aliasName;
+
+    /** Timestamp of the last placement change */
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+}
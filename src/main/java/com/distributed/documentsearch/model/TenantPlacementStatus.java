@@ -0,0 +1,20 @@
+package com.distributed.documentsearch.model;
+
+/**
+ * Enumeration representing where a tenant's documents are indexed.
+ *
+ * Tenants without a placement live in the shared index and are routed to a single
+ * shard by their tenant ID. Large tenants are moved to a dedicated index.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+public enum TenantPlacementStatus {
+
+    /** Documents are copied to the dedicated index; writes go to both indices */
+    MIGRATING,
+
+    /** Documents are read from and written to the tenant's dedicated index */
+    DEDICATED
+}
@@ -2,9 +2,21 @@ package com.distributed.documentsearch.repository;
 
 import com.distributed.documentsearch.model.Document;
 import com.distributed.documentsearch.model.DocumentStatus;
+import com.distributed.documentsearch.model.DocumentSummary;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -32,13 +44,97 @@ public interface DocumentRepository extends JpaRepository<Document, UUID> {
     Optional<Document> findByIdAndTenantId(UUID id, String tenantId);
 
     /**
-     * Finds all documents for a tenant with a specific status.
+     * Finds the documents of a tenant among the given IDs.
+     *
+     * The IDs are bound as a single array parameter, so that the statement is the
+     * same for any number of IDs and its plan can be reused.
+     *
+     * @param ids      the unique identifiers of the documents
+     * @param tenantId the tenant identifier for multi-tenant isolation
+     * @return the documents found, in no particular order
+     */
+    @Query(value = "SELECT * FROM documents WHERE id = ANY(:ids) AND tenant_id = :tenantId", nativeQuery = true)
+    List<Document> findAllByIdsAndTenantId(@Param("ids") UUID[] ids, @Param("tenantId") String tenantId);
+
+    /**
+     * Finds a document by its ID and tenant ID without reading its content.
+     *
+     * @param id       the unique identifier of the document
+     * @param tenantId the tenant identifier for multi-tenant isolation
+     * @return Optional containing the document summary if found, empty otherwise
+     */
+    @Query("SELECT new com.distributed.documentsearch.model.DocumentSummary("
+            + "d.id, d.tenantId, d.title, d.status, d.metadata, d.createdAt, d.updatedAt) "
+            + "FROM Document d WHERE d.id = :id AND d.tenantId = :tenantId")
+    Optional<DocumentSummary> findSummaryByIdAndTenantId(@Param("id") UUID id, @Param("tenantId") String tenantId);
+
+    /**
+     * Finds the documents of a tenant among the given IDs without reading their
+     * content. JPQL cannot bind an array for {@code = ANY}, so the IDs are an IN list,
+     * padded by Hibernate to a power of two to bound the number of statements.
+     *
+     * @param ids      the unique identifiers of the documents
+     * @param tenantId the tenant identifier for multi-tenant isolation
+     * @return the document summaries found, in no particular order
+     */
+    @Query("SELECT new com.distributed.documentsearch.model.DocumentSummary("
+            + "d.id, d.tenantId, d.title, d.status, d.metadata, d.createdAt, d.updatedAt) "
+            + "FROM Document d WHERE d.id IN :ids AND d.tenantId = :tenantId")
+    List<DocumentSummary> findSummariesByIdsAndTenantId(@Param("ids") Collection<UUID> ids,
+                                                        @Param("tenantId") String tenantId);
+
+    /**
+     * Finds one page of the documents for a tenant with a specific status.
      *
      * @param tenantId the tenant identifier
      * @param status   the document status to filter by
-     * @return list of documents matching the criteria
+     * @param pageable the page to return
+     * @return slice of documents matching the criteria, without a total count
+     */
+    Slice<Document> findByTenantIdAndStatus(String tenantId, DocumentStatus status, Pageable pageable);
+
+    /**
+     * Returns the next documents with a status that were last updated before a
+     * threshold, in (updated_at, id) order after the given position. The keyset
+     * follows the (status, updated_at, id) index, so every page costs the same at
+     * any depth. Rows locked by another transaction are skipped, so that several
+     * nodes can sweep concurrently without claiming the same documents.
+     *
+     * @param status         the document status to filter by
+     * @param staleBefore    only documents last updated before this time are returned
+     * @param afterUpdatedAt update time of the last document of the previous page
+     * @param afterId        ID of the last document of the previous page
+     * @param pageable       the page size; always the first page
+     * @return documents in ascending (updated_at, id) order, locked until the transaction ends
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2")) // SKIP LOCKED
+    @Query("SELECT d FROM Document d WHERE d.status = :status AND d.updatedAt < :staleBefore "
+            + "AND (d.updatedAt > :afterUpdatedAt OR (d.updatedAt = :afterUpdatedAt AND d.id > :afterId)) "
+            + "ORDER BY d.updatedAt, d.id")
+    Slice<Document> findStale(@Param("status") DocumentStatus status,
+                              @Param("staleBefore") LocalDateTime staleBefore,
+                              @Param("afterUpdatedAt") LocalDateTime afterUpdatedAt,
+                              @Param("afterId") UUID afterId,
+                              Pageable pageable);
+
+    /**
+     * Returns the next documents with a status after the given ID, in ID order.
+     *
+     * @param status the document status to filter by
+     * @param after  the last ID of the previous page
+     * @param limit  the maximum number of documents to return
+     * @return documents in ascending ID order
+     */
+    List<Document> findByStatusAndIdGreaterThanOrderByIdAsc(DocumentStatus status, UUID after, Limit limit);
+
+    /**
+     * Counts the documents with a status across all tenants.
+     *
+     * @param status the document status to filter by
+     * @return number of matching documents
      */
-    List<Document> findByTenantIdAndStatus(String tenantId, DocumentStatus status);
+    long countByStatus(DocumentStatus status);
 
     /**
      * Deletes a document by its ID and tenant ID.
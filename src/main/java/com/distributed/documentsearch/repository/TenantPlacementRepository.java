@@ -0,0 +1,16 @@
+package com.distributed.documentsearch.repository;
+
+import com.distributed.documentsearch.model.TenantPlacement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository interface for TenantPlacement entity operations.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Repository
+public interface TenantPlacementRepository extends JpaRepository<TenantPlacement, String> {
+}
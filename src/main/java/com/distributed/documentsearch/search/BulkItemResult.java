@@ -0,0 +1,23 @@
+package com.distributed.documentsearch.search;
+
+/**
+ * Result of one document of a bulk indexing request.
+ *
+ * @param id the document ID
+ * @param status HTTP-like status: 2xx on success, 409 when a newer version is indexed
+ *               already, 429 or 5xx for transient failures
+ * @param error failure reason, null on success
+ */
+public record BulkItemResult(String id, int status, String error) {
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Whether the write was ignored because the index holds a newer version.
+     */
+    public boolean isStale() {
+        return status == 409;
+    }
+}
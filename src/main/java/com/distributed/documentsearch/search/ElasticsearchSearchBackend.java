@@ -0,0 +1,430 @@
+package com.distributed.documentsearch.search;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.Refresh;
+import co.elastic.clients.elasticsearch._types.SortOptions;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.VersionType;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import com.distributed.documentsearch.dto.SearchResponse;
+import com.distributed.documentsearch.exception.InvalidCursorException;
+import com.distributed.documentsearch.model.DocumentIndex;
+import com.distributed.documentsearch.service.TenantPlacementService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.client.elc.NativeQueryBuilder;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.FetchSourceFilterBuilder;
+import org.springframework.data.elasticsearch.core.query.HighlightQuery;
+import org.springframework.data.elasticsearch.core.query.Query.PointInTime;
+import org.springframework.data.elasticsearch.core.query.highlight.Highlight;
+import org.springframework.data.elasticsearch.core.query.highlight.HighlightField;
+import org.springframework.data.elasticsearch.core.query.highlight.HighlightFieldParameters;
+import org.springframework.data.elasticsearch.core.query.highlight.HighlightParameters;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * {@link SearchBackend} on an external Elasticsearch cluster.
+ *
+ * Queries are a BM25-scored multi_match over title and content with the tenant as
+ * a non-scoring filter. Hits never load the content from _source; snippets are
+ * built by the fast vector highlighter. Cursor walks read from a point-in-time and
+ * page with search_after.
+ *
+ * Every request targets the index or alias and the routing value resolved for the
+ * tenant by the {@link TenantPlacementService}: tenants in the shared index are
+ * routed to a single shard by tenant ID, promoted tenants are served from their
+ * dedicated index. While the reindex job builds the next version of the shared
+ * index, writes to the shared index are applied to the new index as well.
+ *
+ * Index and delete requests carry the document version with
+ * version_type=external_gte, so Elasticsearch rejects writes older than the indexed
+ * copy, or than the tombstone of a deleted document, with a version conflict.
+ * Conflicts are stale writes and are ignored. Tombstones are kept for the
+ * index.gc_deletes period (60s by default); later stale events are caught by the
+ * indexer's status update, which finds the row gone.
+ *
+ * Interactive bulk requests wait for the next refresh (refresh=wait_for), so a
+ * document reported as indexed is searchable; bulk requests never wait for
+ * or force a refresh and leave it to the index refresh interval.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.backend", havingValue = "elasticsearch", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class ElasticsearchSearchBackend implements SearchBackend {
+
+    private static final String TENANT_FIELD = "tenantId";
+    private static final String TITLE_FIELD = "title";
+    private static final String CONTENT_FIELD = "content";
+    private static final String VERSION_FIELD = "version";
+    private static final String VERSION_SUM = "version_sum";
+
+    /** Spring Data operations used for queries */
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    /** Low-level Elasticsearch client used for routed writes */
+    private final ElasticsearchClient elasticsearchClient;
+
+    /** Resolves the index and routing serving each tenant */
+    private final TenantPlacementService placementService;
+
+    /** Index being built by the reindex job, which receives live changes as well */
+    private final ReindexState reindexState;
+
+    /** Relevance boost of title matches over content matches */
+    @Value("${app.search.title-boost:3.0}")
+    private double titleBoost = 3.0;
+
+    /** How long a cursor's point-in-time stays open between two page requests */
+    @Value("${app.search.cursor-keep-alive:5m}")
+    private Duration cursorKeepAlive = Duration.ofMinutes(5);
+
+    @Override
+    public String name() {
+        return "elasticsearch";
+    }
+
+    @Override
+    public boolean index(DocumentIndex document) {
+        boolean applied = true;
+        for (TenantRouting.Target target : writeTargets(document.getTenantId())) {
+            try {
+                elasticsearchClient.index(i -> {
+                    i.index(target.index())
+                            .id(document.getId())
+                            .routing(target.routing())
+                            .document(document);
+                    if (document.getVersion() != null) {
+                        i.version(document.getVersion()).versionType(VersionType.ExternalGte);
+                    }
+                    return i;
+                });
+            } catch (ElasticsearchException e) {
+                if (!isVersionConflict(e)) {
+                    throw e;
+                }
+                log.debug("Ignored stale version {} of document {} in {}",
+                        document.getVersion(), document.getId(), target.index());
+                applied = false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return applied;
+    }
+
+    @Override
+    public List<BulkItemResult> bulkIndex(List<DocumentIndex> documents, IndexingPriority priority) {
+        BulkRequest.Builder bulk = new BulkRequest.Builder()
+                .refresh(priority == IndexingPriority.INTERACTIVE ? Refresh.WaitFor : Refresh.False);
+        for (DocumentIndex document : documents) {
+            for (TenantRouting.Target target : writeTargets(document.getTenantId())) {
+                bulk.operations(op -> op.index(idx -> {
+                    idx.index(target.index())
+                            .id(document.getId())
+                            .routing(target.routing())
+                            .document(document);
+                    if (document.getVersion() != null) {
+                        idx.version(document.getVersion()).versionType(VersionType.ExternalGte);
+                    }
+                    return idx;
+                }));
+            }
+        }
+
+        BulkResponse response;
+        try {
+            response = elasticsearchClient.bulk(bulk.build());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        log.debug("Bulk request for {} {} documents took {}ms", documents.size(), priority, response.took());
+
+        // A document written to two indices during a tenant move or a rebuild fails if either write fails
+        Map<String, BulkItemResult> results = new LinkedHashMap<>();
+        response.items().forEach(item -> results.merge(item.id(),
+                new BulkItemResult(item.id(), item.status(), item.error() != null ? item.error().reason() : null),
+                ElasticsearchSearchBackend::worse));
+        return new ArrayList<>(results.values());
+    }
+
+    /**
+     * Of two results for the same document, keeps the one that matters most to the
+     * caller: a failure over a stale write, and a stale write over a success.
+     */
+    private static BulkItemResult worse(BulkItemResult first, BulkItemResult second) {
+        if (first.isSuccess()) {
+            return second;
+        }
+        if (first.isStale() && !second.isSuccess()) {
+            return second;
+        }
+        return first;
+    }
+
+    @Override
+    public boolean delete(String tenantId, String documentId, Long version) {
+        boolean applied = true;
+        for (TenantRouting.Target target : writeTargets(tenantId)) {
+            try {
+                elasticsearchClient.delete(d -> {
+                    d.index(target.index())
+                            .id(documentId)
+                            .routing(target.routing())
+                            .refresh(Refresh.WaitFor);
+                    if (version != null) {
+                        d.version(version).versionType(VersionType.ExternalGte);
+                    }
+                    return d;
+                });
+            } catch (ElasticsearchException e) {
+                if (!isVersionConflict(e)) {
+                    throw e;
+                }
+                log.debug("Ignored stale deletion of document {} at version {} in {}",
+                        documentId, version, target.index());
+                applied = false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return applied;
+    }
+
+    @Override
+    public SearchPage search(SearchQuery query) {
+        if (query.getCursor() != null) {
+            return searchWithCursor(query);
+        }
+
+        TenantRouting.Target target = placementService.resolve(query.getTenantId()).read();
+        NativeQueryBuilder builder = NativeQuery.builder()
+                .withQuery(buildQuery(query.getTenantId(), query.getText()))
+                .withPageable(PageRequest.of(query.getPage(), query.getSize()));
+        if (target.routing() != null) {
+            builder.withRoute(target.routing());
+        }
+
+        SearchHits<DocumentIndex> hits = elasticsearchOperations.search(
+                applyProjection(builder, query).build(), DocumentIndex.class, IndexCoordinates.of(target.index()));
+
+        return SearchPage.builder()
+                .total(hits.getTotalHits())
+                .results(hits.getSearchHits().stream().map(hit -> mapToResult(hit, query)).toList())
+                .build();
+    }
+
+    /**
+     * Reads the tenant's document count and the sum of their versions in a single
+     * size-0 search with a sum aggregation.
+     */
+    @Override
+    public IndexDigest digest(String tenantId) {
+        TenantRouting.Target target = placementService.resolve(tenantId).read();
+        try {
+            co.elastic.clients.elasticsearch.core.SearchResponse<Void> response = elasticsearchClient.search(s -> {
+                s.index(target.index())
+                        .size(0)
+                        .trackTotalHits(t -> t.enabled(true))
+                        .query(q -> q.term(t -> t.field(TENANT_FIELD).value(FieldValue.of(tenantId))))
+                        .aggregations(VERSION_SUM, a -> a.sum(sum -> sum.field(VERSION_FIELD)));
+                if (target.routing() != null) {
+                    s.routing(target.routing());
+                }
+                return s;
+            }, Void.class);
+            long count = response.hits().total() != null ? response.hits().total().value() : 0;
+            double versionSum = response.aggregations().get(VERSION_SUM).sum().value();
+            return new IndexDigest(count, (long) versionSum);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        try {
+            elasticsearchOperations.indexOps(DocumentIndex.class).exists();
+            return true;
+        } catch (Exception e) {
+            log.error("Elasticsearch health check failed", e);
+            return false;
+        }
+    }
+
+    private boolean isVersionConflict(ElasticsearchException e) {
+        return e.status() == 409;
+    }
+
+    private List<TenantRouting.Target> writeTargets(String tenantId) {
+        TenantRouting routing = placementService.resolve(tenantId);
+        Optional<String> building = reindexState.target();
+        if (building.isEmpty()) {
+            return routing.writes();
+        }
+        List<TenantRouting.Target> targets = new ArrayList<>(routing.writes());
+        for (TenantRouting.Target target : routing.writes()) {
+            if (target.index().equals(placementService.getSharedIndex())) {
+                targets.add(new TenantRouting.Target(building.get(), target.routing()));
+            }
+        }
+        return targets;
+    }
+
+    /**
+     * Fetches one page of a cursor walk.
+     *
+     * The walk reads from a point-in-time so that results stay consistent while the
+     * index changes, and pages with search_after on the score plus the implicit
+     * _shard_doc tiebreaker, so that every page costs the same at any depth and the
+     * 10k result window does not apply. The point-in-time keep-alive is extended with
+     * every page and the point-in-time is closed once the last page is served.
+     * The point-in-time is opened on the tenant's index or alias without routing, so
+     * cursor walks over the shared index visit every shard.
+     */
+    private SearchPage searchWithCursor(SearchQuery query) {
+        SearchCursor cursor = SearchCursor.START.equals(query.getCursor())
+                ? new SearchCursor(elasticsearchOperations.openPointInTime(
+                        IndexCoordinates.of(placementService.resolve(query.getTenantId()).read().index()),
+                        cursorKeepAlive), null)
+                : SearchCursor.decode(query.getCursor());
+        if (cursor.getPitId() == null) {
+            throw new InvalidCursorException("Cursor does not reference a point-in-time");
+        }
+
+        NativeQueryBuilder builder = NativeQuery.builder()
+                .withQuery(buildQuery(query.getTenantId(), query.getText()))
+                .withSort(SortOptions.of(s -> s.score(score -> score.order(SortOrder.Desc))),
+                        SortOptions.of(s -> s.field(field -> field.field("_shard_doc").order(SortOrder.Asc))))
+                .withPointInTime(new PointInTime(cursor.getPitId(), cursorKeepAlive))
+                .withPageable(PageRequest.of(0, query.getSize()));
+        if (cursor.getSearchAfter() != null) {
+            builder.withSearchAfter(cursor.getSearchAfter());
+        }
+
+        SearchHits<DocumentIndex> hits =
+                elasticsearchOperations.search(applyProjection(builder, query).build(), DocumentIndex.class);
+
+        List<SearchHit<DocumentIndex>> page = hits.getSearchHits();
+        String pitId = hits.getPointInTimeId() != null ? hits.getPointInTimeId() : cursor.getPitId();
+        String nextCursor = null;
+        if (page.size() < query.getSize()) {
+            elasticsearchOperations.closePointInTime(pitId);
+        } else {
+            List<Object> searchAfter = page.get(page.size() - 1).getSortValues();
+            nextCursor = new SearchCursor(pitId, searchAfter).encode();
+        }
+
+        return SearchPage.builder()
+                .total(hits.getTotalHits())
+                .results(page.stream().map(hit -> mapToResult(hit, query)).toList())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Builds a BM25-scored multi_match query across title and content. The tenant
+     * restriction is a non-scoring filter clause so that Elasticsearch can cache it
+     * independently of the query text.
+     */
+    Query buildQuery(String tenantId, String queryText) {
+        return Query.of(q -> q.bool(b -> {
+            b.filter(f -> f.term(t -> t.field(TENANT_FIELD).value(FieldValue.of(tenantId))));
+            if (!queryText.isEmpty()) {
+                b.must(m -> m.multiMatch(mm -> mm
+                        .query(queryText)
+                        .fields(TITLE_FIELD + "^" + titleBoost, CONTENT_FIELD)
+                        .type(TextQueryType.BestFields)
+                        .tieBreaker(0.3)));
+            }
+            return b;
+        }));
+    }
+
+    /**
+     * Restricts the response to what the requested fields need. The content field is
+     * never loaded from _source; snippets come from the fast vector highlighter, which
+     * reads the stored term vectors and returns only the best fragment, or the leading
+     * characters of the content when the query does not match it. Snippets are HTML:
+     * the content is escaped and only the highlight tags are markup.
+     */
+    NativeQueryBuilder applyProjection(NativeQueryBuilder builder, SearchQuery query) {
+        List<String> includes = new ArrayList<>();
+        includes.add(SearchQuery.ID);
+        if (query.includes(SearchQuery.TITLE)) {
+            includes.add(TITLE_FIELD);
+        }
+        if (query.includes(SearchQuery.METADATA)) {
+            includes.add(SearchQuery.METADATA);
+        }
+        builder.withSourceFilter(new FetchSourceFilterBuilder()
+                .withIncludes(includes.toArray(String[]::new))
+                .withExcludes(CONTENT_FIELD)
+                .build());
+
+        if (query.includes(SearchQuery.SNIPPET)) {
+            HighlightFieldParameters snippet = HighlightFieldParameters.builder()
+                    .withType("fvh")
+                    .withFragmentSize(SearchQuery.SNIPPET_LENGTH)
+                    .withNumberOfFragments(1)
+                    .withNoMatchSize(SearchQuery.SNIPPET_LENGTH)
+                    .build();
+            HighlightParameters parameters = HighlightParameters.builder()
+                    .withPreTags("<em>")
+                    .withPostTags("</em>")
+                    .withEncoder("html")
+                    .build();
+            builder.withHighlightQuery(new HighlightQuery(
+                    new Highlight(parameters, List.of(new HighlightField(CONTENT_FIELD, snippet))),
+                    DocumentIndex.class));
+        }
+        return builder;
+    }
+
+    private SearchResponse.SearchResult mapToResult(SearchHit<DocumentIndex> hit, SearchQuery query) {
+        DocumentIndex doc = hit.getContent();
+
+        SearchResponse.SearchResult.SearchResultBuilder result = SearchResponse.SearchResult.builder()
+                .id(doc.getId());
+        if (query.includes(SearchQuery.TITLE)) {
+            result.title(doc.getTitle());
+        }
+        if (query.includes(SearchQuery.SNIPPET)) {
+            List<String> fragments = hit.getHighlightField(CONTENT_FIELD);
+            result.snippet(fragments.isEmpty() ? "" : fragments.get(0));
+        }
+        if (query.includes(SearchQuery.SCORE)) {
+            result.score(hit.getScore());
+        }
+        if (query.includes(SearchQuery.METADATA)) {
+            result.metadata(doc.getMetadata());
+        }
+        return result.build();
+    }
+}
@@ -0,0 +1,14 @@
+package com.distributed.documentsearch.search;
+
+/**
+ * Cheap fingerprint of a tenant's documents, compared between PostgreSQL and the
+ * search backend to detect drift. A missing or extra document changes the count;
+ * a copy indexed at an older version changes the version sum.
+ *
+ * @param count number of documents
+ * @param versionSum sum of the document versions
+ */
+public record IndexDigest(long count, long versionSum) {
+
+    public static final IndexDigest EMPTY = new IndexDigest(0, 0);
+}
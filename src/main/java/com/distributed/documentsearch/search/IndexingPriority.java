@@ -0,0 +1,17 @@
+package com.distributed.documentsearch.search;
+
+/**
+ * Traffic class of an indexing write.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+public enum IndexingPriority {
+
+    /** Documents created one at a time by users; written in small batches that are searchable on return */
+    INTERACTIVE,
+
+    /** Imports and migrations; written in large batches that never force a refresh */
+    BULK
+}
@@ -0,0 +1,689 @@
+package com.distributed.documentsearch.search;
+
+import com.distributed.documentsearch.dto.SearchResponse;
+import com.distributed.documentsearch.exception.InvalidCursorException;
+import com.distributed.documentsearch.model.DocumentIndex;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.DisjunctionMaxQuery;
+import org.apache.lucene.search.FieldDoc;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MatchNoDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.Scorer;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.Weight;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.LengthGoalBreakIterator;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.QueryBuilder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.BreakIterator;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * Embedded {@link SearchBackend} running Lucene inside the application.
+ *
+ * Every tenant has its own index, and therefore its own segments, in a
+ * subdirectory of {@code app.search.lucene.path}, memory-mapped with
+ * {@link MMapDirectory}. Writes go to the tenant's {@link IndexWriter} and become
+ * searchable with the next near-real-time reader refresh, scheduled every
+ * {@code app.search.lucene.refresh-interval-ms}; uncommitted changes are committed
+ * periodically and on shutdown. Losing uncommitted changes is acceptable, as
+ * PostgreSQL stays the source of truth and can be reindexed.
+ *
+ * Queries mirror the Elasticsearch multi_match: a dis_max over the analyzed title
+ * (boosted) and content with a tie breaker of 0.3, scored with BM25 and the
+ * standard analyzer. Snippets come from the unified highlighter reading offsets
+ * stored in the postings, with the content HTML-escaped as in Elasticsearch.
+ *
+ * Writes are versioned like Elasticsearch external_gte versioning: the latest
+ * version of every document, including recently deleted ones, is kept in memory per
+ * tenant and checked and updated atomically with the write, so stale writes are
+ * ignored. A deletion leaves a tombstone in the index holding only the ID, version
+ * and deletion time, so that versions survive restarts; tombstones have no text and
+ * never match a query. As with Elasticsearch's {@code index.gc_deletes}, tombstones
+ * are dropped from the index and from memory once older than
+ * {@code app.search.lucene.gc-deletes}, so that they do not accumulate; a write
+ * delayed by more than that can bring a deleted document back until the
+ * reconciliation sweep notices.
+ *
+ * Interactive batches and deletions refresh the readers of the tenants they touched
+ * before returning; bulk batches wait for the scheduled refresh.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.backend", havingValue = "lucene")
+@Slf4j
+public class LuceneSearchBackend implements SearchBackend {
+
+    private static final String ID_FIELD = "id";
+    private static final String TENANT_FIELD = "tenantId";
+    private static final String TITLE_FIELD = "title";
+    private static final String CONTENT_FIELD = "content";
+    private static final String METADATA_FIELD = "metadata";
+    private static final String VERSION_FIELD = "version";
+    private static final String DELETED_FIELD = "deleted";
+    private static final String DELETED_AT_FIELD = "deletedAt";
+
+    /** Deletion time of the entries of live documents in the version maps */
+    private static final long LIVE = -1L;
+
+    /** Matches the tombstones of deleted documents */
+    private static final Query TOMBSTONES = new TermQuery(new Term(DELETED_FIELD, "true"));
+
+    private static final float TIE_BREAKER = 0.3f;
+
+    /** Content is stored for highlighting and indexed with offsets so the highlighter need not re-analyze it */
+    private static final FieldType CONTENT_TYPE;
+
+    static {
+        FieldType type = new FieldType(TextField.TYPE_STORED);
+        type.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        type.freeze();
+        CONTENT_TYPE = type;
+    }
+
+    /** Cursor walks order by score and break ties on the unique document ID */
+    private static final Sort CURSOR_SORT =
+            new Sort(SortField.FIELD_SCORE, new SortField(ID_FIELD, SortField.Type.STRING));
+
+    private final Path rootPath;
+    private final double titleBoost;
+    private final ObjectMapper objectMapper;
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    /** How long tombstones are kept */
+    private final Duration gcDeletes;
+
+    /** Current time in milliseconds */
+    private final LongSupplier clock;
+
+    /** Open tenant indices */
+    private final Map<String, TenantIndex> tenants = new ConcurrentHashMap<>();
+
+    @Autowired
+    public LuceneSearchBackend(
+            @Value("${app.search.lucene.path:data/lucene}") String rootPath,
+            @Value("${app.search.title-boost:3.0}") double titleBoost,
+            @Value("${app.search.lucene.gc-deletes:60s}") Duration gcDeletes,
+            ObjectMapper objectMapper) throws IOException {
+        this(rootPath, titleBoost, gcDeletes, objectMapper, System::currentTimeMillis);
+    }
+
+    LuceneSearchBackend(String rootPath, double titleBoost, Duration gcDeletes, ObjectMapper objectMapper,
+                        LongSupplier clock) throws IOException {
+        this.rootPath = Files.createDirectories(Path.of(rootPath));
+        this.titleBoost = titleBoost;
+        this.gcDeletes = gcDeletes;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        log.info("Embedded Lucene search backend at {}", this.rootPath.toAbsolutePath());
+    }
+
+    @Override
+    public String name() {
+        return "lucene";
+    }
+
+    @Override
+    public boolean index(DocumentIndex document) {
+        try {
+            return write(tenant(document.getTenantId(), true), document.getId(), document.getVersion(),
+                    toLucene(document), LIVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public List<BulkItemResult> bulkIndex(List<DocumentIndex> documents, IndexingPriority priority) {
+        List<BulkItemResult> results = new ArrayList<>(documents.size());
+        // Records compare by value, which would hash the version maps
+        Set<TenantIndex> touched = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (DocumentIndex document : documents) {
+            try {
+                TenantIndex index = tenant(document.getTenantId(), true);
+                touched.add(index);
+                boolean applied = write(index, document.getId(), document.getVersion(), toLucene(document), LIVE);
+                results.add(applied
+                        ? new BulkItemResult(document.getId(), 200, null)
+                        : new BulkItemResult(document.getId(), 409, "A newer version is indexed"));
+            } catch (IllegalArgumentException e) {
+                results.add(new BulkItemResult(document.getId(), 400, e.getMessage()));
+            } catch (IOException | UncheckedIOException e) {
+                results.add(new BulkItemResult(document.getId(), 500, e.getMessage()));
+            }
+        }
+        if (priority == IndexingPriority.INTERACTIVE) {
+            for (TenantIndex index : touched) {
+                try {
+                    index.searcherManager().maybeRefreshBlocking();
+                } catch (IOException e) {
+                    log.error("Failed to refresh Lucene reader after interactive batch", e);
+                }
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public boolean delete(String tenantId, String documentId, Long version) {
+        // A versioned deletion leaves a tombstone, even for a document not indexed yet
+        TenantIndex index = tenant(tenantId, version != null);
+        if (index == null) {
+            return true;
+        }
+        long deletedAt = clock.getAsLong();
+        boolean applied = version == null
+                ? write(index, documentId, null, null, LIVE)
+                : write(index, documentId, version, tombstone(tenantId, documentId, version, deletedAt), deletedAt);
+        if (applied) {
+            try {
+                index.searcherManager().maybeRefreshBlocking();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return applied;
+    }
+
+    @Override
+    public SearchPage search(SearchQuery query) {
+        TenantIndex index = tenant(query.getTenantId(), false);
+        if (index == null) {
+            return SearchPage.builder().total(0).results(List.of()).build();
+        }
+
+        try {
+            IndexSearcher searcher = index.searcherManager().acquire();
+            try {
+                return search(searcher, query);
+            } finally {
+                index.searcherManager().release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public IndexDigest digest(String tenantId) {
+        TenantIndex index = tenant(tenantId, false);
+        if (index == null) {
+            return IndexDigest.EMPTY;
+        }
+
+        try {
+            IndexSearcher searcher = index.searcherManager().acquire();
+            try {
+                return digest(searcher);
+            } finally {
+                index.searcherManager().release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return Files.isDirectory(rootPath) && Files.isWritable(rootPath);
+    }
+
+    /**
+     * Makes recent writes visible to searches.
+     */
+    @Scheduled(fixedDelayString = "${app.search.lucene.refresh-interval-ms:1000}")
+    public void refresh() {
+        tenants.forEach((tenantId, index) -> {
+            try {
+                index.searcherManager().maybeRefresh();
+            } catch (IOException e) {
+                log.error("Failed to refresh Lucene reader for tenant: {}", tenantId, e);
+            }
+        });
+    }
+
+    /**
+     * Drops expired tombstones and persists recent writes.
+     */
+    @Scheduled(fixedDelayString = "${app.search.lucene.commit-interval-ms:30000}")
+    public void commit() {
+        long expiredBefore = clock.getAsLong() - gcDeletes.toMillis();
+        tenants.forEach((tenantId, index) -> {
+            try {
+                purgeTombstones(index, expiredBefore);
+            } catch (UncheckedIOException e) {
+                log.error("Failed to purge Lucene tombstones for tenant: {}", tenantId, e);
+            }
+            try {
+                if (index.writer().hasUncommittedChanges()) {
+                    index.writer().commit();
+                }
+            } catch (IOException e) {
+                log.error("Failed to commit Lucene index for tenant: {}", tenantId, e);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void close() {
+        tenants.forEach((tenantId, index) -> {
+            try {
+                index.close();
+            } catch (IOException e) {
+                log.error("Failed to close Lucene index for tenant: {}", tenantId, e);
+            }
+        });
+        tenants.clear();
+    }
+
+    private SearchPage search(IndexSearcher searcher, SearchQuery query) throws IOException {
+        Query luceneQuery = buildQuery(query.getText());
+        int size = query.getSize();
+
+        TopDocs topDocs;
+        ScoreDoc[] page;
+        String nextCursor = null;
+        if (query.getCursor() != null) {
+            FieldDoc after = decodeCursor(query.getCursor(), searcher.getIndexReader().maxDoc());
+            topDocs = after == null
+                    ? searcher.search(luceneQuery, size, CURSOR_SORT, true)
+                    : searcher.searchAfter(after, luceneQuery, size, CURSOR_SORT, true);
+            page = topDocs.scoreDocs;
+            if (page.length == size) {
+                FieldDoc last = (FieldDoc) page[page.length - 1];
+                nextCursor = new SearchCursor(null, List.of(last.fields[0], ((BytesRef) last.fields[1]).utf8ToString()))
+                        .encode();
+            }
+        } else {
+            int from = query.getPage() * size;
+            topDocs = searcher.search(luceneQuery, from + size);
+            page = from < topDocs.scoreDocs.length
+                    ? Arrays.copyOfRange(topDocs.scoreDocs, from, topDocs.scoreDocs.length)
+                    : new ScoreDoc[0];
+        }
+
+        String[] snippets = query.includes(SearchQuery.SNIPPET) && page.length > 0
+                ? highlighter(searcher).highlight(CONTENT_FIELD, luceneQuery, new TopDocs(topDocs.totalHits, page), 1)
+                : null;
+
+        Set<String> storedFields = new HashSet<>();
+        storedFields.add(ID_FIELD);
+        if (query.includes(SearchQuery.TITLE)) {
+            storedFields.add(TITLE_FIELD);
+        }
+        if (query.includes(SearchQuery.METADATA)) {
+            storedFields.add(METADATA_FIELD);
+        }
+
+        StoredFields stored = searcher.storedFields();
+        List<SearchResponse.SearchResult> results = new ArrayList<>(page.length);
+        for (int i = 0; i < page.length; i++) {
+            Document doc = stored.document(page[i].doc, storedFields);
+            SearchResponse.SearchResult.SearchResultBuilder result = SearchResponse.SearchResult.builder()
+                    .id(doc.get(ID_FIELD));
+            if (query.includes(SearchQuery.TITLE)) {
+                result.title(doc.get(TITLE_FIELD));
+            }
+            if (snippets != null) {
+                result.snippet(snippets[i] != null ? snippets[i] : "");
+            }
+            if (query.includes(SearchQuery.SCORE)) {
+                result.score(page[i].score);
+            }
+            if (query.includes(SearchQuery.METADATA)) {
+                result.metadata(readMetadata(doc.get(METADATA_FIELD)));
+            }
+            results.add(result.build());
+        }
+
+        return SearchPage.builder()
+                .total(topDocs.totalHits.value)
+                .results(results)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Counts the live documents other than tombstones and sums their version doc values.
+     */
+    private IndexDigest digest(IndexSearcher searcher) throws IOException {
+        Weight weight = searcher.createWeight(searcher.rewrite(buildQuery("")), ScoreMode.COMPLETE_NO_SCORES, 1f);
+        long count = 0;
+        long versionSum = 0;
+        for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+            Scorer scorer = weight.scorer(leaf);
+            if (scorer == null) {
+                continue;
+            }
+            NumericDocValues versions = DocValues.getNumeric(leaf.reader(), VERSION_FIELD);
+            Bits liveDocs = leaf.reader().getLiveDocs();
+            DocIdSetIterator docs = scorer.iterator();
+            for (int doc = docs.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = docs.nextDoc()) {
+                if (liveDocs != null && !liveDocs.get(doc)) {
+                    continue;
+                }
+                count++;
+                if (versions.advanceExact(doc)) {
+                    versionSum += versions.longValue();
+                }
+            }
+        }
+        return new IndexDigest(count, versionSum);
+    }
+
+    /**
+     * Replaces the indexed copy of a document, or removes it when {@code document} is
+     * null, unless the index holds a newer version. Unversioned writes always apply.
+     * The version check and the write are atomic per document, as both run inside
+     * the version map's compute.
+     *
+     * @param deletedAt deletion time if {@code document} is a tombstone, {@link #LIVE} otherwise
+     * @return false if the write was stale and ignored
+     */
+    private boolean write(TenantIndex index, String id, Long version, Document document, long deletedAt) {
+        boolean[] applied = {false};
+        index.versions().compute(id, (key, current) -> {
+            if (version != null && current != null && current.version() > version) {
+                return current;
+            }
+            try {
+                if (document != null) {
+                    index.writer().updateDocument(new Term(ID_FIELD, id), document);
+                } else {
+                    index.writer().deleteDocuments(new Term(ID_FIELD, id));
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            applied[0] = true;
+            return version != null ? new Version(version, deletedAt) : null;
+        });
+        if (applied[0] && deletedAt != LIVE) {
+            index.tombstones().add(new Tombstone(id, deletedAt));
+        }
+        return applied[0];
+    }
+
+    /**
+     * Removes the tombstones deleted before the given time, unless the document was
+     * written again since. Tombstones are queued in deletion order, so only expired
+     * ones are visited.
+     */
+    private void purgeTombstones(TenantIndex index, long expiredBefore) {
+        Tombstone head;
+        while ((head = index.tombstones().peek()) != null && head.deletedAt() < expiredBefore) {
+            Tombstone tombstone = index.tombstones().poll();
+            if (tombstone == null) {
+                break;
+            }
+            index.versions().computeIfPresent(tombstone.id(), (id, current) -> {
+                if (current.deletedAt() != tombstone.deletedAt()) {
+                    return current;
+                }
+                try {
+                    index.writer().deleteDocuments(new Term(ID_FIELD, id));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Same semantics as the Elasticsearch best_fields multi_match: each field matches
+     * any of the analyzed terms, and the best field wins with the others contributing
+     * through the tie breaker.
+     */
+    Query buildQuery(String queryText) {
+        if (queryText.isEmpty()) {
+            return new BooleanQuery.Builder()
+                    .add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST)
+                    .add(TOMBSTONES, BooleanClause.Occur.MUST_NOT)
+                    .build();
+        }
+        QueryBuilder builder = new QueryBuilder(analyzer);
+        List<Query> disjuncts = new ArrayList<>(2);
+        Query title = builder.createBooleanQuery(TITLE_FIELD, queryText);
+        if (title != null) {
+            disjuncts.add(new BoostQuery(title, (float) titleBoost));
+        }
+        Query content = builder.createBooleanQuery(CONTENT_FIELD, queryText);
+        if (content != null) {
+            disjuncts.add(content);
+        }
+        return disjuncts.isEmpty() ? new MatchNoDocsQuery() : new DisjunctionMaxQuery(disjuncts, TIE_BREAKER);
+    }
+
+    private UnifiedHighlighter highlighter(IndexSearcher searcher) {
+        return UnifiedHighlighter.builder(searcher, analyzer)
+                .withFormatter(new DefaultPassageFormatter("<em>", "</em>", "... ", true))
+                .withBreakIterator(() -> LengthGoalBreakIterator.createClosestToLength(
+                        BreakIterator.getSentenceInstance(Locale.ROOT), SearchQuery.SNIPPET_LENGTH, 0.5f))
+                .build();
+    }
+
+    /**
+     * @param maxDoc the searcher's maxDoc; searchAfter rejects later docs
+     */
+    private FieldDoc decodeCursor(String token, int maxDoc) {
+        if (SearchCursor.START.equals(token)) {
+            return null;
+        }
+        List<Object> after = SearchCursor.decode(token).getSearchAfter();
+        if (after == null || after.size() != 2
+                || !(after.get(0) instanceof Number score) || !(after.get(1) instanceof String id)) {
+            throw new InvalidCursorException("Invalid search cursor");
+        }
+        // (score, id) is unique; the last doc as tiebreak keeps the cursor's own hit before it
+        return new FieldDoc(maxDoc - 1, Float.NaN, new Object[]{score.floatValue(), new BytesRef(id)});
+    }
+
+    private Document toLucene(DocumentIndex document) throws IOException {
+        Document doc = new Document();
+        doc.add(new StringField(ID_FIELD, document.getId(), Field.Store.YES));
+        doc.add(new SortedDocValuesField(ID_FIELD, new BytesRef(document.getId())));
+        doc.add(new StringField(TENANT_FIELD, document.getTenantId(), Field.Store.YES));
+        if (document.getTitle() != null) {
+            doc.add(new TextField(TITLE_FIELD, document.getTitle(), Field.Store.YES));
+        }
+        if (document.getContent() != null) {
+            doc.add(new Field(CONTENT_FIELD, document.getContent(), CONTENT_TYPE));
+        }
+        if (document.getMetadata() != null) {
+            doc.add(new StoredField(METADATA_FIELD, objectMapper.writeValueAsString(document.getMetadata())));
+        }
+        if (document.getVersion() != null) {
+            doc.add(new NumericDocValuesField(VERSION_FIELD, document.getVersion()));
+        }
+        return doc;
+    }
+
+    private Document tombstone(String tenantId, String documentId, long version, long deletedAt) {
+        Document doc = new Document();
+        doc.add(new StringField(ID_FIELD, documentId, Field.Store.YES));
+        doc.add(new SortedDocValuesField(ID_FIELD, new BytesRef(documentId)));
+        doc.add(new StringField(TENANT_FIELD, tenantId, Field.Store.YES));
+        doc.add(new StringField(DELETED_FIELD, "true", Field.Store.NO));
+        doc.add(new NumericDocValuesField(VERSION_FIELD, version));
+        doc.add(new NumericDocValuesField(DELETED_AT_FIELD, deletedAt));
+        return doc;
+    }
+
+    private Map<String, Object> readMetadata(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, new TypeReference<LinkedHashMap<String, Object>>() { });
+        } catch (IOException e) {
+            log.warn("Unreadable metadata in Lucene index", e);
+            return null;
+        }
+    }
+
+    private TenantIndex tenant(String tenantId, boolean create) {
+        TenantIndex index = tenants.get(tenantId);
+        if (index != null) {
+            return index;
+        }
+        Path path = rootPath.resolve(URLEncoder.encode(tenantId, StandardCharsets.UTF_8).replace(".", "%2E"));
+        if (!create && !Files.isDirectory(path)) {
+            return null;
+        }
+        return tenants.computeIfAbsent(tenantId, id -> open(path));
+    }
+
+    private TenantIndex open(Path path) {
+        try {
+            Directory directory = new MMapDirectory(Files.createDirectories(path));
+            IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                    .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+            Map<String, Version> versions = new ConcurrentHashMap<>();
+            Queue<Tombstone> tombstones = new ConcurrentLinkedQueue<>();
+            loadVersions(writer, versions, tombstones);
+            return new TenantIndex(directory, writer, new SearcherManager(writer, new SearcherFactory()),
+                    versions, tombstones);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open Lucene index at " + path, e);
+        }
+    }
+
+    /**
+     * Reads the version of every versioned document and tombstone of an index, and
+     * queues the tombstones by deletion time. Tombstones written before deletion
+     * times were recorded count as deleted at time zero and are purged first.
+     */
+    private static void loadVersions(IndexWriter writer, Map<String, Version> versions,
+                                     Queue<Tombstone> tombstones) throws IOException {
+        List<Tombstone> loaded = new ArrayList<>();
+        try (DirectoryReader reader = DirectoryReader.open(writer)) {
+            IndexSearcher searcher = new IndexSearcher(reader);
+            Weight deleted = searcher.createWeight(searcher.rewrite(TOMBSTONES), ScoreMode.COMPLETE_NO_SCORES, 1f);
+            for (LeafReaderContext leaf : reader.leaves()) {
+                NumericDocValues docVersions = leaf.reader().getNumericDocValues(VERSION_FIELD);
+                if (docVersions == null) {
+                    continue;
+                }
+                SortedDocValues ids = DocValues.getSorted(leaf.reader(), ID_FIELD);
+                NumericDocValues deletionTimes = DocValues.getNumeric(leaf.reader(), DELETED_AT_FIELD);
+                Scorer scorer = deleted.scorer(leaf);
+                DocIdSetIterator deletedDocs = scorer != null ? scorer.iterator() : DocIdSetIterator.empty();
+                Bits liveDocs = leaf.reader().getLiveDocs();
+                for (int doc = docVersions.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = docVersions.nextDoc()) {
+                    if ((liveDocs != null && !liveDocs.get(doc)) || !ids.advanceExact(doc)) {
+                        continue;
+                    }
+                    String id = ids.lookupOrd(ids.ordValue()).utf8ToString();
+                    if (deletedDocs.docID() < doc) {
+                        deletedDocs.advance(doc);
+                    }
+                    if (deletedDocs.docID() != doc) {
+                        versions.put(id, new Version(docVersions.longValue(), LIVE));
+                        continue;
+                    }
+                    long deletedAt = deletionTimes.advanceExact(doc) ? deletionTimes.longValue() : 0L;
+                    versions.put(id, new Version(docVersions.longValue(), deletedAt));
+                    loaded.add(new Tombstone(id, deletedAt));
+                }
+            }
+        }
+        loaded.sort(Comparator.comparingLong(Tombstone::deletedAt));
+        tombstones.addAll(loaded);
+    }
+
+    /**
+     * Latest version written for a document.
+     *
+     * @param deletedAt when the document was deleted, {@link #LIVE} if it was not
+     */
+    private record Version(long version, long deletedAt) {
+    }
+
+    private record Tombstone(String id, long deletedAt) {
+    }
+
+    /**
+     * @param versions latest version of every versioned document of the tenant, including recently deleted ones
+     * @param tombstones tombstones in the index, in deletion order
+     */
+    private record TenantIndex(Directory directory, IndexWriter writer, SearcherManager searcherManager,
+                               Map<String, Version> versions, Queue<Tombstone> tombstones) {
+
+        void close() throws IOException {
+            searcherManager.close();
+            writer.close();
+            directory.close();
+        }
+    }
+}
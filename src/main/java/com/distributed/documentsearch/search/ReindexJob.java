@@ -0,0 +1,422 @@
+package com.distributed.documentsearch.search;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.Time;
+import co.elastic.clients.elasticsearch._types.VersionType;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.elasticsearch.core.search.ResponseBody;
+import com.distributed.documentsearch.dto.ReindexProgress;
+import com.distributed.documentsearch.model.Document;
+import com.distributed.documentsearch.model.DocumentIndex;
+import com.distributed.documentsearch.model.DocumentStatus;
+import com.distributed.documentsearch.repository.DocumentRepository;
+import com.distributed.documentsearch.service.TenantPlacementService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rebuilds the shared search index without downtime.
+ *
+ * The job creates the next version of the physical index behind the
+ * {@code documents} alias ({@code documents_v1} is followed by {@code documents_v2})
+ * with the current mapping, with refresh and replicas turned off while it is
+ * filled. Documents are copied either from PostgreSQL or from the current index
+ * through a sliced scroll read by several threads. Live changes are written to
+ * both indices for the whole build. Copies keep the version of their source with
+ * external versioning, so they never overwrite a newer live change.
+ * The new index keeps the tombstones of deletions for
+ * {@code app.search.copy-gc-deletes} instead of the default 60s while it is filled,
+ * so that a copy read before a deletion cannot bring the document back.
+ * Once the copy is done, refresh, replicas and tombstone expiry are restored and
+ * the alias is moved to the new index in a single atomic request. The previous
+ * index is kept for rollback.
+ *
+ * The job renews its claim in {@link ReindexState} while it runs and only swaps
+ * the alias if it still holds the claim. A build abandoned by a node that died
+ * leaves its index behind; the next build skips that version.
+ *
+ * Every copied document is routed by its tenant ID, so a rebuild also moves
+ * documents indexed before tenant routing to their tenant's shard. Tenants
+ * promoted to a dedicated index are not part of the shared index and are skipped.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.backend", havingValue = "elasticsearch", matchIfMissing = true)
+@Slf4j
+public class ReindexJob {
+
+    public enum Source {
+        DATABASE,
+        INDEX
+    }
+
+    private static final Pattern VERSIONED = Pattern.compile("^(.*_v)(\\d+)$");
+    private static final String SCROLL_KEEP_ALIVE = "5m";
+
+    /** Elasticsearch's default index.gc_deletes, restored once the copy is done */
+    private static final String DEFAULT_GC_DELETES = "60s";
+
+    /** Spring Data operations used to derive the mapping from {@link DocumentIndex} */
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    /** Low-level Elasticsearch client used for index management and the copy */
+    private final ElasticsearchClient elasticsearchClient;
+
+    /** Cluster-wide record of the build, read by every node to dual-write */
+    private final ReindexState reindexState;
+
+    /** Provides the alias name and the promoted tenants */
+    private final TenantPlacementService placementService;
+
+    /** Renews the build's claim while it runs */
+    private final TaskScheduler taskScheduler;
+
+    /** Source of documents for rebuilds from the database */
+    private final DocumentRepository documentRepository;
+
+    /** Documents per bulk request, scroll page and database page */
+    private final int batchSize;
+
+    /** Number of scroll slices, each read by its own thread */
+    private final int slices;
+
+    /** Replicas of the new index once it is filled */
+    private final int replicas;
+
+    /** Refresh interval of the new index once it is filled */
+    private final String refreshInterval;
+
+    /** How long the new index remembers deletions while it is filled */
+    private final String copyGcDeletes;
+
+    /** Runs the job off the request thread */
+    private final ExecutorService coordinator = Executors.newSingleThreadExecutor(r -> new Thread(r, "reindex"));
+
+    /** Most recent job started on this node */
+    private final AtomicReference<ReindexProgress> lastRun = new AtomicReference<>();
+
+    public ReindexJob(
+            ElasticsearchOperations elasticsearchOperations,
+            ElasticsearchClient elasticsearchClient,
+            ReindexState reindexState,
+            TenantPlacementService placementService,
+            TaskScheduler taskScheduler,
+            DocumentRepository documentRepository,
+            @Value("${app.search.reindex.batch-size:1000}") int batchSize,
+            @Value("${app.search.reindex.slices:4}") int slices,
+            @Value("${app.search.reindex.replicas:1}") int replicas,
+            @Value("${app.search.reindex.refresh-interval:1s}") String refreshInterval,
+            @Value("${app.search.copy-gc-deletes:12h}") String copyGcDeletes) {
+        this.elasticsearchOperations = elasticsearchOperations;
+        this.elasticsearchClient = elasticsearchClient;
+        this.reindexState = reindexState;
+        this.placementService = placementService;
+        this.taskScheduler = taskScheduler;
+        this.documentRepository = documentRepository;
+        this.batchSize = batchSize;
+        this.slices = slices;
+        this.replicas = replicas;
+        this.refreshInterval = refreshInterval;
+        this.copyGcDeletes = copyGcDeletes;
+    }
+
+    /**
+     * Starts a rebuild in the background.
+     *
+     * @param source where documents are copied from
+     * @return the progress of the started job, updated while it runs
+     * @throws IllegalStateException if a rebuild is already in progress anywhere in the cluster
+     * @throws IOException if the current index cannot be determined
+     */
+    public ReindexProgress start(Source source) throws IOException {
+        String alias = placementService.getSharedIndex();
+        String sourceIndex = currentIndex(alias);
+        String targetIndex = nextVersion(sourceIndex);
+        while (exists(targetIndex)) {
+            log.warn("Skipping {}, left behind by an earlier reindex", targetIndex);
+            targetIndex = nextVersion(targetIndex);
+        }
+        if (!reindexState.begin(targetIndex)) {
+            throw new IllegalStateException("A reindex is already in progress");
+        }
+
+        ReindexProgress progress = new ReindexProgress(source.name().toLowerCase(Locale.ROOT), sourceIndex, targetIndex);
+        lastRun.set(progress);
+        coordinator.execute(() -> run(source, alias, progress));
+        return progress;
+    }
+
+    /**
+     * Returns the most recent job started on this node, null if there was none.
+     */
+    public ReindexProgress lastRun() {
+        return lastRun.get();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        coordinator.shutdownNow();
+    }
+
+    private void run(Source source, String alias, ReindexProgress progress) {
+        String targetIndex = progress.getTargetIndex();
+        ScheduledFuture<?> renewal = taskScheduler.scheduleAtFixedRate(
+                () -> renew(targetIndex), reindexState.getLease().dividedBy(3));
+        try {
+            createTargetIndex(targetIndex);
+            // Every node must be dual-writing before the copy starts
+            Thread.sleep(placementService.getRefreshInterval().toMillis());
+
+            if (source == Source.DATABASE) {
+                copyFromDatabase(progress);
+            } else {
+                copyFromIndex(progress);
+            }
+            if (progress.getFailed() > 0) {
+                throw new IllegalStateException(progress.getFailed() + " documents could not be copied");
+            }
+
+            elasticsearchClient.indices().putSettings(p -> p
+                    .index(targetIndex)
+                    .settings(s -> s
+                            .refreshInterval(t -> t.time(refreshInterval))
+                            .numberOfReplicas(String.valueOf(replicas))
+                            .gcDeletes(t -> t.time(DEFAULT_GC_DELETES))));
+            elasticsearchClient.indices().refresh(r -> r.index(targetIndex));
+            // Once the claim is lost nodes stop dual-writing, and the new index misses their changes
+            if (!reindexState.renew(targetIndex)) {
+                throw new IllegalStateException("The reindex claim on " + targetIndex + " expired");
+            }
+            elasticsearchClient.indices().updateAliases(u -> u
+                    .actions(a -> a.remove(r -> r.index(progress.getSourceIndex()).alias(alias)))
+                    .actions(a -> a.add(add -> add.index(targetIndex).alias(alias).isWriteIndex(true))));
+            renewal.cancel(false);
+            reindexState.end(targetIndex);
+
+            progress.complete();
+            log.info("Reindex into {} completed: {} documents at {} docs/sec; {} is kept for rollback",
+                    targetIndex, progress.getCopied(), String.format("%.0f", progress.getDocsPerSecond()),
+                    progress.getSourceIndex());
+        } catch (Exception e) {
+            log.error("Reindex into {} failed", targetIndex, e);
+            progress.fail(e.getMessage());
+            renewal.cancel(false);
+            abandon(targetIndex);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void createTargetIndex(String targetIndex) throws IOException {
+        String mapping = elasticsearchOperations.indexOps(DocumentIndex.class).createMapping().toJson();
+        elasticsearchClient.indices().create(c -> c
+                .index(targetIndex)
+                .settings(s -> s
+                        .refreshInterval(t -> t.time("-1"))
+                        .numberOfReplicas("0")
+                        .gcDeletes(t -> t.time(copyGcDeletes)))
+                .mappings(m -> m.withJson(new StringReader(mapping))));
+        log.info("Created {} for reindex", targetIndex);
+    }
+
+    /**
+     * Pages through indexed documents in primary key order, so that every page is
+     * an index range scan regardless of how far the copy has progressed.
+     */
+    private void copyFromDatabase(ReindexProgress progress) throws IOException {
+        Set<String> dedicated = placementService.dedicatedTenants();
+        progress.setTotal(documentRepository.countByStatus(DocumentStatus.INDEXED));
+
+        UUID after = new UUID(0, 0);
+        List<Document> page;
+        do {
+            page = documentRepository.findByStatusAndIdGreaterThanOrderByIdAsc(
+                    DocumentStatus.INDEXED, after, Limit.of(batchSize));
+            List<Copy> copies = page.stream()
+                    .filter(document -> !dedicated.contains(document.getTenantId()))
+                    .map(document -> new Copy(document.getId().toString(), document.getTenantId(),
+                            document.getVersion(), DocumentIndex.from(document)))
+                    .toList();
+            bulkCopy(progress, copies);
+            if (!page.isEmpty()) {
+                after = page.get(page.size() - 1).getId();
+            }
+        } while (page.size() == batchSize);
+    }
+
+    private void copyFromIndex(ReindexProgress progress) throws Exception {
+        progress.setTotal(elasticsearchClient.count(c -> c.index(progress.getSourceIndex())).count());
+
+        ExecutorService workers = Executors.newFixedThreadPool(slices);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int slice = 0; slice < slices; slice++) {
+                int sliceId = slice;
+                futures.add(workers.submit(() -> {
+                    copySlice(progress, sliceId);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * Copies one slice of the source index. The _source is copied as is, so that
+     * fields unknown to {@link DocumentIndex} survive the rebuild.
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private void copySlice(ReindexProgress progress, int sliceId) throws IOException {
+        Time keepAlive = Time.of(t -> t.time(SCROLL_KEEP_ALIVE));
+        ResponseBody<Map> page = elasticsearchClient.search(s -> {
+            s.index(progress.getSourceIndex())
+                    .version(true)
+                    .scroll(keepAlive)
+                    .size(batchSize)
+                    .sort(sort -> sort.doc(d -> d));
+            if (slices > 1) {
+                s.slice(slice -> slice.id(String.valueOf(sliceId)).max(slices));
+            }
+            return s;
+        }, Map.class);
+
+        String scrollId = page.scrollId();
+        try {
+            while (!page.hits().hits().isEmpty()) {
+                List<Copy> copies = new ArrayList<>();
+                for (Hit<Map> hit : page.hits().hits()) {
+                    Map<String, Object> document = hit.source();
+                    copies.add(new Copy(hit.id(), (String) document.get("tenantId"), hit.version(), document));
+                }
+                bulkCopy(progress, copies);
+
+                String currentScroll = scrollId;
+                page = elasticsearchClient.scroll(s -> s.scrollId(currentScroll).scroll(keepAlive), Map.class);
+                scrollId = page.scrollId();
+            }
+        } finally {
+            if (scrollId != null) {
+                String currentScroll = scrollId;
+                elasticsearchClient.clearScroll(c -> c.scrollId(currentScroll));
+            }
+        }
+    }
+
+    /**
+     * Writes copies with the version of their source and version_type=external. A
+     * conflict means that a live change of the same or a newer version already
+     * reached the new index, and it is kept. Copies without a version, only found in
+     * indices written before versioning, are written with op_type=create instead.
+     */
+    private void bulkCopy(ReindexProgress progress, List<Copy> copies) throws IOException {
+        if (copies.isEmpty()) {
+            return;
+        }
+        BulkRequest.Builder bulk = new BulkRequest.Builder().index(progress.getTargetIndex());
+        for (Copy copy : copies) {
+            if (copy.version() != null) {
+                bulk.operations(op -> op.index(i -> i
+                        .id(copy.id())
+                        .routing(copy.routing())
+                        .version(copy.version())
+                        .versionType(VersionType.External)
+                        .document(copy.document())));
+            } else {
+                bulk.operations(op -> op.create(c -> c.id(copy.id()).routing(copy.routing()).document(copy.document())));
+            }
+        }
+
+        BulkResponse response = elasticsearchClient.bulk(bulk.build());
+        long failed = response.items().stream()
+                .filter(item -> item.error() != null && item.status() != 409)
+                .peek(item -> log.warn("Failed to copy document {}: {}", item.id(), item.error().reason()))
+                .count();
+        progress.recordCopied(copies.size() - failed);
+        progress.recordFailed(failed);
+    }
+
+    private void renew(String targetIndex) {
+        try {
+            if (!reindexState.renew(targetIndex)) {
+                log.error("Lost the reindex claim on {}", targetIndex);
+            }
+        } catch (Exception e) {
+            log.error("Failed to renew the reindex claim on {}", targetIndex, e);
+        }
+    }
+
+    /**
+     * Stops dual-writing and removes the partly built index. The index is only
+     * removed once every node has stopped writing to it, since a late write would
+     * recreate it with a dynamic mapping.
+     */
+    private void abandon(String targetIndex) {
+        try {
+            reindexState.end(targetIndex);
+            Thread.sleep(placementService.getRefreshInterval().toMillis());
+            elasticsearchClient.indices().delete(d -> d.index(targetIndex).ignoreUnavailable(true));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted before removing {}; the next reindex skips it", targetIndex);
+        } catch (Exception e) {
+            log.error("Failed to clean up after reindex into {}", targetIndex, e);
+        }
+    }
+
+    private boolean exists(String index) throws IOException {
+        return elasticsearchClient.indices().exists(e -> e.index(index)).value();
+    }
+
+    private String currentIndex(String alias) throws IOException {
+        if (!elasticsearchClient.indices().existsAlias(e -> e.name(alias)).value()) {
+            throw new IllegalStateException("Alias " + alias + " does not exist");
+        }
+        return elasticsearchClient.indices().getAlias(g -> g.name(alias)).result().keySet().iterator().next();
+    }
+
+    /**
+     * Returns the name of the index version following the given one.
+     */
+    static String nextVersion(String index) {
+        Matcher matcher = VERSIONED.matcher(index);
+        if (!matcher.matches()) {
+            return index + "_v2";
+        }
+        return matcher.group(1) + (Long.parseLong(matcher.group(2)) + 1);
+    }
+
+    private record Copy(String id, String routing, Long version, Object document) {
+    }
+}
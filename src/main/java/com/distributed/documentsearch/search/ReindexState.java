@@ -0,0 +1,123 @@
+package com.distributed.documentsearch.search;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Cluster-wide record of the index currently being built by the reindex job.
+ *
+ * While a build is in progress every node writes live changes to the new index as
+ * well as to the {@code documents} alias. The target is kept in Redis, which also
+ * guarantees that only one build runs at a time, and is re-read by every node after
+ * the same refresh interval as tenant placements.
+ *
+ * The claim is a lease of {@code app.search.reindex.lease} that the running job
+ * renews. If the node running the job dies, the claim expires, every node stops
+ * dual-writing and a new build can be started.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.backend", havingValue = "elasticsearch", matchIfMissing = true)
+@Slf4j
+public class ReindexState {
+
+    private static final String KEY = "reindex:target";
+
+    /** Extends the claim if it is still held for the given index */
+    private static final DefaultRedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('get', KEYS[1]) ~= ARGV[1] then return 0 end
+            return redis.call('pexpire', KEYS[1], ARGV[2])
+            """, Long.class);
+
+    /** Releases the claim if it is still held for the given index */
+    private static final DefaultRedisScript<Long> END_SCRIPT = new DefaultRedisScript<>("""
+            if redis.call('get', KEYS[1]) ~= ARGV[1] then return 0 end
+            return redis.call('del', KEYS[1])
+            """, Long.class);
+
+    /** Redis template holding the build target */
+    private final RedisTemplate<String, String> redisTemplate;
+
+    /** Build target read recently by this node */
+    private final Cache<String, Optional<String>> target;
+
+    /** How long a claim outlives its last renewal */
+    private final Duration lease;
+
+    public ReindexState(
+            RedisTemplate<String, String> redisTemplate,
+            @Value("${app.search.placement-refresh:30s}") Duration refreshInterval,
+            @Value("${app.search.reindex.lease:2m}") Duration lease) {
+        this.redisTemplate = redisTemplate;
+        this.lease = lease;
+        this.target = Caffeine.newBuilder()
+                .expireAfterWrite(refreshInterval)
+                .maximumSize(1)
+                .build();
+    }
+
+    /**
+     * Returns the index being built, empty when no build is in progress.
+     */
+    public Optional<String> target() {
+        return target.get(KEY, this::load);
+    }
+
+    /**
+     * Returns how long a claim outlives its last renewal.
+     */
+    public Duration getLease() {
+        return lease;
+    }
+
+    /**
+     * Claims the build for the given index for one lease.
+     *
+     * @return false if another build is already in progress
+     */
+    public boolean begin(String index) {
+        Boolean claimed = redisTemplate.opsForValue().setIfAbsent(KEY, index, lease);
+        target.invalidateAll();
+        return Boolean.TRUE.equals(claimed);
+    }
+
+    /**
+     * Extends the claim on the given index by one lease.
+     *
+     * @return false if the claim was lost, because it expired or another build took over
+     */
+    public boolean renew(String index) {
+        Long renewed = redisTemplate.execute(RENEW_SCRIPT, List.of(KEY), index, String.valueOf(lease.toMillis()));
+        return renewed != null && renewed == 1;
+    }
+
+    /**
+     * Ends the build of the given index; nodes stop dual-writing within the refresh interval.
+     */
+    public void end(String index) {
+        redisTemplate.execute(END_SCRIPT, List.of(KEY), index);
+        target.invalidateAll();
+    }
+
+    private Optional<String> load(String key) {
+        try {
+            return Optional.ofNullable(redisTemplate.opsForValue().get(key));
+        } catch (Exception e) {
+            log.error("Failed to read reindex state", e);
+            return Optional.empty();
+        }
+    }
+}
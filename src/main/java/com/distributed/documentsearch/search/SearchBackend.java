@@ -0,0 +1,76 @@
+package com.distributed.documentsearch.search;
+
+import com.distributed.documentsearch.model.DocumentIndex;
+
+import java.util.List;
+
+/**
+ * Full-text search engine holding the searchable copy of the documents.
+ *
+ * PostgreSQL remains the source of truth; a backend only has to index, remove and
+ * query documents. Implementations are selected with {@code app.search.backend}
+ * and must give the same query semantics: a best-fields match of the query text
+ * over title (boosted) and content, restricted to one tenant and ordered by
+ * BM25 relevance.
+ *
+ * Writes are versioned with the version of the source document: a write whose
+ * version is lower than the one already indexed, including the version of a
+ * deletion, is a no-op. Indexing events may therefore be consumed concurrently
+ * and out of order, and the index converges on the latest version.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+public interface SearchBackend {
+
+    /**
+     * Name reported by health checks.
+     */
+    String name();
+
+    /**
+     * Adds or replaces a single document, unless a newer version is indexed already.
+     *
+     * @return false if the write was stale and ignored
+     */
+    boolean index(DocumentIndex document);
+
+    /**
+     * Adds or replaces a batch of documents.
+     *
+     * Batches of the {@link IndexingPriority#INTERACTIVE} priority are searchable once the
+     * call returns; batches of the {@link IndexingPriority#BULK} priority become searchable
+     * with the backend's next periodic refresh.
+     *
+     * @return one result per document, in no particular order; stale writes are
+     *         reported with status 409
+     * @throws RuntimeException if the batch as a whole could not be processed
+     */
+    List<BulkItemResult> bulkIndex(List<DocumentIndex> documents, IndexingPriority priority);
+
+    /**
+     * Removes a document, unless a newer version is indexed already; removing a
+     * missing document is not an error. The removal is searchable once the call
+     * returns.
+     *
+     * @param version version of the deleted document, null to delete unconditionally
+     * @return false if the deletion was stale and ignored
+     */
+    boolean delete(String tenantId, String documentId, Long version);
+
+    /**
+     * Runs a query within one tenant.
+     */
+    SearchPage search(SearchQuery query);
+
+    /**
+     * Counts the searchable documents of a tenant and sums their versions.
+     */
+    IndexDigest digest(String tenantId);
+
+    /**
+     * Whether the backend can currently serve requests.
+     */
+    boolean isAvailable();
+}
@@ -0,0 +1,58 @@
+package com.distributed.documentsearch.search;
+
+import com.distributed.documentsearch.exception.InvalidCursorException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.Value;
+
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Position of a cursor walk through search results.
+ *
+ * A cursor holds the sort values of the last hit returned, so that the next page
+ * can be fetched with search_after at constant cost regardless of depth, and, for
+ * backends that support it, the point-in-time the walk reads from. It is handed to
+ * clients as URL-safe Base64 JSON and must be treated as opaque by them.
+ */
+@Value
+class SearchCursor {
+
+    /** Cursor value a client sends to start a new cursor walk */
+    static final String START = "*";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    /** Point-in-time ID the walk reads from, null for backends without one */
+    String pitId;
+
+    /** Sort values of the last hit returned, null on the first page */
+    List<Object> searchAfter;
+
+    String encode() {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("pit", pitId);
+        payload.put("after", searchAfter);
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(payload));
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to encode search cursor", e);
+        }
+    }
+
+    static SearchCursor decode(String token) {
+        try {
+            Map<String, Object> payload = MAPPER.readValue(
+                    Base64.getUrlDecoder().decode(token), new TypeReference<Map<String, Object>>() { });
+            String pitId = (String) payload.get("pit");
+            @SuppressWarnings("unchecked")
+            List<Object> searchAfter = (List<Object>) payload.get("after");
+            return new SearchCursor(pitId, searchAfter);
+        } catch (Exception e) {
+            throw new InvalidCursorException("Invalid search cursor", e);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.distributed.documentsearch.search;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import com.distributed.documentsearch.model.DocumentIndex;
+import com.distributed.documentsearch.service.TenantPlacementService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.stereotype.Component;
+
+import java.io.StringReader;
+
+/**
+ * Makes sure the {@code documents} alias exists on startup.
+ *
+ * A fresh cluster gets {@code documents_v1} with the current mapping behind the
+ * alias. An installation that still writes to {@code documents_v1} directly gets
+ * the alias added to that index, after which it can be rebuilt by the reindex job.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.backend", havingValue = "elasticsearch", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexBootstrap implements ApplicationRunner {
+
+    /** Spring Data operations used to derive the mapping from {@link DocumentIndex} */
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    /** Low-level Elasticsearch client used for index management */
+    private final ElasticsearchClient elasticsearchClient;
+
+    /** Provides the alias name */
+    private final TenantPlacementService placementService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        String alias = placementService.getSharedIndex();
+        String firstIndex = alias + "_v1";
+        try {
+            if (elasticsearchClient.indices().existsAlias(e -> e.name(alias)).value()) {
+                return;
+            }
+            if (!elasticsearchClient.indices().exists(e -> e.index(firstIndex)).value()) {
+                String mapping = elasticsearchOperations.indexOps(DocumentIndex.class).createMapping().toJson();
+                elasticsearchClient.indices().create(c -> c
+                        .index(firstIndex)
+                        .mappings(m -> m.withJson(new StringReader(mapping))));
+                log.info("Created search index {}", firstIndex);
+            }
+            elasticsearchClient.indices().updateAliases(u -> u
+                    .actions(a -> a.add(add -> add.index(firstIndex).alias(alias).isWriteIndex(true))));
+            log.info("Search alias {} now points to {}", alias, firstIndex);
+        } catch (Exception e) {
+            log.error("Failed to set up search alias {}", alias, e);
+        }
+    }
+}
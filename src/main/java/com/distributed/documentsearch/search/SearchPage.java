@@ -0,0 +1,22 @@
+package com.distributed.documentsearch.search;
+
+import com.distributed.documentsearch.dto.SearchResponse;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * One page of search results as returned by a {@link SearchBackend}.
+ */
+@Data
+@Builder
+public class SearchPage {
+
+    private long total;
+
+    private List<SearchResponse.SearchResult> results;
+
+    /** Cursor for the next page of a cursor walk, null when there is none */
+    private String nextCursor;
+}
@@ -0,0 +1,45 @@
+package com.distributed.documentsearch.search;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.Set;
+
+/**
+ * Backend-independent search query.
+ */
+@Data
+@Builder
+public class SearchQuery {
+
+    /** Field names a caller may request */
+    public static final String ID = "id";
+    public static final String TITLE = "title";
+    public static final String SNIPPET = "snippet";
+    public static final String SCORE = "score";
+    public static final String METADATA = "metadata";
+    public static final Set<String> ALL_FIELDS = Set.of(ID, TITLE, SNIPPET, SCORE, METADATA);
+
+    /** Length of a snippet, and of the leading text used when the content does not match */
+    public static final int SNIPPET_LENGTH = 150;
+
+    private String tenantId;
+
+    /** Trimmed query text */
+    private String text;
+
+    /** Zero-based page number, ignored for cursor walks */
+    private int page;
+
+    private int size;
+
+    /** Result fields to return */
+    private Set<String> fields;
+
+    /** Opaque cursor, {@link SearchCursor#START} to start a walk, or null for offset paging */
+    private String cursor;
+
+    public boolean includes(String field) {
+        return fields.contains(field);
+    }
+}
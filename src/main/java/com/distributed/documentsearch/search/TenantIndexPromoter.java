@@ -0,0 +1,147 @@
+package com.distributed.documentsearch.search;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.Conflicts;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.VersionType;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.DeleteByQueryResponse;
+import co.elastic.clients.elasticsearch.core.ReindexResponse;
+import com.distributed.documentsearch.model.DocumentIndex;
+import com.distributed.documentsearch.model.TenantPlacement;
+import com.distributed.documentsearch.model.TenantPlacementStatus;
+import com.distributed.documentsearch.service.TenantPlacementService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Optional;
+
+/**
+ * Moves a large tenant out of the shared index into a dedicated index.
+ *
+ * The move runs in stages so that searches keep working and no write is lost:
+ * the dedicated index is created and the tenant is marked as migrating, which
+ * makes every node write to both indices; once all nodes have seen the change the
+ * existing documents are copied over with their versions, without overwriting
+ * newer dual writes. The copy reads a snapshot that may still hold documents
+ * deleted since; the dedicated index keeps the tombstones of those deletions for
+ * {@code app.search.copy-gc-deletes} instead of the default 60s while the copy
+ * runs, so that the copy cannot bring them back. The
+ * tenant's filtered alias is then pointed at the dedicated index, the tenant is
+ * marked as dedicated and its documents are finally removed from the shared index.
+ * A failed move can be restarted; every stage is idempotent.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@ConditionalOnProperty(name = "app.search.backend", havingValue = "elasticsearch", matchIfMissing = true)
+@RequiredArgsConstructor
+@Slf4j
+public class TenantIndexPromoter {
+
+    private static final String TENANT_FIELD = "tenantId";
+
+    /** Elasticsearch's default index.gc_deletes, restored once the copy is done */
+    private static final String DEFAULT_GC_DELETES = "60s";
+
+    /** Spring Data operations used to create the dedicated index with the document mapping */
+    private final ElasticsearchOperations elasticsearchOperations;
+
+    /** Low-level Elasticsearch client used for reindex, aliases and delete-by-query */
+    private final ElasticsearchClient elasticsearchClient;
+
+    /** Tenant placement table */
+    private final TenantPlacementService placementService;
+
+    @Value("${app.search.copy-gc-deletes:12h}")
+    private String copyGcDeletes = "12h";
+
+    /**
+     * Promotes the tenant to a dedicated index in the background.
+     *
+     * @param tenantId the tenant to promote
+     */
+    @Async
+    public void promote(String tenantId) {
+        try {
+            Optional<TenantPlacement> existing = placementService.find(tenantId);
+            if (existing.isPresent() && existing.get().getStatus() == TenantPlacementStatus.DEDICATED) {
+                log.info("Tenant {} already has a dedicated index", tenantId);
+                return;
+            }
+            promoteNow(tenantId);
+        } catch (Exception e) {
+            log.error("Failed to promote tenant {} to a dedicated index", tenantId, e);
+        }
+    }
+
+    private void promoteNow(String tenantId) throws IOException, InterruptedException {
+        String sharedIndex = placementService.getSharedIndex();
+        String dedicatedIndex = TenantPlacementService.dedicatedIndexFor(tenantId);
+        String alias = TenantPlacementService.aliasFor(tenantId);
+        Query tenantFilter = Query.of(q -> q.term(t -> t.field(TENANT_FIELD).value(FieldValue.of(tenantId))));
+
+        IndexOperations indexOps = elasticsearchOperations.indexOps(IndexCoordinates.of(dedicatedIndex));
+        if (!indexOps.exists()) {
+            indexOps.create();
+            indexOps.putMapping(elasticsearchOperations.indexOps(DocumentIndex.class).createMapping());
+        }
+
+        placementService.place(tenantId, TenantPlacementStatus.MIGRATING);
+        awaitPlacementRefresh();
+
+        putGcDeletes(dedicatedIndex, copyGcDeletes);
+        try {
+            ReindexResponse copied = elasticsearchClient.reindex(r -> r
+                    .source(s -> s.index(sharedIndex).query(tenantFilter))
+                    .dest(d -> d.index(dedicatedIndex).versionType(VersionType.External))
+                    .conflicts(Conflicts.Proceed)
+                    .waitForCompletion(true)
+                    .refresh(true));
+            log.info("Copied {} documents of tenant {} to {} in {}ms",
+                    copied.created(), tenantId, dedicatedIndex, copied.took());
+        } finally {
+            putGcDeletes(dedicatedIndex, DEFAULT_GC_DELETES);
+        }
+
+        elasticsearchClient.indices().updateAliases(u -> u.actions(a -> a.add(add -> add
+                .index(dedicatedIndex)
+                .alias(alias)
+                .filter(tenantFilter)
+                .isWriteIndex(true))));
+
+        placementService.place(tenantId, TenantPlacementStatus.DEDICATED);
+        awaitPlacementRefresh();
+
+        DeleteByQueryResponse removed = elasticsearchClient.deleteByQuery(d -> d
+                .index(sharedIndex)
+                .routing(tenantId)
+                .query(tenantFilter)
+                .conflicts(Conflicts.Proceed));
+        log.info("Tenant {} promoted to {}; removed {} documents from {}",
+                tenantId, dedicatedIndex, removed.deleted(), sharedIndex);
+    }
+
+    private void putGcDeletes(String index, String gcDeletes) throws IOException {
+        elasticsearchClient.indices().putSettings(p -> p
+                .index(index)
+                .settings(s -> s.gcDeletes(t -> t.time(gcDeletes))));
+    }
+
+    /**
+     * Waits until every node has dropped the placement it had cached before the last change.
+     */
+    private void awaitPlacementRefresh() throws InterruptedException {
+        Thread.sleep(placementService.getRefreshInterval().toMillis());
+    }
+}
@@ -0,0 +1,47 @@
+package com.distributed.documentsearch.search;
+
+import java.util.List;
+
+/**
+ * Resolved location of a tenant's documents in Elasticsearch.
+ *
+ * Searches go to a single target; writes go to every write target, which is more
+ * than one only while the tenant is being moved to its dedicated index.
+ *
+ * @param read   index or alias searched for the tenant
+ * @param writes indices or aliases every write is applied to
+ */
+public record TenantRouting(Target read, List<Target> writes) {
+
+    /**
+     * An index or alias together with the custom routing value to send with the
+     * request, {@code null} for default routing by document ID.
+     */
+    public record Target(String index, String routing) {
+    }
+
+    /**
+     * Tenant in the shared index: everything is routed to one shard by tenant ID.
+     */
+    public static TenantRouting shared(String sharedIndex, String tenantId) {
+        Target target = new Target(sharedIndex, tenantId);
+        return new TenantRouting(target, List.of(target));
+    }
+
+    /**
+     * Tenant being copied to its dedicated index: reads stay on the shared index
+     * while writes reach both, so that no change is lost by the copy.
+     */
+    public static TenantRouting migrating(String sharedIndex, String tenantId, String dedicatedIndex) {
+        Target shared = new Target(sharedIndex, tenantId);
+        return new TenantRouting(shared, List.of(shared, new Target(dedicatedIndex, null)));
+    }
+
+    /**
+     * Tenant on its dedicated index, reached through its alias.
+     */
+    public static TenantRouting dedicated(String alias) {
+        Target target = new Target(alias, null);
+        return new TenantRouting(target, List.of(target));
+    }
+}
@@ -0,0 +1,236 @@
+package com.distributed.documentsearch.service;
+
+import com.distributed.documentsearch.cache.DocumentStatusCache;
+import com.distributed.documentsearch.dto.DocumentEvent;
+import com.distributed.documentsearch.model.DocumentIndex;
+import com.distributed.documentsearch.model.DocumentStatus;
+import com.distributed.documentsearch.repository.DocumentRepository;
+import com.distributed.documentsearch.search.BulkItemResult;
+import com.distributed.documentsearch.search.IndexingPriority;
+import com.distributed.documentsearch.search.SearchBackend;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Service for indexing batches of documents in the search backend.
+ *
+ * This service backs the batched indexing consumer. Documents arrive as snapshots
+ * inside their indexing events; only documents too large to inline are loaded from
+ * PostgreSQL, with a single IN query. The batch is written to the search backend with
+ * one bulk request, and the resulting statuses are persisted with one JDBC batch update
+ * and patched into the document cache with one Redis pipeline.
+ * The outcome of every document is reported individually so the caller can
+ * acknowledge or reject each message on its own.
+ *
+ * Writes carry the document version, so batches may be indexed by several consumers
+ * in parallel and in any order: a snapshot older than the indexed copy, or than a
+ * deletion, is reported as {@link Outcome#STALE} and leaves the status untouched.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkIndexService {
+
+    /**
+     * Per-document result of a bulk indexing attempt.
+     */
+    public enum Outcome {
+
+        /** Document was written to the index */
+        INDEXED,
+
+        /** Document no longer exists in the database */
+        MISSING,
+
+        /** A newer version of the document was indexed or deleted already */
+        STALE,
+
+        /** Indexing failed with a transient error and should be retried */
+        RETRY,
+
+        /** Indexing failed permanently, e.g. because of a mapping error */
+        REJECTED
+    }
+
+    private static final String UPDATE_STATUS_SQL =
+            "UPDATE documents SET status = ?, updated_at = now() WHERE id = ?";
+
+    /** Repository for document persistence operations */
+    private final DocumentRepository documentRepository;
+
+    /** Search backend receiving the bulk request */
+    private final SearchBackend searchBackend;
+
+    /** JDBC template for batched status updates */
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Per-tenant index generation, bumped to invalidate cached searches */
+    private final IndexGenerationService indexGenerationService;
+
+    /** Current status of cached documents */
+    private final DocumentStatusCache documentStatusCache;
+
+    /**
+     * Indexes a batch of documents in the search backend.
+     *
+     * Self-contained events are indexed from their snapshot; only references are
+     * loaded from the database, with a single IN query. References to documents
+     * that no longer exist are reported as {@link Outcome#MISSING}. If the bulk
+     * request fails as a whole, every document is reported as {@link Outcome#RETRY}.
+     * Successfully indexed documents are marked INDEXED and permanently rejected
+     * documents are marked FAILED in a single JDBC batch; a snapshot whose row is
+     * gone by then was deleted meanwhile and is removed from the index again.
+     *
+     * @param events the indexing events of the batch
+     * @param priority the traffic class of the batch
+     * @return the outcome for every document of the batch
+     */
+    public Map<UUID, Outcome> indexDocuments(Collection<DocumentEvent> events, IndexingPriority priority) {
+        Map<UUID, Outcome> outcomes = new HashMap<>();
+        if (events.isEmpty()) {
+            return outcomes;
+        }
+
+        Map<UUID, DocumentIndex> documents = new LinkedHashMap<>();
+        Set<UUID> references = new LinkedHashSet<>();
+        for (DocumentEvent event : events) {
+            UUID id = UUID.fromString(event.getDocumentId());
+            if (event.isSelfContained()) {
+                documents.merge(id, event.toIndex(), BulkIndexService::newer);
+                references.remove(id);
+            } else if (!documents.containsKey(id)) {
+                references.add(id);
+            }
+        }
+        if (!references.isEmpty()) {
+            references.forEach(id -> outcomes.put(id, Outcome.MISSING));
+            documentRepository.findAllById(references)
+                    .forEach(document -> documents.put(document.getId(), DocumentIndex.from(document)));
+        }
+
+        if (documents.isEmpty()) {
+            log.warn("None of the {} documents in the batch exist anymore", references.size());
+            return outcomes;
+        }
+
+        long start = System.currentTimeMillis();
+        List<BulkItemResult> results;
+        try {
+            results = searchBackend.bulkIndex(new ArrayList<>(documents.values()), priority);
+        } catch (Exception e) {
+            log.error("Bulk indexing request for {} documents failed", documents.size(), e);
+            documents.keySet().forEach(id -> outcomes.put(id, Outcome.RETRY));
+            return outcomes;
+        }
+
+        for (BulkItemResult item : results) {
+            UUID id = UUID.fromString(item.id());
+            if (item.isSuccess()) {
+                outcomes.put(id, Outcome.INDEXED);
+            } else if (item.isStale()) {
+                log.debug("Skipped stale version of document {}", id);
+                outcomes.put(id, Outcome.STALE);
+            } else if (isRetryable(item.status())) {
+                log.warn("Transient bulk failure for document {}: {}", id, item.error());
+                outcomes.put(id, Outcome.RETRY);
+            } else {
+                log.error("Bulk indexing rejected document {}: {}", id, item.error());
+                outcomes.put(id, Outcome.REJECTED);
+            }
+        }
+
+        updateStatuses(outcomes, documents);
+        documents.entrySet().stream()
+                .filter(entry -> outcomes.get(entry.getKey()) == Outcome.INDEXED)
+                .map(entry -> entry.getValue().getTenantId())
+                .distinct()
+                .forEach(tenantId -> {
+                    // Bulk batches only become searchable with the next periodic refresh
+                    if (priority == IndexingPriority.INTERACTIVE) {
+                        indexGenerationService.bump(tenantId);
+                    } else {
+                        indexGenerationService.bumpAfterRefresh(tenantId);
+                    }
+                });
+        log.info("Bulk indexed {} of {} documents ({} read from the database) in {}ms",
+                outcomes.values().stream().filter(Outcome.INDEXED::equals).count(),
+                outcomes.size(), references.size(), System.currentTimeMillis() - start);
+        return outcomes;
+    }
+
+    private void updateStatuses(Map<UUID, Outcome> outcomes, Map<UUID, DocumentIndex> documents) {
+        List<UUID> ids = new ArrayList<>();
+        List<Object[]> batchArgs = new ArrayList<>();
+        outcomes.forEach((id, outcome) -> {
+            if (outcome == Outcome.INDEXED) {
+                ids.add(id);
+                batchArgs.add(new Object[]{DocumentStatus.INDEXED.name(), id});
+            } else if (outcome == Outcome.REJECTED) {
+                ids.add(id);
+                batchArgs.add(new Object[]{DocumentStatus.FAILED.name(), id});
+            }
+        });
+        if (batchArgs.isEmpty()) {
+            return;
+        }
+
+        int[] updated = jdbcTemplate.batchUpdate(UPDATE_STATUS_SQL, batchArgs);
+        if (updated == null) {
+            return;
+        }
+        Map<String, DocumentStatus> statuses = new HashMap<>();
+        for (int i = 0; i < updated.length && i < ids.size(); i++) {
+            UUID id = ids.get(i);
+            if (updated[i] == 0 && outcomes.get(id) == Outcome.INDEXED) {
+                removeDeleted(id, documents.get(id));
+                outcomes.put(id, Outcome.MISSING);
+            } else if (updated[i] > 0) {
+                statuses.put(DocumentStatusCache.key(id, documents.get(id).getTenantId()),
+                        DocumentStatus.valueOf((String) batchArgs.get(i)[0]));
+            }
+        }
+        documentStatusCache.putAll(statuses);
+    }
+
+    /**
+     * Removes a document that was deleted while its snapshot was in flight.
+     */
+    private void removeDeleted(UUID id, DocumentIndex document) {
+        try {
+            searchBackend.delete(document.getTenantId(), id.toString(), document.getVersion());
+            log.info("Removed document {} from the index; it was deleted while being indexed", id);
+        } catch (Exception e) {
+            log.error("Failed to remove deleted document {} from the index", id, e);
+        }
+    }
+
+    /**
+     * Of two snapshots of the same document in one batch, keeps the later version.
+     */
+    private static DocumentIndex newer(DocumentIndex first, DocumentIndex second) {
+        if (first.getVersion() == null) {
+            return second;
+        }
+        return second.getVersion() != null && second.getVersion() >= first.getVersion() ? second : first;
+    }
+
+    private boolean isRetryable(int status) {
+        return status == 429 || status >= 500;
+    }
+}
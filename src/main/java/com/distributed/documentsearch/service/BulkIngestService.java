@@ -0,0 +1,270 @@
+package com.distributed.documentsearch.service;
+
+import com.distributed.documentsearch.cache.DocumentExistenceFilter;
+import com.distributed.documentsearch.config.RabbitMQConfig;
+import com.distributed.documentsearch.dto.BulkDocumentResponse;
+import com.distributed.documentsearch.dto.BulkDocumentResponse.ItemResult;
+import com.distributed.documentsearch.dto.DocumentBatchEvent;
+import com.distributed.documentsearch.dto.DocumentEvent;
+import com.distributed.documentsearch.dto.DocumentRequest;
+import com.distributed.documentsearch.exception.RequestCostExceedsLimitException;
+import com.distributed.documentsearch.model.Document;
+import com.distributed.documentsearch.model.DocumentStatus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Service for bulk document ingestion.
+ *
+ * The request body is read as a stream of {@link DocumentRequest} values, either
+ * newline-delimited JSON or a single JSON array, so that it never has to be
+ * buffered in memory. Valid documents are grouped into chunks; every chunk is
+ * charged against the tenant's rate limit by its item count, inserted with one
+ * JDBC batch inside its own transaction, and announced to the indexer with a
+ * single batch message written to the outbox in the same transaction. The
+ * documents are added to the tenant's existence filter before the chunk commits.
+ * Chunks that fail to persist are not charged.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BulkIngestService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO documents (id, tenant_id, title, content, status, metadata, version, created_at, updated_at) "
+                    + "VALUES (?, ?, ?, ?, ?, CAST(? AS jsonb), ?, ?, ?)";
+
+    /** Version of a newly inserted document, as assigned by JPA on persist */
+    private static final long INITIAL_VERSION = 0L;
+
+    /** JDBC template for batched inserts */
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Transaction template giving every chunk its own transaction */
+    private final TransactionTemplate transactionTemplate;
+
+    /** Transactional outbox for batch indexing messages */
+    private final OutboxService outboxService;
+
+    /** Builds self-contained indexing events */
+    private final DocumentEventFactory documentEventFactory;
+
+    /** Service for rate limiting functionality */
+    private final RateLimitService rateLimitService;
+
+    /** Rate limit units charged per operation */
+    private final RateLimitCosts rateLimitCosts;
+
+    /** Object mapper used for streaming the request body and serializing metadata */
+    private final ObjectMapper objectMapper;
+
+    /** Bean validator applied to every item */
+    private final Validator validator;
+
+    /** Per-tenant filters of existing documents */
+    private final DocumentExistenceFilter documentExistenceFilter;
+
+    @Value("${app.bulk.chunk-size:100}")
+    private int chunkSize = 100;
+
+    /**
+     * Ingests a stream of documents for the specified tenant.
+     *
+     * Invalid items are reported individually and do not affect the rest of the
+     * request. Processing stops at the first malformed item, since the stream cannot
+     * be resynchronized, and at the first chunk that is rejected by the rate limiter
+     * or fails to persist; the remaining items are still read and reported with the
+     * same status, so that every item gets a result.
+     *
+     * @param tenantId the tenant identifier for data isolation
+     * @param body the request body containing NDJSON or a JSON array of documents
+     * @return per-item results in request order
+     * @throws IOException if the request body cannot be read
+     */
+    public BulkDocumentResponse ingest(String tenantId, InputStream body) throws IOException {
+        long start = System.currentTimeMillis();
+        List<ItemResult> results = new ArrayList<>();
+        List<PendingDocument> chunk = new ArrayList<>(chunkSize);
+        Rejection rejection = null;
+        int position = 0;
+
+        try (MappingIterator<DocumentRequest> items =
+                     objectMapper.readerFor(DocumentRequest.class).readValues(body)) {
+            while (items.hasNextValue()) {
+                DocumentRequest request = items.nextValue();
+                int index = position++;
+
+                if (rejection != null) {
+                    results.add(failure(index, rejection.status(), rejection.error()));
+                    continue;
+                }
+                String violation = validate(request);
+                if (violation != null) {
+                    results.add(failure(index, 400, violation));
+                    continue;
+                }
+
+                chunk.add(new PendingDocument(index, UUID.randomUUID(), request));
+                if (chunk.size() >= chunkSize) {
+                    rejection = flush(tenantId, chunk, results);
+                }
+            }
+        } catch (JsonProcessingException e) {
+            results.add(failure(position, 400, "Malformed document: " + e.getOriginalMessage()));
+        }
+
+        if (rejection == null && !chunk.isEmpty()) {
+            flush(tenantId, chunk, results);
+        }
+
+        results.sort(Comparator.comparing(ItemResult::getIndex));
+        return BulkDocumentResponse.builder()
+                .took(System.currentTimeMillis() - start)
+                .errors(results.stream().anyMatch(result -> result.getError() != null))
+                .items(results)
+                .build();
+    }
+
+    /**
+     * @return why the rest of the request must not be processed, or null if the chunk was persisted
+     */
+    private Rejection flush(String tenantId, List<PendingDocument> chunk, List<ItemResult> results) {
+        try {
+            long cost = rateLimitCosts.bulk(chunk.size());
+            RateLimitDecision decision;
+            try {
+                decision = rateLimitService.acquire(tenantId, cost);
+            } catch (RequestCostExceedsLimitException e) {
+                // app.bulk.chunk-size is too large for the tenant's limit; no chunk would ever pass
+                chunk.forEach(pending -> results.add(failure(pending.index(), 400, e.getMessage())));
+                return new Rejection(400, e.getMessage());
+            }
+            if (!decision.allowed()) {
+                chunk.forEach(pending -> results.add(failure(pending.index(), 429, "Rate limit exceeded")));
+                return new Rejection(429, "Rate limit exceeded");
+            }
+
+            try {
+                LocalDateTime now = LocalDateTime.now();
+                transactionTemplate.executeWithoutResult(status -> {
+                    insert(tenantId, chunk, now);
+                    enqueue(tenantId, chunk, now);
+                    documentExistenceFilter.addAll(tenantId, chunk.stream().map(PendingDocument::id).toList());
+                });
+            } catch (Exception e) {
+                log.error("Failed to persist bulk chunk of {} documents", chunk.size(), e);
+                rateLimitService.release(tenantId, decision, cost);
+                chunk.forEach(pending -> results.add(failure(pending.index(), 500, "Failed to persist document")));
+                return new Rejection(503, "Not processed after an earlier chunk failed to persist");
+            }
+
+            chunk.forEach(pending -> results.add(ItemResult.builder()
+                    .index(pending.index())
+                    .id(pending.id())
+                    .status(201)
+                    .build()));
+            return null;
+        } finally {
+            chunk.clear();
+        }
+    }
+
+    private void insert(String tenantId, List<PendingDocument> chunk, LocalDateTime now) {
+        List<Object[]> batchArgs = new ArrayList<>(chunk.size());
+        for (PendingDocument pending : chunk) {
+            DocumentRequest request = pending.request();
+            batchArgs.add(new Object[]{
+                    pending.id(),
+                    tenantId,
+                    request.getTitle(),
+                    request.getContent(),
+                    DocumentStatus.INDEXING.name(),
+                    toJson(request),
+                    INITIAL_VERSION,
+                    now,
+                    now
+            });
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, batchArgs);
+    }
+
+    private void enqueue(String tenantId, List<PendingDocument> chunk, LocalDateTime now) {
+        List<DocumentEvent> events = chunk.stream()
+                .map(pending -> documentEventFactory.create(Document.builder()
+                        .id(pending.id())
+                        .tenantId(tenantId)
+                        .title(pending.request().getTitle())
+                        .content(pending.request().getContent())
+                        .metadata(pending.request().getMetadata())
+                        .status(DocumentStatus.INDEXING)
+                        .version(INITIAL_VERSION)
+                        .createdAt(now)
+                        .updatedAt(now)
+                        .build()))
+                .toList();
+        outboxService.enqueue(
+                RabbitMQConfig.DOCUMENT_EXCHANGE,
+                "document.bulk." + tenantId,
+                new DocumentBatchEvent(tenantId, null, events)
+        );
+    }
+
+    private String validate(DocumentRequest request) {
+        Set<ConstraintViolation<DocumentRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .reduce((first, second) -> first + "; " + second)
+                .orElse(null);
+    }
+
+    private String toJson(DocumentRequest request) {
+        if (request.getMetadata() == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(request.getMetadata());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Metadata is not serializable", e);
+        }
+    }
+
+    private ItemResult failure(int index, int status, String error) {
+        return ItemResult.builder()
+                .index(index)
+                .status(status)
+                .error(error)
+                .build();
+    }
+
+    private record PendingDocument(int index, UUID id, DocumentRequest request) {
+    }
+
+    private record Rejection(int status, String error) {
+    }
+}
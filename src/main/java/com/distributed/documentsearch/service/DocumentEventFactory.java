@@ -0,0 +1,46 @@
+package com.distributed.documentsearch.service;
+
+import com.distributed.documentsearch.dto.DocumentEvent;
+import com.distributed.documentsearch.model.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Builds indexing events, inlining a snapshot of every document that is small
+ * enough for the message.
+ *
+ * The size of a document is estimated from the length of its title and content,
+ * which is exact for ASCII text and avoids encoding the content just to measure
+ * it. Larger documents are sent as references and read by the indexer, which keeps
+ * messages, outbox rows and broker memory bounded.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class DocumentEventFactory {
+
+    /** Largest estimated document size that is inlined into the event */
+    private final long inlineMaxBytes;
+
+    public DocumentEventFactory(@Value("${app.indexing.inline-max-size:64KB}") DataSize inlineMaxSize) {
+        this.inlineMaxBytes = inlineMaxSize.toBytes();
+    }
+
+    /**
+     * Returns a snapshot event for the document, or a reference if it is too large.
+     */
+    public DocumentEvent create(Document document) {
+        long size = length(document.getTitle()) + length(document.getContent());
+        if (size > inlineMaxBytes) {
+            return DocumentEvent.reference(document.getId().toString(), document.getTenantId());
+        }
+        return DocumentEvent.snapshot(document);
+    }
+
+    private static long length(String value) {
+        return value != null ? value.length() : 0;
+    }
+}
@@ -0,0 +1,74 @@
+package com.distributed.documentsearch.service;
+
+import com.distributed.documentsearch.dto.DocumentResponse;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Fields a client may request from the document endpoints with {@code fields=}.
+ *
+ * Names are matched case-insensitively and unknown names are ignored. The ID is
+ * always returned. Whether the content is requested decides which projection is
+ * read from the database and the cache; the other fields are only trimmed from
+ * the response.
+ */
+final class DocumentFields {
+
+    static final String ID = "id";
+    static final String CONTENT = "content";
+
+    /** Requestable field names by their lower case form */
+    private static final Map<String, String> NAMES = List.of(
+                    ID, "tenantId", "title", CONTENT, "status", "metadata", "createdAt", "updatedAt")
+            .stream()
+            .collect(Collectors.toMap(name -> name.toLowerCase(Locale.ROOT), Function.identity()));
+
+    private DocumentFields() {
+    }
+
+    /**
+     * @return the requested fields, or null for all of them
+     */
+    static Set<String> resolve(List<String> requested) {
+        if (requested == null || requested.isEmpty()) {
+            return null;
+        }
+        Set<String> fields = new LinkedHashSet<>();
+        fields.add(ID);
+        requested.stream()
+                .map(field -> NAMES.get(field.trim().toLowerCase(Locale.ROOT)))
+                .filter(Objects::nonNull)
+                .forEach(fields::add);
+        return fields;
+    }
+
+    static boolean includesContent(Set<String> fields) {
+        return fields == null || fields.contains(CONTENT);
+    }
+
+    /**
+     * @return the document restricted to the requested fields
+     */
+    static DocumentResponse project(DocumentResponse document, Set<String> fields) {
+        if (fields == null) {
+            return document;
+        }
+        return DocumentResponse.builder()
+                .id(document.getId())
+                .tenantId(fields.contains("tenantId") ? document.getTenantId() : null)
+                .title(fields.contains("title") ? document.getTitle() : null)
+                .content(fields.contains(CONTENT) ? document.getContent() : null)
+                .status(fields.contains("status") ? document.getStatus() : null)
+                .metadata(fields.contains("metadata") ? document.getMetadata() : null)
+                .createdAt(fields.contains("createdAt") ? document.getCreatedAt() : null)
+                .updatedAt(fields.contains("updatedAt") ? document.getUpdatedAt() : null)
+                .build();
+    }
+}
@@ -1,25 +1,37 @@
 package com.distributed.documentsearch.service;
 
+import com.distributed.documentsearch.cache.CacheBatches;
+import com.distributed.documentsearch.cache.DocumentExistenceFilter;
+import com.distributed.documentsearch.cache.DocumentStatusCache;
 import com.distributed.documentsearch.config.RabbitMQConfig;
 import com.distributed.documentsearch.config.TenantContext;
+import com.distributed.documentsearch.dto.DocumentEvent;
 import com.distributed.documentsearch.dto.DocumentRequest;
 import com.distributed.documentsearch.dto.DocumentResponse;
+import com.distributed.documentsearch.dto.MultiGetResponse;
 import com.distributed.documentsearch.exception.DocumentNotFoundException;
 import com.distributed.documentsearch.model.Document;
-import com.distributed.documentsearch.model.DocumentIndex;
 import com.distributed.documentsearch.model.DocumentStatus;
-import com.distributed.documentsearch.repository.DocumentIndexRepository;
+import com.distributed.documentsearch.model.DocumentSummary;
 import com.distributed.documentsearch.repository.DocumentRepository;
+import com.distributed.documentsearch.search.SearchBackend;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -27,12 +39,14 @@ import java.util.UUID;
  *
  * This service handles all document-related business logic including creation, retrieval,
  * deletion, and indexing. It implements fault tolerance patterns and integrates with
- * multiple data stores (PostgreSQL, Elasticsearch, Redis) and messaging (RabbitMQ).
+ * multiple data stores (PostgreSQL, the search backend, Redis) and messaging (RabbitMQ).
  *
  * Key Features:
  * - Document CRUD operations with tenant isolation
- * - Asynchronous document indexing via RabbitMQ
- * - Redis caching for performance optimization
+ * - Asynchronous document indexing via RabbitMQ, announced through the transactional outbox
+ * - Redis caching for performance optimization, written through on creation
+ * - Field projection, reading and caching documents without their content when it is not requested
+ * - Lookups of missing documents answered from per-tenant Bloom filters
  * - Circuit breaker and retry patterns for resilience
  * - Multi-tenant data isolation
  *
@@ -45,21 +59,45 @@ import java.util.UUID;
 @Slf4j
 public class DocumentService {
 
+    private static final String DOCUMENTS_CACHE = "documents";
+
+    /** Suffix of the cache keys of documents read without their content */
+    private static final String SUMMARY_KEY_SUFFIX = ":summary";
+
     /** Repository for document persistence operations */
     private final DocumentRepository documentRepository;
 
-    /** Repository for Elasticsearch document indexing */
-    private final DocumentIndexRepository documentIndexRepository;
+    /** Search backend holding the searchable copy of the documents */
+    private final SearchBackend searchBackend;
+
+    /** Transactional outbox for indexing and deletion messages */
+    private final OutboxService outboxService;
+
+    /** Builds self-contained indexing events */
+    private final DocumentEventFactory documentEventFactory;
+
+    /** Per-tenant index generation, bumped to invalidate cached searches */
+    private final IndexGenerationService indexGenerationService;
 
-    /** RabbitMQ template for sending indexing messages */
-    private final RabbitTemplate rabbitTemplate;
+    /** Cache manager holding the {@code documents} cache */
+    private final CacheManager cacheManager;
+
+    /** Current status of cached documents */
+    private final DocumentStatusCache documentStatusCache;
+
+    /** Per-tenant filters of existing documents */
+    private final DocumentExistenceFilter documentExistenceFilter;
 
     /**
      * Creates a new document for the specified tenant.
      *
      * This method creates a document entity, saves it to the database with INDEXING status,
-     * and publishes an indexing task to RabbitMQ for asynchronous processing. The document
-     * will be indexed in Elasticsearch by the background indexing service.
+     * and enqueues an indexing event carrying a snapshot of the document in the outbox
+     * within the same transaction. The outbox
+     * relay publishes it to RabbitMQ after the commit, and the document is indexed in the
+     * search backend by the background indexing service. The document is written
+     * to the cache, with and without its content, once the transaction commits,
+     * since clients typically poll it right away.
      *
      * @param request the document creation request containing title, content, and metadata
      * @return DocumentResponse containing the created document details
@@ -81,20 +119,20 @@ public class DocumentService {
                 .status(DocumentStatus.INDEXING)
                 .build();
 
+        // Flushed so that the generated timestamps are part of the event snapshot
         document = documentRepository.saveAndFlush(document);
+        outboxService.enqueue(
+                RabbitMQConfig.DOCUMENT_EXCHANGE,
+                "document.index." + tenantId,
+                documentEventFactory.create(document)
+        );
+        log.info("Enqueued indexing task for document: {}", document.getId());
+        documentExistenceFilter.addAll(tenantId, List.of(document.getId()));
 
-        try {
-            rabbitTemplate.convertAndSend(
-                    RabbitMQConfig.DOCUMENT_EXCHANGE,
-                    "document.index." + tenantId,
-                    document.getId().toString()
-            );
-            log.info("Published indexing task for document: {}", document.getId());
-        } catch (Exception e) {
-            log.error("Failed to publish indexing task", e);
-        }
-
-        return mapToResponse(document);
+        DocumentResponse response = mapToResponse(document);
+        documentsCache().put(cacheKey(response.getId(), tenantId, true), response);
+        documentsCache().put(cacheKey(response.getId(), tenantId, false), response.toBuilder().content(null).build());
+        return response;
     }
 
     /**
@@ -102,119 +140,232 @@ public class DocumentService {
      *
      * This method fetches a document from the database using both the document ID
      * and tenant ID to ensure proper data isolation. Results are cached in Redis
-     * for improved performance.
+     * for improved performance. While the cached status is not INDEXED yet, the
+     * latest status is read from the {@link DocumentStatusCache}, which indexing
+     * keeps up to date without rewriting the cached document. On a cache miss, documents
+     * that the {@link DocumentExistenceFilter} knows not to exist are reported as such
+     * without querying the database. Unless the content is requested, the document
+     * is read and cached as a {@link DocumentSummary}, without its content.
      *
      * @param id the unique identifier of the document
      * @param tenantId the tenant identifier for data isolation
-     * @return DocumentResponse containing the document details
+     * @param fields the fields to return, or null for all of them
+     * @return DocumentResponse containing the requested document details
      * @throws DocumentNotFoundException if the document does not exist or belongs to a different tenant
      */
-    @Cacheable(
-            value = "documents",
-            key = "#id + ':' + #tenantId",
-            unless = "#result == null"
-    )
-    public DocumentResponse getDocument(UUID id, String tenantId) {
-        Document document = documentRepository.findByIdAndTenantId(id, tenantId)
-                .orElseThrow(() -> new DocumentNotFoundException("Document not found"));
-        return mapToResponse(document);
+    public DocumentResponse getDocument(UUID id, String tenantId, List<String> fields) {
+        Set<String> resolved = DocumentFields.resolve(fields);
+        boolean withContent = DocumentFields.includesContent(resolved);
+
+        DocumentResponse response;
+        try {
+            response = documentsCache().get(cacheKey(id, tenantId, withContent), () -> {
+                if (documentExistenceFilter.isMissing(id, tenantId)) {
+                    throw new DocumentNotFoundException("Document not found");
+                }
+                DocumentResponse loaded = withContent
+                        ? documentRepository.findByIdAndTenantId(id, tenantId).map(this::mapToResponse).orElse(null)
+                        : documentRepository.findSummaryByIdAndTenantId(id, tenantId).map(this::mapToResponse).orElse(null);
+                if (loaded == null) {
+                    documentExistenceFilter.markMissing(id, tenantId);
+                    throw new DocumentNotFoundException("Document not found");
+                }
+                return loaded;
+            });
+        } catch (Cache.ValueRetrievalException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+
+        if (response.getStatus() != DocumentStatus.INDEXED) {
+            response = withStatus(response, documentStatusCache.get(id, tenantId));
+        }
+        return DocumentFields.project(response, resolved);
+    }
+
+    /**
+     * Retrieves many documents by their IDs for the specified tenant.
+     *
+     * The {@code documents} cache is read for all IDs at once, with a single MGET
+     * for the entries missing from the near-cache, and the latest status of cached
+     * documents that are not INDEXED yet with another. The remaining documents are
+     * read with one query and written back to the cache in one pipeline. As for
+     * single documents, the content is only read when requested.
+     *
+     * @param ids the unique identifiers of the documents; duplicates are fetched once
+     * @param tenantId the tenant identifier for data isolation
+     * @param fields the fields to return, or null for all of them
+     * @return the documents found in request order, and the IDs without a document
+     */
+    public MultiGetResponse getDocuments(Collection<UUID> ids, String tenantId, List<String> fields) {
+        Set<String> resolved = DocumentFields.resolve(fields);
+        boolean withContent = DocumentFields.includesContent(resolved);
+        List<UUID> distinctIds = List.copyOf(new LinkedHashSet<>(ids));
+        List<String> keys = distinctIds.stream().map(id -> cacheKey(id, tenantId, withContent)).toList();
+        Cache cache = cacheManager.getCache(DOCUMENTS_CACHE);
+
+        Map<String, Object> cached;
+        try {
+            cached = CacheBatches.getAll(cache, keys);
+        } catch (Exception e) {
+            log.warn("Failed to read {} documents from the cache", keys.size(), e);
+            cached = Map.of();
+        }
+        Map<UUID, DocumentResponse> found = new HashMap<>();
+        List<String> pending = new ArrayList<>();
+        List<UUID> misses = new ArrayList<>();
+        for (int i = 0; i < keys.size(); i++) {
+            UUID id = distinctIds.get(i);
+            if (cached.get(keys.get(i)) instanceof DocumentResponse response) {
+                found.put(id, response);
+                if (response.getStatus() != DocumentStatus.INDEXED) {
+                    pending.add(DocumentStatusCache.key(id, tenantId));
+                }
+            } else {
+                misses.add(id);
+            }
+        }
+        if (!pending.isEmpty()) {
+            Map<String, DocumentStatus> statuses = documentStatusCache.getAll(pending);
+            found.replaceAll((id, response) ->
+                    withStatus(response, statuses.get(DocumentStatusCache.key(id, tenantId))));
+        }
+
+        if (!misses.isEmpty()) {
+            List<DocumentResponse> loaded = withContent
+                    ? documentRepository.findAllByIdsAndTenantId(misses.toArray(UUID[]::new), tenantId).stream()
+                            .map(this::mapToResponse).toList()
+                    : documentRepository.findSummariesByIdsAndTenantId(misses, tenantId).stream()
+                            .map(this::mapToResponse).toList();
+            Map<String, DocumentResponse> entries = new HashMap<>();
+            for (DocumentResponse response : loaded) {
+                found.put(response.getId(), response);
+                entries.put(cacheKey(response.getId(), tenantId, withContent), response);
+            }
+            try {
+                CacheBatches.putAll(cache, entries);
+            } catch (Exception e) {
+                log.warn("Failed to cache {} documents", entries.size(), e);
+            }
+        }
+
+        List<DocumentResponse> documents = new ArrayList<>(found.size());
+        List<UUID> missing = new ArrayList<>();
+        for (UUID id : distinctIds) {
+            DocumentResponse response = found.get(id);
+            if (response != null) {
+                documents.add(DocumentFields.project(response, resolved));
+            } else {
+                missing.add(id);
+                documentExistenceFilter.markMissing(id, tenantId);
+            }
+        }
+        return MultiGetResponse.builder()
+                .documents(documents)
+                .missing(missing)
+                .build();
     }
 
     /**
      * Deletes a document by its ID for the specified tenant.
      *
      * This method marks the document as DELETED in the database and removes it
-     * from the Elasticsearch index. The cache entry is also evicted to ensure
-     * consistency.
+     * from the search index. The cache entries of both projections are also
+     * evicted once the transaction commits to ensure consistency. The deletion carries the document version after the status
+     * change, so that indexing events still in flight cannot bring it back.
      *
      * @param id the unique identifier of the document to delete
      * @param tenantId the tenant identifier for data isolation
      * @throws DocumentNotFoundException if the document does not exist or belongs to a different tenant
      */
     @Transactional
-    @CacheEvict(value = "documents", key = "#id + ':' + #tenantId")
     public void deleteDocument(UUID id, String tenantId) {
 
         Document document = documentRepository.findByIdAndTenantId(id, tenantId)
                 .orElseThrow(() -> new DocumentNotFoundException("Document not found"));
 
         document.setStatus(DocumentStatus.DELETED);
-        documentRepository.save(document);
+        // Flushed so that the deletion carries the incremented version
+        document = documentRepository.saveAndFlush(document);
         documentRepository.deleteByIdAndTenantId(id, tenantId);
+        documentsCache().evict(cacheKey(id, tenantId, true));
+        documentsCache().evict(cacheKey(id, tenantId, false));
+        documentStatusCache.evict(id, tenantId);
+        documentExistenceFilter.markMissing(id, tenantId);
 
         try {
-            documentIndexRepository.deleteById(id.toString());
+            searchBackend.delete(tenantId, id.toString(), document.getVersion());
+            indexGenerationService.bump(tenantId);
             log.info("Deleted document from index: {}", id);
         } catch (Exception e) {
             log.error("Failed to delete document from index", e);
         }
 
-        try {
-            rabbitTemplate.convertAndSend(
-                    RabbitMQConfig.DOCUMENT_EXCHANGE,
-                    "document.delete." + tenantId,
-                    id.toString()
-            );
-        } catch (Exception e) {
-            log.error("Failed to publish deletion task", e);
-        }
+        outboxService.enqueue(
+                RabbitMQConfig.DOCUMENT_EXCHANGE,
+                "document.delete." + tenantId,
+                DocumentEvent.deletion(document)
+        );
     }
 
     /**
-     * Indexes a document in Elasticsearch.
-     *
-     * This method is called asynchronously by the RabbitMQ listener to index
-     * documents in Elasticsearch after they are created. It retrieves the document
-     * from the database, converts it to an indexable format, and saves it to
-     * Elasticsearch. The document status is updated to INDEXED upon success.
+     * Called ONLY by RabbitMQ listener
      *
-     * @param documentId the unique identifier of the document to index
-     * @throws RuntimeException if the document is not found or indexing fails
+     * @param version version of the deleted document, null for messages sent before versioning
      */
     @Transactional
-    public void indexDocument(UUID documentId) {
-
-        Document document = documentRepository.findById(documentId)
-                .orElseThrow(() -> new RuntimeException("Document not found"));
-
+    public void deleteIndex(UUID documentId, String tenantId, Long version) {
         try {
-            DocumentIndex index = DocumentIndex.builder()
-                    .id(document.getId().toString())
-                    .tenantId(document.getTenantId())
-                    .title(document.getTitle())
-                    .content(document.getContent())
-                    .metadata(document.getMetadata())
-                    .createdAt(document.getCreatedAt() != null ? document.getCreatedAt().toString() : null)
-                    .updatedAt(document.getUpdatedAt() != null ? document.getUpdatedAt().toString() : null)
-                    .build();
-
-            documentIndexRepository.save(index);
-
-            document.setStatus(DocumentStatus.INDEXED);
-            documentRepository.save(document);
-
-            log.info("Successfully indexed document: {}", documentId);
-
+            if (!searchBackend.delete(tenantId, documentId.toString(), version)) {
+                log.debug("Skipped stale deletion of document: {}", documentId);
+                return;
+            }
+            indexGenerationService.bump(tenantId);
+            log.info("Deleted document from search index: {}", documentId);
         } catch (Exception e) {
-            document.setStatus(DocumentStatus.FAILED);
-            documentRepository.save(document);
-            log.error("Failed to index document: {}", documentId, e);
+            log.error("Failed to delete document from search index: {}", documentId, e);
             throw e;
         }
     }
 
     /**
-     * Called ONLY by RabbitMQ listener
+     * The {@code documents} cache, written only once the current transaction commits.
      */
-    @Transactional
-    public void deleteIndex(UUID documentId) {
-        try {
-            documentIndexRepository.deleteById(documentId.toString());
-            log.info("Deleted document from Elasticsearch index: {}", documentId);
-        } catch (Exception e) {
-            log.error("Failed to delete document from Elasticsearch index: {}", documentId, e);
-            throw e;
+    private Cache documentsCache() {
+        return new TransactionAwareCacheDecorator(cacheManager.getCache(DOCUMENTS_CACHE));
+    }
+
+    /**
+     * Key of a document in the {@code documents} cache. Documents read without their
+     * content are cached under a key of their own.
+     */
+    private String cacheKey(UUID id, String tenantId, boolean withContent) {
+        String key = DocumentStatusCache.key(id, tenantId);
+        return withContent ? key : key + SUMMARY_KEY_SUFFIX;
+    }
+
+    /**
+     * @return the cached document with the latest status recorded for it, if any
+     */
+    private DocumentResponse withStatus(DocumentResponse response, DocumentStatus status) {
+        if (status == null || status == response.getStatus()) {
+            return response;
         }
+        return response.toBuilder().status(status).build();
+    }
+
+    private DocumentResponse mapToResponse(DocumentSummary summary) {
+        return DocumentResponse.builder()
+                .id(summary.id())
+                .tenantId(summary.tenantId())
+                .title(summary.title())
+                .status(summary.status())
+                .metadata(summary.metadata())
+                .createdAt(summary.createdAt())
+                .updatedAt(summary.updatedAt())
+                .build();
     }
 
     private DocumentResponse mapToResponse(Document document) {
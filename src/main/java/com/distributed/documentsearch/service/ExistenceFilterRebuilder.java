@@ -0,0 +1,116 @@
+package com.distributed.documentsearch.service;
+
+import com.distributed.documentsearch.cache.DocumentExistenceFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Periodic rebuild of the per-tenant {@link DocumentExistenceFilter}s.
+ *
+ * Deleted documents cannot be removed from a Bloom filter, so the filters are
+ * rebuilt from the database once per interval by a single node, tenant by tenant.
+ * The IDs of a tenant are read with a keyset over (tenant_id, id) and added in
+ * batches to a new bitmap, which replaces the live one once complete. The first
+ * rebuild after startup also creates the filters of tenants that have none yet.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@Slf4j
+public class ExistenceFilterRebuilder {
+
+    private static final String TENANTS_SQL = "SELECT DISTINCT tenant_id FROM documents";
+
+    private static final String IDS_SQL =
+            "SELECT id FROM documents WHERE tenant_id = ? AND id > ? ORDER BY id LIMIT ?";
+
+    /** Keyset position before the first document, PostgreSQL ordering UUIDs as unsigned bytes */
+    private static final UUID KEYSET_START = new UUID(0L, 0L);
+
+    /** Filters being rebuilt */
+    private final DocumentExistenceFilter documentExistenceFilter;
+
+    /** JDBC template for reading tenants and document IDs */
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Delay between rebuilds, for which the rebuilding node is elected */
+    private final Duration rebuildInterval;
+
+    /** Document IDs read and added per round trip */
+    private final int batchSize;
+
+    public ExistenceFilterRebuilder(
+            DocumentExistenceFilter documentExistenceFilter,
+            JdbcTemplate jdbcTemplate,
+            @Value("${app.cache.existence-filter.rebuild-interval-ms:3600000}") long rebuildIntervalMs,
+            @Value("${app.cache.existence-filter.rebuild-batch-size:1000}") int batchSize) {
+        this.documentExistenceFilter = documentExistenceFilter;
+        this.jdbcTemplate = jdbcTemplate;
+        this.rebuildInterval = Duration.ofMillis(rebuildIntervalMs);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Rebuilds the filters of all tenants, unless another node does so in this interval.
+     */
+    @Scheduled(fixedDelayString = "${app.cache.existence-filter.rebuild-interval-ms:3600000}",
+            initialDelayString = "${app.cache.existence-filter.initial-rebuild-delay-ms:60000}")
+    public void rebuildAll() {
+        List<String> tenants;
+        try {
+            if (!documentExistenceFilter.claimRebuild(rebuildInterval)) {
+                log.debug("Existence filters are rebuilt by another node");
+                return;
+            }
+            tenants = jdbcTemplate.queryForList(TENANTS_SQL, String.class);
+        } catch (Exception e) {
+            log.error("Failed to start rebuilding the existence filters", e);
+            return;
+        }
+
+        for (String tenantId : tenants) {
+            try {
+                rebuild(tenantId);
+            } catch (Exception e) {
+                log.error("Failed to rebuild the existence filter of tenant: {}", tenantId, e);
+            }
+        }
+    }
+
+    /**
+     * @return the number of documents in the rebuilt filter
+     */
+    long rebuild(String tenantId) {
+        long start = System.currentTimeMillis();
+        documentExistenceFilter.beginRebuild(tenantId);
+
+        long added = 0;
+        UUID after = KEYSET_START;
+        List<UUID> ids;
+        do {
+            ids = jdbcTemplate.queryForList(IDS_SQL, UUID.class, tenantId, after, batchSize);
+            documentExistenceFilter.addRebuilt(tenantId, ids);
+            added += ids.size();
+            if (!ids.isEmpty()) {
+                after = ids.get(ids.size() - 1);
+            }
+        } while (ids.size() == batchSize);
+
+        if (documentExistenceFilter.publishRebuild(tenantId)) {
+            log.info("Rebuilt the existence filter of tenant {} with {} documents in {} ms",
+                    tenantId, added, System.currentTimeMillis() - start);
+        } else {
+            log.warn("Existence filter rebuild of tenant {} timed out and was dropped", tenantId);
+        }
+        return added;
+    }
+}
@@ -2,8 +2,8 @@ package com.distributed.documentsearch.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import com.distributed.documentsearch.search.SearchBackend;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
-import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
@@ -17,7 +17,7 @@ import java.util.Map;
 public class HealthService {
     
     private final JdbcTemplate jdbcTemplate;
-    private final ElasticsearchOperations elasticsearchOperations;
+    private final SearchBackend searchBackend;
     private final RedisTemplate<String, String> redisTemplate;
     private final RabbitTemplate rabbitTemplate;
     
@@ -33,14 +33,8 @@ public class HealthService {
             checks.put("postgresql", "DOWN");
         }
         
-        // Check Elasticsearch
-        try {
-            elasticsearchOperations.indexOps(com.distributed.documentsearch.model.DocumentIndex.class).exists();
-            checks.put("elasticsearch", "UP");
-        } catch (Exception e) {
-            log.error("Elasticsearch health check failed", e);
-            checks.put("elasticsearch", "DOWN");
-        }
+        // Check search backend
+        checks.put(searchBackend.name(), searchBackend.isAvailable() ? "UP" : "DOWN");
         
         // Check Redis
         try {
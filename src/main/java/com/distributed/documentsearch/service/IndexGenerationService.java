@@ -0,0 +1,155 @@
+package com.distributed.documentsearch.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Service maintaining a per-tenant index generation counter in Redis.
+ *
+ * The generation is incremented whenever documents of a tenant are added to or
+ * removed from the search index. Search cache keys include the current
+ * generation, so a change makes all cached searches of that tenant unreachable at
+ * once while leaving other tenants' entries untouched. Every node keeps the last
+ * read generation for a short refresh interval to avoid a Redis round trip on
+ * every search.
+ *
+ * The generation must only change once the change is searchable; otherwise a
+ * search running in between caches the old hits under the new generation. Writes
+ * that are visible on return bump it right away with {@link #bump(String)}. Writes
+ * that wait for the index's periodic refresh use {@link #bumpAfterRefresh(String)},
+ * which bumps {@code app.cache.generation-bump-delay} after the write; the writes
+ * of a tenant made in the meantime share that bump, so a tenant written
+ * continuously is bumped about once per delay.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+@Slf4j
+public class IndexGenerationService {
+
+    private static final String KEY_PREFIX = "index-generation:";
+
+    /** Redis template holding the generation counters */
+    private final RedisTemplate<String, String> redisTemplate;
+
+    /** Generations read recently by this node */
+    private final Cache<String, Long> generations;
+
+    /** Runs the delayed bumps */
+    private final TaskScheduler taskScheduler;
+
+    /** How long after a write its refresh has surely run */
+    private final Duration bumpDelay;
+
+    /** Current time in milliseconds */
+    private final LongSupplier clock;
+
+    /** Time of the last write awaiting a bump, by tenant with a bump scheduled */
+    private final Map<String, Long> pendingWrites = new ConcurrentHashMap<>();
+
+    @Autowired
+    public IndexGenerationService(
+            RedisTemplate<String, String> redisTemplate,
+            @Value("${app.cache.generation-refresh:1s}") Duration refreshInterval,
+            TaskScheduler taskScheduler,
+            @Value("${app.cache.generation-bump-delay:2s}") Duration bumpDelay) {
+        this(redisTemplate, refreshInterval, taskScheduler, bumpDelay, System::currentTimeMillis);
+    }
+
+    IndexGenerationService(RedisTemplate<String, String> redisTemplate, Duration refreshInterval,
+                           TaskScheduler taskScheduler, Duration bumpDelay, LongSupplier clock) {
+        this.redisTemplate = redisTemplate;
+        this.generations = Caffeine.newBuilder()
+                .expireAfterWrite(refreshInterval)
+                .maximumSize(100_000)
+                .build();
+        this.taskScheduler = taskScheduler;
+        this.bumpDelay = bumpDelay;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns the current index generation of the tenant, 0 if it never changed.
+     */
+    public long current(String tenantId) {
+        return generations.get(tenantId, this::load);
+    }
+
+    /**
+     * Marks the tenant's index as changed, once the change is searchable.
+     */
+    public void bump(String tenantId) {
+        try {
+            Long generation = redisTemplate.opsForValue().increment(KEY_PREFIX + tenantId);
+            if (generation != null) {
+                generations.put(tenantId, generation);
+            }
+        } catch (Exception e) {
+            log.error("Failed to bump index generation for tenant: {}", tenantId, e);
+        }
+    }
+
+    /**
+     * Marks the tenant's index as changed after the next periodic refresh, for
+     * writes that are not searchable on return.
+     */
+    public void bumpAfterRefresh(String tenantId) {
+        long now = clock.getAsLong();
+        boolean[] scheduled = {false};
+        pendingWrites.compute(tenantId, (id, last) -> {
+            scheduled[0] = last != null;
+            return now;
+        });
+        if (!scheduled[0]) {
+            schedule(tenantId, bumpDelay.toMillis());
+        }
+    }
+
+    /**
+     * Bumps the generation, and schedules another bump if the tenant was written
+     * since the writes this one covers.
+     */
+    private void bumpPending(String tenantId) {
+        long coveredUntil = clock.getAsLong() - bumpDelay.toMillis();
+        bump(tenantId);
+        Long next = pendingWrites.compute(tenantId, (id, last) ->
+                last == null || last <= coveredUntil ? null : last);
+        if (next != null) {
+            schedule(tenantId, next - coveredUntil);
+        }
+    }
+
+    private void schedule(String tenantId, long delayMillis) {
+        try {
+            taskScheduler.schedule(() -> bumpPending(tenantId), Instant.now().plusMillis(delayMillis));
+        } catch (Exception e) {
+            pendingWrites.remove(tenantId);
+            log.error("Failed to schedule index generation bump for tenant: {}", tenantId, e);
+            bump(tenantId);
+        }
+    }
+
+    private long load(String tenantId) {
+        try {
+            String value = redisTemplate.opsForValue().get(KEY_PREFIX + tenantId);
+            return value != null ? Long.parseLong(value) : 0L;
+        } catch (Exception e) {
+            log.error("Failed to read index generation for tenant: {}", tenantId, e);
+            return 0L;
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.distributed.documentsearch.service;
+
+import com.distributed.documentsearch.model.OutboxEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.AbstractJavaTypeMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes the transactional outbox to RabbitMQ.
+ *
+ * Every node polls the outbox and claims a batch of the oldest rows with
+ * {@code FOR UPDATE SKIP LOCKED}, so that relays on several nodes work on disjoint
+ * batches without waiting for each other. The batch is published in one go, the
+ * publisher confirms are awaited together, and only confirmed rows are deleted,
+ * in the same transaction that claimed them. Unconfirmed rows are released when
+ * the transaction ends and are published again by the next poll, which makes
+ * delivery at-least-once.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private static final String CLAIM_SQL =
+            "SELECT id, exchange, routing_key, payload_type, payload, created_at FROM outbox_events "
+                    + "ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String DELETE_SQL = "DELETE FROM outbox_events WHERE id = ?";
+
+    /** JDBC template for claiming and deleting outbox rows */
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Transaction template holding the row locks of one batch */
+    private final TransactionTemplate transactionTemplate;
+
+    /** RabbitMQ template with publisher confirms and returns enabled */
+    private final RabbitTemplate rabbitTemplate;
+
+    /** Maximum number of rows claimed and published at once */
+    private final int batchSize;
+
+    /** How long a batch waits for its publisher confirms */
+    private final Duration confirmTimeout;
+
+    public OutboxRelay(
+            JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            RabbitTemplate rabbitTemplate,
+            @Value("${app.outbox.batch-size:500}") int batchSize,
+            @Value("${app.outbox.confirm-timeout:5s}") Duration confirmTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.rabbitTemplate = rabbitTemplate;
+        this.batchSize = batchSize;
+        this.confirmTimeout = confirmTimeout;
+    }
+
+    /**
+     * Publishes batches until the outbox is drained or a batch is not fully confirmed.
+     */
+    @Scheduled(fixedDelayString = "${app.outbox.poll-interval-ms:100}")
+    public void relay() {
+        try {
+            Integer published;
+            do {
+                published = transactionTemplate.execute(status -> relayBatch());
+            } while (published != null && published == batchSize);
+        } catch (Exception e) {
+            log.error("Outbox relay failed", e);
+        }
+    }
+
+    /**
+     * Claims, publishes and deletes one batch.
+     *
+     * @return the number of published rows, or 0 if any row of the batch was not confirmed
+     */
+    int relayBatch() {
+        List<OutboxEvent> batch = jdbcTemplate.query(CLAIM_SQL, (rs, rowNum) -> OutboxEvent.builder()
+                .id(rs.getLong("id"))
+                .exchange(rs.getString("exchange"))
+                .routingKey(rs.getString("routing_key"))
+                .payloadType(rs.getString("payload_type"))
+                .payload(rs.getString("payload"))
+                .createdAt(rs.getTimestamp("created_at") != null
+                        ? rs.getTimestamp("created_at").toLocalDateTime() : null)
+                .build(), batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, CorrelationData> sent = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            CorrelationData correlation = new CorrelationData(String.valueOf(event.getId()));
+            rabbitTemplate.send(event.getExchange(), event.getRoutingKey(), toMessage(event), correlation);
+            sent.put(event.getId(), correlation);
+        }
+
+        List<Object[]> confirmed = new ArrayList<>(sent.size());
+        long deadline = System.nanoTime() + confirmTimeout.toNanos();
+        for (Map.Entry<Long, CorrelationData> entry : sent.entrySet()) {
+            if (isConfirmed(entry.getValue(), deadline)) {
+                confirmed.add(new Object[]{entry.getKey()});
+            }
+        }
+        jdbcTemplate.batchUpdate(DELETE_SQL, confirmed);
+
+        if (confirmed.size() < batch.size()) {
+            log.warn("Broker confirmed {} of {} outbox messages; the rest will be retried",
+                    confirmed.size(), batch.size());
+            return 0;
+        }
+        log.debug("Relayed {} outbox messages", batch.size());
+        return batch.size();
+    }
+
+    private boolean isConfirmed(CorrelationData correlation, long deadline) {
+        try {
+            CorrelationData.Confirm confirm = correlation.getFuture()
+                    .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            if (!confirm.isAck()) {
+                log.warn("Broker rejected outbox message {}: {}", correlation.getId(), confirm.getReason());
+                return false;
+            }
+            if (correlation.getReturned() != null) {
+                log.warn("Outbox message {} is not routable: {}",
+                        correlation.getId(), correlation.getReturned().getReplyText());
+                return false;
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("No confirm for outbox message {}", correlation.getId());
+            return false;
+        }
+    }
+
+    /**
+     * Builds the message the JSON message converter would have produced for the payload.
+     * The timestamp is the time the row was written, so that consumers can measure the
+     * end-to-end lag including the time spent in the outbox.
+     */
+    private Message toMessage(OutboxEvent event) {
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        properties.setContentEncoding(StandardCharsets.UTF_8.name());
+        properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        properties.setMessageId(String.valueOf(event.getId()));
+        if (event.getCreatedAt() != null) {
+            properties.setTimestamp(Timestamp.valueOf(event.getCreatedAt()));
+        }
+        properties.setHeader(AbstractJavaTypeMapper.DEFAULT_CLASSID_FIELD_NAME, event.getPayloadType());
+        return new Message(event.getPayload().getBytes(StandardCharsets.UTF_8), properties);
+    }
+}
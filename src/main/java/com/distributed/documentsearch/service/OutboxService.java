@@ -0,0 +1,56 @@
+package com.distributed.documentsearch.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Service writing messages to the transactional outbox.
+ *
+ * Messages are inserted through the caller's transaction instead of being sent to
+ * RabbitMQ directly, so that the request path does no broker I/O and a message
+ * exists exactly when the change it announces was committed. The
+ * {@link OutboxRelay} publishes them.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxService {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO outbox_events (exchange, routing_key, payload_type, payload, created_at) "
+                    + "VALUES (?, ?, ?, ?, ?)";
+
+    /** JDBC template joining the caller's transaction */
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Object mapper producing the same JSON as the RabbitMQ message converter */
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Enqueues a message. Must be called inside the transaction that makes the
+     * announced change.
+     *
+     * @param exchange the exchange to publish to
+     * @param routingKey the routing key of the message
+     * @param payload the message body, serialized as JSON
+     */
+    public void enqueue(String exchange, String routingKey, Object payload) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Outbox payload is not serializable", e);
+        }
+        jdbcTemplate.update(INSERT_SQL, exchange, routingKey, payload.getClass().getName(), json, LocalDateTime.now());
+    }
+}
@@ -0,0 +1,125 @@
+package com.distributed.documentsearch.service;
+
+import com.distributed.documentsearch.config.RabbitMQConfig;
+import com.distributed.documentsearch.listener.IndexingRetryRecoverer;
+import com.rabbitmq.client.GetResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageDeliveryMode;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.core.QueueInformation;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Service for inspecting and replaying the parking lot.
+ *
+ * Messages are taken from the parking-lot queue one at a time and republished to
+ * the document exchange under their original routing key, with their attempt
+ * count reset so that they run through the retry tiers again. A message is only
+ * acknowledged once the broker confirmed its copy; otherwise it stays parked and
+ * the replay stops.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+@Slf4j
+public class ParkingLotService {
+
+    /** Converts between broker and Spring AMQP message properties */
+    private static final MessagePropertiesConverter PROPERTIES_CONVERTER = new DefaultMessagePropertiesConverter();
+
+    /** RabbitMQ template with publisher confirms and returns enabled */
+    private final RabbitTemplate rabbitTemplate;
+
+    /** Reads the depth of the parking-lot queue */
+    private final RabbitAdmin rabbitAdmin;
+
+    /** How long a replayed message waits for its publisher confirm */
+    private final Duration confirmTimeout;
+
+    public ParkingLotService(
+            RabbitTemplate rabbitTemplate,
+            RabbitAdmin rabbitAdmin,
+            @Value("${app.indexing.retry.confirm-timeout:5s}") Duration confirmTimeout) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.rabbitAdmin = rabbitAdmin;
+        this.confirmTimeout = confirmTimeout;
+    }
+
+    /**
+     * Returns the number of parked messages.
+     */
+    public long count() {
+        QueueInformation info = rabbitAdmin.getQueueInfo(RabbitMQConfig.PARKING_LOT_QUEUE);
+        return info != null ? info.getMessageCount() : 0;
+    }
+
+    /**
+     * Republishes up to {@code limit} parked messages, oldest first.
+     *
+     * @return the number of replayed messages
+     */
+    public int replay(int limit) {
+        Integer replayed = rabbitTemplate.execute(channel -> {
+            int count = 0;
+            while (count < limit) {
+                GetResponse response = channel.basicGet(RabbitMQConfig.PARKING_LOT_QUEUE, false);
+                if (response == null) {
+                    break;
+                }
+                long deliveryTag = response.getEnvelope().getDeliveryTag();
+                if (!republish(response)) {
+                    channel.basicNack(deliveryTag, false, true);
+                    break;
+                }
+                channel.basicAck(deliveryTag, false);
+                count++;
+            }
+            return count;
+        });
+        log.info("Replayed {} parked messages", replayed);
+        return replayed != null ? replayed : 0;
+    }
+
+    private boolean republish(GetResponse response) {
+        MessageProperties properties = PROPERTIES_CONVERTER.toMessageProperties(
+                response.getProps(), response.getEnvelope(), StandardCharsets.UTF_8.name());
+        properties.getHeaders().remove(IndexingRetryRecoverer.ATTEMPT_HEADER);
+        properties.getHeaders().remove(IndexingRetryRecoverer.EXCEPTION_HEADER);
+        properties.setDeliveryMode(MessageDeliveryMode.PERSISTENT);
+        String routingKey = response.getEnvelope().getRoutingKey();
+
+        CorrelationData correlation = new CorrelationData();
+        rabbitTemplate.send(RabbitMQConfig.DOCUMENT_EXCHANGE, routingKey,
+                new Message(response.getBody(), properties), correlation);
+        try {
+            CorrelationData.Confirm confirm = correlation.getFuture()
+                    .get(confirmTimeout.toMillis(), TimeUnit.MILLISECONDS);
+            if (!confirm.isAck() || correlation.getReturned() != null) {
+                log.warn("Broker did not accept replayed message {}", routingKey);
+                return false;
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            log.warn("No confirm for replayed message {}", routingKey);
+            return false;
+        }
+    }
+}
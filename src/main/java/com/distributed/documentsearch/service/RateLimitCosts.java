@@ -0,0 +1,72 @@
+package com.distributed.documentsearch.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Units each API operation is charged against its tenant's rate limit.
+ *
+ * Searches are charged by the number of hits they request, so a search of a
+ * hundred hits costs as much as ten default-sized ones, and bulk ingestion and
+ * multi-gets are charged by item count.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+public class RateLimitCosts {
+
+    @Value("${app.rate-limit.costs.read:1}")
+    private long read = 1;
+
+    @Value("${app.rate-limit.costs.write:1}")
+    private long write = 1;
+
+    @Value("${app.rate-limit.costs.delete:1}")
+    private long delete = 1;
+
+    /** Charged per {@code searchHitsPerUnit} requested hits */
+    @Value("${app.rate-limit.costs.search:1}")
+    private long search = 1;
+
+    @Value("${app.rate-limit.costs.search-hits-per-unit:10}")
+    private int searchHitsPerUnit = 10;
+
+    @Value("${app.rate-limit.costs.bulk-item:1}")
+    private long bulkItem = 1;
+
+    public long read() {
+        return read;
+    }
+
+    public long write() {
+        return write;
+    }
+
+    public long delete() {
+        return delete;
+    }
+
+    /**
+     * @param documents the number of distinct documents requested
+     */
+    public long multiGet(int documents) {
+        return read * documents;
+    }
+
+    /**
+     * @param size the number of hits requested
+     */
+    public long search(int size) {
+        long units = (Math.max(size, 1) + searchHitsPerUnit - 1) / searchHitsPerUnit;
+        return search * units;
+    }
+
+    /**
+     * @param items the number of documents ingested
+     */
+    public long bulk(int items) {
+        return bulkItem * items;
+    }
+}
@@ -0,0 +1,23 @@
+package com.distributed.documentsearch.service;
+
+import java.time.Duration;
+
+/**
+ * Outcome of charging a request against its tenant's rate limit.
+ *
+ * @param allowed whether the request may proceed
+ * @param limit units the tenant may spend per window
+ * @param remaining units the tenant may still spend right away, approximately,
+ *                  as seen by this node; -1 when unknown
+ * @param retryAfter how long a denied request should wait, zero when allowed
+ */
+public record RateLimitDecision(boolean allowed, long limit, long remaining, Duration retryAfter) {
+
+    static RateLimitDecision allowed(long limit, long remaining) {
+        return new RateLimitDecision(true, limit, remaining, Duration.ZERO);
+    }
+
+    static RateLimitDecision denied(long limit, long remaining, Duration retryAfter) {
+        return new RateLimitDecision(false, limit, remaining, retryAfter);
+    }
+}
@@ -1,54 +1,326 @@
 package com.distributed.documentsearch.service;
 
-import lombok.RequiredArgsConstructor;
+import com.distributed.documentsearch.exception.RequestCostExceedsLimitException;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
 
+/**
+ * Per-tenant request rate limiting, shared approximately across all nodes.
+ *
+ * Every tenant may spend {@code requests-per-minute} units per window of
+ * {@code window-size-seconds}, refilled continuously rather than reset at window
+ * boundaries. The budget is kept in Redis with the generic cell rate algorithm
+ * (GCRA): a single key per tenant holds the theoretical arrival time of the next
+ * unit, and a Lua script checks and advances it in one round trip, so there is
+ * no burst of twice the limit around a window boundary and no counter left
+ * without expiry.
+ *
+ * Instead of charging each request to Redis, a node leases batches of units from
+ * the budget into a local token bucket per tenant and admits requests from the
+ * bucket with a compare-and-set, without any I/O. When a bucket runs low the next
+ * lease is fetched in the background, so a request only waits for Redis when its
+ * tenant's bucket is empty. Once Redis reports the budget used up, the node denies
+ * the tenant's requests locally for as long as Redis said to wait.
+ *
+ * Nodes never hold more units than Redis granted, so the limit is never exceeded;
+ * leased units a node does not use within a window are dropped, so a tenant spread
+ * over many nodes may be admitted slightly less than its limit. A lease is only
+ * granted if it covers the request waiting for it, so a large request does not
+ * drain the budget into one node while it waits. A request costing more than the
+ * whole limit could never be admitted and is rejected outright.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class RateLimitService {
-    
+
+    private static final String KEY_PREFIX = "ratelimit:";
+
+    /**
+     * Grants up to ARGV[1] units of the budget ARGV[2] per ARGV[3] ms tracked in
+     * KEYS[1], or none if fewer than ARGV[4] are available. Returns the units
+     * granted, the units still available and, if none were granted, the
+     * milliseconds until ARGV[4] units are available.
+     */
+    @SuppressWarnings("rawtypes")
+    private static final DefaultRedisScript<List> LEASE_SCRIPT = new DefaultRedisScript<>(
+            "local time = redis.call('time') "
+                    + "local now = time[1] * 1000 + time[2] / 1000 "
+                    + "local period = tonumber(ARGV[3]) "
+                    + "local interval = period / tonumber(ARGV[2]) "
+                    + "local tat = math.max(tonumber(redis.call('get', KEYS[1]) or '0'), now) "
+                    + "local granted = math.min(tonumber(ARGV[1]), math.floor((now + period - tat) / interval + 1e-9)) "
+                    + "if granted < tonumber(ARGV[4]) then granted = 0 end "
+                    + "if granted > 0 then "
+                    + "  tat = tat + granted * interval "
+                    + "  redis.call('set', KEYS[1], tostring(tat), 'PX', math.max(1, math.ceil(tat - now))) "
+                    + "else granted = 0 end "
+                    + "local remaining = math.floor((now + period - tat) / interval + 1e-9) "
+                    + "local missing = tonumber(ARGV[4]) - granted "
+                    + "local retry = 0 "
+                    + "if missing > 0 then retry = math.max(1, math.ceil(tat + missing * interval - period - now)) end "
+                    + "return {granted, remaining, retry}",
+            List.class);
+
     private final RedisTemplate<String, String> redisTemplate;
-    
-    @Value("${app.rate-limit.enabled:true}")
-    private boolean rateLimitEnabled;
-    
-    @Value("${app.rate-limit.requests-per-minute:100}")
-    private int requestsPerMinute;
-    
-    @Value("${app.rate-limit.window-size-seconds:60}")
-    private int windowSizeSeconds;
-    
-    public boolean isAllowed(String tenantId) {
+
+    private final boolean rateLimitEnabled;
+
+    /** Units a tenant may spend per window */
+    private final int requestsPerMinute;
+
+    private final int windowSizeSeconds;
+
+    /** Units leased from Redis at once */
+    private final int leaseSize;
+
+    /** Fetches leases in the background */
+    private final Executor leaseExecutor;
+
+    /** Current time in milliseconds */
+    private final LongSupplier clock;
+
+    /** Local token bucket of every tenant seen by this node */
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public RateLimitService(
+            RedisTemplate<String, String> redisTemplate,
+            @Value("${app.rate-limit.enabled:true}") boolean rateLimitEnabled,
+            @Value("${app.rate-limit.requests-per-minute:100}") int requestsPerMinute,
+            @Value("${app.rate-limit.window-size-seconds:60}") int windowSizeSeconds,
+            @Value("${app.rate-limit.lease-size:10}") int leaseSize) {
+        this(redisTemplate, rateLimitEnabled, requestsPerMinute, windowSizeSeconds, leaseSize,
+                Executors.newSingleThreadExecutor(r -> {
+                    Thread thread = new Thread(r, "rate-limit-lease");
+                    thread.setDaemon(true);
+                    return thread;
+                }),
+                System::currentTimeMillis);
+    }
+
+    RateLimitService(RedisTemplate<String, String> redisTemplate, boolean rateLimitEnabled, int requestsPerMinute,
+                     int windowSizeSeconds, int leaseSize, Executor leaseExecutor, LongSupplier clock) {
+        this.redisTemplate = redisTemplate;
+        this.rateLimitEnabled = rateLimitEnabled;
+        this.requestsPerMinute = requestsPerMinute;
+        this.windowSizeSeconds = windowSizeSeconds;
+        this.leaseSize = Math.max(1, leaseSize);
+        this.leaseExecutor = leaseExecutor;
+        this.clock = clock;
+    }
+
+    /**
+     * Charges the given number of units against the tenant's limit, e.g. the item
+     * count of a bulk request.
+     */
+    public boolean isAllowed(String tenantId, long cost) {
+        return acquire(tenantId, cost).allowed();
+    }
+
+    /**
+     * Charges the given number of units against the tenant's limit.
+     *
+     * @param cost the units the request costs, see {@link RateLimitCosts}
+     * @return whether the request may proceed, with the quota left
+     * @throws RequestCostExceedsLimitException if the request costs more than the tenant may spend per window
+     */
+    public RateLimitDecision acquire(String tenantId, long cost) {
         if (!rateLimitEnabled) {
-            return true;
+            return RateLimitDecision.allowed(requestsPerMinute, -1);
         }
-        
-        String key = "ratelimit:" + tenantId + ":" + (System.currentTimeMillis() / (windowSizeSeconds * 1000));
-        
-        try {
-            Long count = redisTemplate.opsForValue().increment(key);
-            
-            if (count == 1) {
-                redisTemplate.expire(key, Duration.ofSeconds(windowSizeSeconds));
+        if (cost > requestsPerMinute) {
+            throw new RequestCostExceedsLimitException("Request costs " + cost
+                    + " rate limit units, more than the limit of " + requestsPerMinute);
+        }
+
+        long now = clock.getAsLong();
+        Bucket bucket = buckets.computeIfAbsent(tenantId, id -> new Bucket());
+
+        long left = bucket.tryAcquire(now, cost);
+        if (left < 0) {
+            long wait = bucket.deniedUntil - now;
+            if (wait > 0) {
+                log.warn("Rate limit exceeded for tenant: {}", tenantId);
+                return RateLimitDecision.denied(requestsPerMinute, bucket.available(now) + bucket.unleased,
+                        Duration.ofMillis(wait));
             }
-            
-            boolean allowed = count <= requestsPerMinute;
-            
-            if (!allowed) {
+            // Bucket short: wait for a lease covering at least this request
+            long missing = cost - bucket.available(now);
+            try {
+                wait = lease(tenantId, bucket, now, Math.max(missing, leaseSize), missing);
+            } catch (Exception e) {
+                log.error("Error checking rate limit for tenant: {}", tenantId, e);
+                // Fail open - allow request if Redis is down
+                return RateLimitDecision.allowed(requestsPerMinute, -1);
+            }
+            left = bucket.tryAcquire(now, cost);
+            if (left < 0) {
                 log.warn("Rate limit exceeded for tenant: {}", tenantId);
+                return RateLimitDecision.denied(requestsPerMinute, bucket.available(now) + bucket.unleased,
+                        Duration.ofMillis(Math.max(wait, 1)));
             }
-            
-            return allowed;
-        } catch (Exception e) {
-            log.error("Error checking rate limit for tenant: {}", tenantId, e);
-            // Fail open - allow request if Redis is down
-            return true;
+        }
+
+        if (left < leaseSize / 2) {
+            prefetch(tenantId, bucket, now);
+        }
+        return RateLimitDecision.allowed(requestsPerMinute, left + bucket.unleased);
+    }
+
+    /**
+     * Gives back the units of an admitted request whose work was not done, e.g. a
+     * bulk chunk that failed to persist. They return to this node's bucket, so they
+     * are lost if they expire before the tenant spends them. Decisions made without
+     * charging, because rate limiting is disabled or Redis was unavailable, return
+     * nothing.
+     *
+     * @param decision the decision that admitted the request
+     * @param cost the units the request was charged
+     */
+    public void release(String tenantId, RateLimitDecision decision, long cost) {
+        Bucket bucket = buckets.get(tenantId);
+        if (!decision.allowed() || decision.remaining() < 0 || bucket == null) {
+            return;
+        }
+        bucket.release(clock.getAsLong(), cost);
+    }
+
+    @PreDestroy
+    void close() {
+        if (leaseExecutor instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Leases the next batch in the background, unless one is in flight already.
+     */
+    private void prefetch(String tenantId, Bucket bucket, long now) {
+        if (bucket.deniedUntil > now || !bucket.leasing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            leaseExecutor.execute(() -> {
+                try {
+                    lease(tenantId, bucket, clock.getAsLong(), leaseSize, 1);
+                } catch (Exception e) {
+                    log.warn("Failed to lease rate limit units for tenant: {}", tenantId, e);
+                } finally {
+                    bucket.leasing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            bucket.leasing.set(false);
+        }
+    }
+
+    /**
+     * Takes up to {@code units} from the tenant's budget in Redis into the bucket,
+     * or nothing if fewer than {@code needed} are available.
+     *
+     * @param needed units without which the caller cannot proceed
+     * @return milliseconds until the units needed but not granted are available
+     */
+    private long lease(String tenantId, Bucket bucket, long now, long units, long needed) {
+        List<?> result = redisTemplate.execute(LEASE_SCRIPT, List.of(KEY_PREFIX + tenantId),
+                String.valueOf(units), String.valueOf(requestsPerMinute),
+                String.valueOf(windowSizeSeconds * 1000L), String.valueOf(needed));
+        if (result == null || result.size() < 3) {
+            throw new IllegalStateException("Unexpected rate limit script result: " + result);
+        }
+        long granted = ((Number) result.get(0)).longValue();
+        long retryAfter = ((Number) result.get(2)).longValue();
+
+        if (granted > 0) {
+            bucket.add(now, granted, now + windowSizeSeconds * 1000L);
+        }
+        bucket.unleased = ((Number) result.get(1)).longValue();
+        if (retryAfter > 0) {
+            bucket.deniedUntil = now + retryAfter;
+        }
+        return retryAfter;
+    }
+
+    /**
+     * Units a node holds for one tenant.
+     */
+    private static final class Bucket {
+
+        private final AtomicReference<State> state = new AtomicReference<>(new State(0, 0));
+
+        /** Whether a background lease is in flight */
+        private final AtomicBoolean leasing = new AtomicBoolean();
+
+        /** Until when Redis reported the budget used up */
+        private volatile long deniedUntil;
+
+        /** Units left in Redis as of the last lease */
+        private volatile long unleased;
+
+        /**
+         * Takes units if the bucket holds enough.
+         *
+         * @return the units left, or -1 if the bucket is short and nothing was taken
+         */
+        long tryAcquire(long now, long cost) {
+            while (true) {
+                State current = state.get();
+                long units = current.available(now);
+                if (units < cost) {
+                    return -1;
+                }
+                if (state.compareAndSet(current, new State(units - cost, current.expiresAt()))) {
+                    return units - cost;
+                }
+            }
+        }
+
+        long available(long now) {
+            return state.get().available(now);
+        }
+
+        /**
+         * Returns units taken from the bucket, unless they have expired meanwhile.
+         */
+        void release(long now, long units) {
+            state.updateAndGet(current -> current.expiresAt() > now
+                    ? new State(current.units() + units, current.expiresAt())
+                    : current);
+        }
+
+        /**
+         * Adds leased units, all of which expire at the given time.
+         */
+        void add(long now, long units, long expiresAt) {
+            state.updateAndGet(current -> new State(current.available(now) + units, expiresAt));
+        }
+    }
+
+    private record State(long units, long expiresAt) {
+
+        long available(long now) {
+            return expiresAt > now ? units : 0;
         }
     }
 }
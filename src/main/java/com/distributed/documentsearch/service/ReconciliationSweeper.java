@@ -0,0 +1,280 @@
+package com.distributed.documentsearch.service;
+
+import com.distributed.documentsearch.cache.DocumentStatusCache;
+import com.distributed.documentsearch.config.RabbitMQConfig;
+import com.distributed.documentsearch.model.Document;
+import com.distributed.documentsearch.model.DocumentStatus;
+import com.distributed.documentsearch.repository.DocumentRepository;
+import com.distributed.documentsearch.search.IndexDigest;
+import com.distributed.documentsearch.search.SearchBackend;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Background reconciliation between PostgreSQL and the search index.
+ *
+ * A document stays INDEXING or FAILED for good if its indexing message was never
+ * published or ended up in the parking lot. The sweeper walks the documents in
+ * either status that have not changed for {@code app.reconciliation.stale-after},
+ * page by page with a keyset over (status, updated_at, id), and republishes them
+ * for bulk indexing through the outbox. Each page is claimed with SKIP LOCKED and
+ * touched in the same transaction, so that concurrent sweepers split the work and
+ * a republished document is only picked up again once it is stale anew. Republishing
+ * is throttled by the {@code reconciliation} rate limiter so that a large backlog
+ * does not flood the indexers.
+ *
+ * The drift check compares, per tenant, the count and version sum of the INDEXED
+ * documents with the same digest read from the search backend. Indexing in flight
+ * makes both sides differ briefly, so a tenant is only reported once it differs in
+ * two consecutive checks. {@code reconciliation.drift} gauges the count difference
+ * summed over all tenants and {@code reconciliation.drifting-tenants} the number of
+ * tenants reported; the tenants themselves are named in the log rather than in
+ * meter tags, which would add a meter per tenant for good.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Component
+@Slf4j
+public class ReconciliationSweeper {
+
+    /** Statuses a document can get stuck in */
+    private static final List<DocumentStatus> SWEPT_STATUSES = List.of(DocumentStatus.INDEXING, DocumentStatus.FAILED);
+
+    /** Keyset position before the first document */
+    private static final LocalDateTime KEYSET_START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private static final String TOUCH_SQL =
+            "UPDATE documents SET status = ?, updated_at = now() WHERE id = ? AND version = ?";
+
+    private static final String DIGEST_SQL =
+            "SELECT tenant_id, count(*) AS documents, coalesce(sum(version), 0) AS version_sum "
+                    + "FROM documents WHERE status = ? GROUP BY tenant_id";
+
+    /** Repository for the keyset walk over stale documents */
+    private final DocumentRepository documentRepository;
+
+    /** Search backend compared against PostgreSQL by the drift check */
+    private final SearchBackend searchBackend;
+
+    /** Transactional outbox for republished indexing messages */
+    private final OutboxService outboxService;
+
+    /** Builds self-contained indexing events */
+    private final DocumentEventFactory documentEventFactory;
+
+    /** JDBC template for touching republished rows and reading digests */
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Current status of cached documents */
+    private final DocumentStatusCache documentStatusCache;
+
+    /** Transaction template holding the row locks of one page */
+    private final TransactionTemplate transactionTemplate;
+
+    /** Throttles republished documents */
+    private final RateLimiter rateLimiter;
+
+    /** How long a document may stay INDEXING or FAILED before it is republished */
+    private final Duration staleAfter;
+
+    /** Documents claimed and republished per transaction */
+    private final int batchSize;
+
+    /** Tenants that differed in the previous drift check */
+    private Set<String> drifting = Set.of();
+
+    /** Count difference summed over all tenants, as of the last drift check */
+    private final AtomicLong drift = new AtomicLong();
+
+    /** Tenants reported by the last drift check */
+    private final AtomicLong driftingTenants = new AtomicLong();
+
+    public ReconciliationSweeper(
+            DocumentRepository documentRepository,
+            SearchBackend searchBackend,
+            OutboxService outboxService,
+            DocumentEventFactory documentEventFactory,
+            JdbcTemplate jdbcTemplate,
+            DocumentStatusCache documentStatusCache,
+            TransactionTemplate transactionTemplate,
+            RateLimiterRegistry rateLimiterRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${app.reconciliation.stale-after:10m}") Duration staleAfter,
+            @Value("${app.reconciliation.batch-size:100}") int batchSize) {
+        this.documentRepository = documentRepository;
+        this.searchBackend = searchBackend;
+        this.outboxService = outboxService;
+        this.documentEventFactory = documentEventFactory;
+        this.jdbcTemplate = jdbcTemplate;
+        this.documentStatusCache = documentStatusCache;
+        this.transactionTemplate = transactionTemplate;
+        this.rateLimiter = rateLimiterRegistry.rateLimiter("reconciliation");
+        this.staleAfter = staleAfter;
+        this.batchSize = batchSize;
+
+        Gauge.builder("reconciliation.drift", drift, AtomicLong::get)
+                .description("Documents missing from or extra in the search index")
+                .register(meterRegistry);
+        Gauge.builder("reconciliation.drifting-tenants", driftingTenants, AtomicLong::get)
+                .description("Tenants whose search index differed from the database in two consecutive checks")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Republishes the documents stuck in INDEXING or FAILED.
+     */
+    @Scheduled(fixedDelayString = "${app.reconciliation.sweep-interval-ms:300000}",
+            initialDelayString = "${app.reconciliation.sweep-interval-ms:300000}")
+    public void sweep() {
+        LocalDateTime staleBefore = LocalDateTime.now().minus(staleAfter);
+        for (DocumentStatus status : SWEPT_STATUSES) {
+            try {
+                int republished = sweep(status, staleBefore);
+                if (republished > 0) {
+                    log.info("Republished {} {} documents for indexing", republished, status);
+                }
+            } catch (Exception e) {
+                log.error("Reconciliation sweep of {} documents failed", status, e);
+            }
+        }
+    }
+
+    /**
+     * Walks the stale documents of one status page by page.
+     *
+     * @return the number of republished documents
+     */
+    int sweep(DocumentStatus status, LocalDateTime staleBefore) {
+        LocalDateTime afterUpdatedAt = KEYSET_START;
+        UUID afterId = new UUID(0, 0);
+        int republished = 0;
+        while (true) {
+            if (!rateLimiter.acquirePermission(batchSize)) {
+                log.warn("Reconciliation sweep throttled; continuing with the next sweep");
+                return republished;
+            }
+            SweptPage page = republishPage(status, staleBefore, afterUpdatedAt, afterId);
+            republished += page.republished();
+            if (page.last() == null) {
+                return republished;
+            }
+            afterUpdatedAt = page.last().getUpdatedAt();
+            afterId = page.last().getId();
+            if (!page.hasNext()) {
+                return republished;
+            }
+        }
+    }
+
+    private SweptPage republishPage(DocumentStatus status, LocalDateTime staleBefore,
+                               LocalDateTime afterUpdatedAt, UUID afterId) {
+        return transactionTemplate.execute(tx -> {
+            Slice<Document> slice = documentRepository.findStale(
+                    status, staleBefore, afterUpdatedAt, afterId, PageRequest.ofSize(batchSize));
+            List<Document> documents = slice.getContent();
+            if (documents.isEmpty()) {
+                return new SweptPage(0, null, false);
+            }
+
+            List<Object[]> batchArgs = new ArrayList<>(documents.size());
+            for (Document document : documents) {
+                batchArgs.add(new Object[]{DocumentStatus.INDEXING.name(), document.getId(), document.getVersion()});
+            }
+            int[] updated = jdbcTemplate.batchUpdate(TOUCH_SQL, batchArgs);
+
+            Map<String, DocumentStatus> statuses = new HashMap<>();
+            for (int i = 0; i < documents.size(); i++) {
+                // Rows changed since they were read are being indexed already
+                if (updated[i] == 0) {
+                    continue;
+                }
+                Document document = documents.get(i);
+                outboxService.enqueue(RabbitMQConfig.DOCUMENT_EXCHANGE,
+                        "document.bulk." + document.getTenantId(), documentEventFactory.create(document));
+                statuses.put(DocumentStatusCache.key(document.getId(), document.getTenantId()), DocumentStatus.INDEXING);
+            }
+            documentStatusCache.putAll(statuses);
+            return new SweptPage(statuses.size(), documents.get(documents.size() - 1), slice.hasNext());
+        });
+    }
+
+    /**
+     * Compares the INDEXED documents of every tenant with the search index.
+     */
+    @Scheduled(fixedDelayString = "${app.reconciliation.drift-check-interval-ms:3600000}",
+            initialDelayString = "${app.reconciliation.drift-check-interval-ms:3600000}")
+    public void checkDrift() {
+        try {
+            Map<String, IndexDigest> stored = new HashMap<>();
+            jdbcTemplate.query(DIGEST_SQL, rs -> {
+                stored.put(rs.getString("tenant_id"),
+                        new IndexDigest(rs.getLong("documents"), rs.getLong("version_sum")));
+            }, DocumentStatus.INDEXED.name());
+            checkDrift(stored);
+        } catch (Exception e) {
+            log.error("Drift check failed", e);
+        }
+    }
+
+    /**
+     * @return the tenants whose index differs from the database
+     */
+    Set<String> checkDrift(Map<String, IndexDigest> stored) {
+        Set<String> differing = new HashSet<>();
+        long[] difference = {0};
+        long[] reported = {0};
+        stored.forEach((tenantId, expected) -> {
+            IndexDigest indexed;
+            try {
+                indexed = searchBackend.digest(tenantId);
+            } catch (Exception e) {
+                log.error("Failed to read the index digest of tenant: {}", tenantId, e);
+                return;
+            }
+            difference[0] += Math.abs(expected.count() - indexed.count());
+
+            if (!expected.equals(indexed)) {
+                differing.add(tenantId);
+                if (drifting.contains(tenantId)) {
+                    reported[0]++;
+                    log.warn("Search index of tenant {} drifted from the database: {} documents with version sum {} "
+                                    + "indexed, {} with version sum {} stored; rebuild with POST /api/v1/admin/reindex",
+                            tenantId, indexed.count(), indexed.versionSum(), expected.count(), expected.versionSum());
+                }
+            }
+        });
+        drifting = differing;
+        drift.set(difference[0]);
+        driftingTenants.set(reported[0]);
+        return differing;
+    }
+
+    /**
+     * @param last the last document of the page, null if the page was empty
+     */
+    private record SweptPage(int republished, Document last, boolean hasNext) {
+    }
+}
@@ -0,0 +1,147 @@
+package com.distributed.documentsearch.service;
+
+import com.distributed.documentsearch.model.TenantPlacement;
+import com.distributed.documentsearch.model.TenantPlacementStatus;
+import com.distributed.documentsearch.repository.TenantPlacementRepository;
+import com.distributed.documentsearch.search.TenantRouting;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Service resolving which index, alias and routing value serve a tenant.
+ *
+ * Tenants share one index by default and are routed by tenant ID, so that a
+ * tenant's search touches a single shard instead of fanning out to all of them.
+ * Large tenants are promoted to a dedicated index behind a per-tenant filtered
+ * alias; the promotions are recorded in the tenant placement table. The resolved
+ * routing is kept on every node for a refresh interval, which bounds how long a
+ * node may act on an outdated placement.
+ *
+ * @author Distributed Document Search Team
+ * @version 1.0
+ * @since 1.0
+ */
+@Service
+@Slf4j
+public class TenantPlacementService {
+
+    private static final String DEDICATED_PREFIX = "documents_tenant_";
+    private static final int MAX_SLUG_LENGTH = 100;
+
+    /** Repository of promoted tenants */
+    private final TenantPlacementRepository placementRepository;
+
+    /** Alias of the shared index holding every tenant that was not promoted */
+    private final String sharedIndex;
+
+    /** How long a node reuses a resolved placement */
+    private final Duration refreshInterval;
+
+    /** Placements resolved recently by this node */
+    private final Cache<String, TenantRouting> routings;
+
+    public TenantPlacementService(
+            TenantPlacementRepository placementRepository,
+            @Value("${app.elasticsearch.index-name:documents}") String sharedIndex,
+            @Value("${app.search.placement-refresh:30s}") Duration refreshInterval) {
+        this.placementRepository = placementRepository;
+        this.sharedIndex = sharedIndex;
+        this.refreshInterval = refreshInterval;
+        this.routings = Caffeine.newBuilder()
+                .expireAfterWrite(refreshInterval)
+                .maximumSize(100_000)
+                .build();
+    }
+
+    /**
+     * Returns where the tenant's documents are searched and written.
+     */
+    public TenantRouting resolve(String tenantId) {
+        return routings.get(tenantId, this::load);
+    }
+
+    /**
+     * Returns the tenant's placement, empty if it lives in the shared index.
+     */
+    public Optional<TenantPlacement> find(String tenantId) {
+        return placementRepository.findById(tenantId);
+    }
+
+    /**
+     * Returns the tenants served from their dedicated index.
+     */
+    public Set<String> dedicatedTenants() {
+        return placementRepository.findAll().stream()
+                .filter(placement -> placement.getStatus() == TenantPlacementStatus.DEDICATED)
+                .map(TenantPlacement::getTenantId)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Records a placement change. Other nodes pick it up within the refresh interval.
+     */
+    public TenantPlacement place(String tenantId, TenantPlacementStatus status) {
+        TenantPlacement placement = placementRepository.findById(tenantId)
+                .orElseGet(() -> TenantPlacement.builder()
+                        .tenantId(tenantId)
+                        .indexName(dedicatedIndexFor(tenantId))
+                        .aliasName(aliasFor(tenantId))
+                        .build());
+        placement.setStatus(status);
+        placement = placementRepository.save(placement);
+        routings.invalidate(tenantId);
+        log.info("Tenant {} placement is now {}", tenantId, status);
+        return placement;
+    }
+
+    public String getSharedIndex() {
+        return sharedIndex;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    /**
+     * Name of the filtered alias through which a promoted tenant is served.
+     */
+    public static String aliasFor(String tenantId) {
+        return DEDICATED_PREFIX + slug(tenantId);
+    }
+
+    /**
+     * Name of the physical index a promoted tenant's documents are moved to.
+     */
+    public static String dedicatedIndexFor(String tenantId) {
+        return aliasFor(tenantId) + "_v1";
+    }
+
+    private TenantRouting load(String tenantId) {
+        return placementRepository.findById(tenantId)
+                .map(placement -> placement.getStatus() == TenantPlacementStatus.DEDICATED
+                        ? TenantRouting.dedicated(placement.getAliasName())
+                        : TenantRouting.migrating(sharedIndex, tenantId, placement.getIndexName()))
+                .orElseGet(() -> TenantRouting.shared(sharedIndex, tenantId));
+    }
+
+    /**
+     * Index names must be lowercase and may not contain most punctuation. The hash
+     * keeps tenants apart whose IDs only differ in case or in replaced characters.
+     */
+    private static String slug(String tenantId) {
+        String slug = tenantId.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9_-]", "_");
+        if (slug.length() > MAX_SLUG_LENGTH) {
+            slug = slug.substring(0, MAX_SLUG_LENGTH);
+        }
+        return slug + "_" + Integer.toHexString(tenantId.hashCode());
+    }
+}
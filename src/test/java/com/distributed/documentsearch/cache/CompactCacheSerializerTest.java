@@ -0,0 +1,82 @@
+package com.distributed.documentsearch.cache;
+
+import com.distributed.documentsearch.dto.DocumentResponse;
+import com.distributed.documentsearch.model.DocumentStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CompactCacheSerializerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private CompactCacheSerializer serializer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        serializer = new CompactCacheSerializer("documents", DocumentResponse.class, 512, meterRegistry);
+    }
+
+    @Test
+    void serialize_roundTripsSmallValues_uncompressed() {
+        DocumentResponse document = document("Short content");
+
+        byte[] bytes = serializer.serialize(document);
+
+        assertThat(bytes[0]).isEqualTo(CompactCacheSerializer.FORMAT_VERSION);
+        assertThat(bytes[1]).isZero();
+        assertThat(new String(bytes)).doesNotContain(DocumentResponse.class.getName());
+        assertThat(serializer.deserialize(bytes)).isEqualTo(document);
+    }
+
+    @Test
+    void serialize_compressesLargeValues_andCountsSavedBytes() {
+        DocumentResponse document = document("All work and no play makes Jack a dull boy. ".repeat(100));
+
+        byte[] bytes = serializer.serialize(document);
+
+        assertThat(bytes[1]).isEqualTo(CompactCacheSerializer.COMPRESSED);
+        assertThat(bytes.length).isLessThan(document.getContent().length() / 4);
+        assertThat(serializer.deserialize(bytes)).isEqualTo(document);
+        assertThat(meterRegistry.get("cache.codec.bytes.saved").tag("cache", "documents").counter().count())
+                .isGreaterThan(0);
+        assertThat(meterRegistry.get("cache.codec.decode").tag("cache", "documents").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void deserialize_readsLegacyJsonEntries() {
+        DocumentResponse document = document("Written before the compact codec");
+
+        byte[] legacy = CompactCacheSerializer.legacySerializer().serialize(document);
+
+        assertThat(serializer.deserialize(legacy)).isEqualTo(document);
+    }
+
+    @Test
+    void deserialize_treatsUnknownVersionAsMiss() {
+        byte[] bytes = serializer.serialize(document("From a newer node"));
+        bytes[0] = CompactCacheSerializer.FORMAT_VERSION + 1;
+
+        assertThat(serializer.deserialize(bytes)).isNull();
+    }
+
+    private DocumentResponse document(String content) {
+        return DocumentResponse.builder()
+                .id(UUID.randomUUID())
+                .tenantId("tenant-1")
+                .title("Title")
+                .content(content)
+                .status(DocumentStatus.INDEXED)
+                .metadata(Map.of("author", "Jane", "pages", 12))
+                .createdAt(LocalDateTime.of(2024, 1, 2, 3, 4, 5))
+                .updatedAt(LocalDateTime.of(2024, 1, 2, 3, 4, 6))
+                .build();
+    }
+}
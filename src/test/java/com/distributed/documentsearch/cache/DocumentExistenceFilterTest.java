@@ -0,0 +1,100 @@
+package com.distributed.documentsearch.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class DocumentExistenceFilterTest {
+
+    private RedisTemplate<String, String> redisTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private DocumentExistenceFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        filter = new DocumentExistenceFilter(redisTemplate, 1024, 3, Duration.ofMinutes(10),
+                Duration.ofSeconds(30), 100, meterRegistry);
+    }
+
+    @Test
+    void positions_areStableAndWithinFilter() {
+        UUID id = UUID.randomUUID();
+
+        Object[] positions = filter.positions(List.of(id));
+
+        assertThat(positions).hasSize(3).isEqualTo(filter.positions(List.of(id)));
+        assertThat(Arrays.stream(positions).mapToLong(position -> Long.parseLong((String) position)))
+                .allMatch(position -> position >= 0 && position < 1024);
+    }
+
+    @Test
+    void isMissing_whenBitsAreClear_andRemembersIt() {
+        UUID id = UUID.randomUUID();
+        when(redisTemplate.execute(any(RedisScript.class), eq(List.of("documents-bloom:{tenant-1}")),
+                anyString(), anyString(), anyString())).thenReturn(0L);
+
+        assertThat(filter.isMissing(id, "tenant-1")).isTrue();
+        assertThat(filter.isMissing(id, "tenant-1")).isTrue();
+
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(),
+                anyString(), anyString(), anyString());
+        assertThat(meterRegistry.get("documents.lookups.skipped").tag("by", "filter").counter().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("documents.lookups.skipped").tag("by", "negative-cache").counter().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void isMissing_isFalse_whenDocumentMightExist() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(),
+                anyString(), anyString(), anyString())).thenReturn(1L);
+
+        assertThat(filter.isMissing(UUID.randomUUID(), "tenant-1")).isFalse();
+    }
+
+    @Test
+    void isMissing_isFalse_whenRedisFails() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(),
+                anyString(), anyString(), anyString())).thenThrow(new RuntimeException("Redis down"));
+
+        assertThat(filter.isMissing(UUID.randomUUID(), "tenant-1")).isFalse();
+    }
+
+    @Test
+    void addAll_updatesLiveFilterAndRebuildInProgress() {
+        UUID id = UUID.randomUUID();
+
+        filter.addAll("tenant-1", List.of(id));
+
+        verify(redisTemplate).execute(any(RedisScript.class),
+                eq(List.of("documents-bloom:{tenant-1}", "documents-bloom:{tenant-1}:rebuild")),
+                eq(filter.positions(List.of(id))[0]), eq(filter.positions(List.of(id))[1]),
+                eq(filter.positions(List.of(id))[2]));
+    }
+
+    @Test
+    void addAll_dropsTenantFilter_whenDocumentsCannotBeAdded() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(),
+                anyString(), anyString(), anyString())).thenThrow(new RuntimeException("Redis down"));
+
+        filter.addAll("tenant-1", List.of(UUID.randomUUID()));
+
+        verify(redisTemplate).delete(List.of("documents-bloom:{tenant-1}", "documents-bloom:{tenant-1}:rebuild"));
+    }
+}
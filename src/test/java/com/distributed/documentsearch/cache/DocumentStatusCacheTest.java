@@ -0,0 +1,53 @@
+package com.distributed.documentsearch.cache;
+
+import com.distributed.documentsearch.model.DocumentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DocumentStatusCacheTest {
+
+    private RedisTemplate<String, String> redisTemplate;
+    private Cache documents;
+    private DocumentStatusCache documentStatusCache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(RedisTemplate.class);
+        ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("documents");
+        documents = cacheManager.getCache("documents");
+        documentStatusCache = new DocumentStatusCache(redisTemplate, cacheManager, Duration.ofHours(1));
+    }
+
+    @Test
+    void putAll_evictsCachedDocuments_whenStatusCannotBeWritten() {
+        UUID id = UUID.randomUUID();
+        UUID other = UUID.randomUUID();
+        String key = DocumentStatusCache.key(id, "tenant-1");
+        documents.put(key, "document");
+        documents.put(key + ":summary", "summary");
+        documents.put(DocumentStatusCache.key(other, "tenant-1"), "other");
+        when(redisTemplate.executePipelined(any(RedisCallback.class)))
+                .thenThrow(new RedisConnectionFailureException("Redis down"));
+
+        documentStatusCache.putAll(Map.of(key, DocumentStatus.INDEXED));
+
+        assertThat(documents.get(key)).isNull();
+        assertThat(documents.get(key + ":summary")).isNull();
+        assertThat(documents.get(DocumentStatusCache.key(other, "tenant-1"))).isNotNull();
+    }
+}
@@ -0,0 +1,58 @@
+package com.distributed.documentsearch.cache;
+
+import com.distributed.documentsearch.dto.SearchRequest;
+import com.distributed.documentsearch.service.IndexGenerationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class SearchCacheKeyGeneratorTest {
+
+    private IndexGenerationService indexGenerationService;
+    private SearchCacheKeyGenerator keyGenerator;
+
+    @BeforeEach
+    void setUp() {
+        indexGenerationService = mock(IndexGenerationService.class);
+        keyGenerator = new SearchCacheKeyGenerator(indexGenerationService);
+    }
+
+    @Test
+    void generate_spellsOutNormalizedRequest_withGeneration() {
+        when(indexGenerationService.current("tenant-1")).thenReturn(7L);
+        SearchRequest request = request("tenant-1", " distributed: systems ");
+        request.setFields(List.of("Title", "id", "title"));
+
+        assertThat(key(request)).isEqualTo("tenant-1:g7:p1:s10:orelevance:fid,title:qdistributed%3A+systems");
+    }
+
+    @Test
+    void generate_changesWithGeneration_andSort() {
+        SearchRequest request = request("tenant-1", "test");
+        when(indexGenerationService.current("tenant-1")).thenReturn(1L);
+        Object before = key(request);
+
+        when(indexGenerationService.current("tenant-1")).thenReturn(2L);
+        assertThat(key(request)).isNotEqualTo(before);
+
+        SearchRequest sorted = request("tenant-1", "test");
+        sorted.setSort("date");
+        assertThat(key(sorted)).isNotEqualTo(key(request));
+    }
+
+    private Object key(SearchRequest request) {
+        return keyGenerator.generate(null, null, request);
+    }
+
+    private SearchRequest request(String tenant, String q) {
+        SearchRequest request = new SearchRequest();
+        request.setTenant(tenant);
+        request.setQ(q);
+        return request;
+    }
+}
@@ -0,0 +1,210 @@
+package com.distributed.documentsearch.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TwoTierCacheTest {
+
+    private ConcurrentMapCacheManager remoteCacheManager;
+    private RedisTemplate<String, String> redisTemplate;
+    private CacheInvalidationBus invalidationBus;
+    private MeterRegistry meterRegistry;
+
+    private TwoTierCacheManager cacheManager;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        remoteCacheManager = new ConcurrentMapCacheManager("documents");
+        redisTemplate = mock(RedisTemplate.class);
+        invalidationBus = new CacheInvalidationBus(redisTemplate);
+        cacheManager = manager(0.0);
+    }
+
+    @Test
+    void get_servesFromRemote_thenFromNearCache() {
+        remoteCacheManager.getCache("documents").put("1:tenant-1", "value");
+        Cache cache = cacheManager.getCache("documents");
+
+        assertThat(cache.get("1:tenant-1").get()).isEqualTo("value");
+        remoteCacheManager.getCache("documents").clear();
+        assertThat(cache.get("1:tenant-1").get()).isEqualTo("value");
+
+        assertThat(count("l1", "hit")).isEqualTo(1);
+        assertThat(count("l1", "miss")).isEqualTo(1);
+        assertThat(count("l2", "hit")).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.tier.hit.ratio").tag("tier", "l1").gauge().value()).isEqualTo(0.5);
+    }
+
+    @Test
+    void getAll_combinesNearCacheAndRemoteHits() {
+        TwoTierCache cache = (TwoTierCache) cacheManager.getCache("documents");
+        cache.put("1:tenant-1", "near");
+        remoteCacheManager.getCache("documents").put("2:tenant-1", "remote");
+
+        Map<String, Object> found = cache.getAll(List.of("1:tenant-1", "2:tenant-1", "3:tenant-1"));
+
+        assertThat(found).containsOnly(Map.entry("1:tenant-1", "near"), Map.entry("2:tenant-1", "remote"));
+        assertThat(count("l1", "hit")).isEqualTo(1);
+        assertThat(count("l2", "hit")).isEqualTo(1);
+        assertThat(count("l2", "miss")).isEqualTo(1);
+    }
+
+    @Test
+    void putAll_fillsBothTiers_withoutBroadcasting() {
+        TwoTierCache cache = (TwoTierCache) cacheManager.getCache("documents");
+
+        cache.putAll(Map.of("1:tenant-1", "one", "2:tenant-1", "two"));
+        remoteCacheManager.getCache("documents").evict("1:tenant-1");
+
+        assertThat(cache.get("1:tenant-1").get()).isEqualTo("one");
+        assertThat(remoteCacheManager.getCache("documents").get("2:tenant-1").get()).isEqualTo("two");
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    void put_broadcastsOverwrites_butNotFills() {
+        Cache cache = cacheManager.getCache("documents");
+
+        cache.put("1:tenant-1", "filled");
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+
+        cache.put("1:tenant-1", "overwritten");
+
+        assertThat(remoteCacheManager.getCache("documents").get("1:tenant-1").get()).isEqualTo("overwritten");
+        verify(redisTemplate, times(1)).convertAndSend(eq(CacheInvalidationBus.CHANNEL),
+                eq(invalidationBus.getNodeId() + "\ndocuments\n1:tenant-1"));
+    }
+
+    @Test
+    void evict_clearsBothTiers_andBroadcasts() {
+        Cache cache = cacheManager.getCache("documents");
+        cache.put("1:tenant-1", "value");
+
+        cache.evict("1:tenant-1");
+
+        assertThat(cache.get("1:tenant-1")).isNull();
+        assertThat(remoteCacheManager.getCache("documents").get("1:tenant-1")).isNull();
+        verify(redisTemplate).convertAndSend(eq(CacheInvalidationBus.CHANNEL),
+                eq(invalidationBus.getNodeId() + "\ndocuments\n1:tenant-1"));
+    }
+
+    @Test
+    void remoteInvalidation_dropsNearCacheEntryOnly() {
+        Cache cache = cacheManager.getCache("documents");
+        cache.put("1:tenant-1", "stale");
+        remoteCacheManager.getCache("documents").put("1:tenant-1", "fresh");
+
+        invalidationBus.onMessage(message("other-node\ndocuments\n1:tenant-1"), null);
+
+        assertThat(cache.get("1:tenant-1").get()).isEqualTo("fresh");
+    }
+
+    @Test
+    void ownInvalidation_isIgnored() {
+        Cache cache = cacheManager.getCache("documents");
+        cache.put("1:tenant-1", "value");
+        remoteCacheManager.getCache("documents").clear();
+
+        invalidationBus.onMessage(message(invalidationBus.getNodeId() + "\ndocuments\n"), null);
+
+        assertThat(cache.get("1:tenant-1").get()).isEqualTo("value");
+    }
+
+    @Test
+    void get_withLoader_coalescesConcurrentMisses() throws Exception {
+        Cache cache = cacheManager.getCache("documents");
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> first = executor.submit(() -> cache.get("q", () -> {
+                calls.incrementAndGet();
+                loading.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return "result";
+            }));
+            assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+            Future<String> second = executor.submit(() -> cache.get("q", () -> {
+                calls.incrementAndGet();
+                return "other";
+            }));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("result");
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(calls).hasValue(1);
+        assertThat(meterRegistry.get("cache.loads.coalesced").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void get_withLoader_refreshesEntryComputedHere_aheadOfExpiry() {
+        cacheManager = manager(1e12);
+        Cache cache = cacheManager.getCache("documents");
+        AtomicInteger calls = new AtomicInteger();
+
+        cache.get("q", () -> {
+            calls.incrementAndGet();
+            Thread.sleep(2);
+            return "v" + calls.get();
+        });
+        String refreshed = cache.get("q", () -> "v" + calls.incrementAndGet());
+
+        assertThat(refreshed).isEqualTo("v2");
+        assertThat(meterRegistry.get("cache.loads.early.refresh").counter().count()).isEqualTo(1);
+    }
+
+    private TwoTierCacheManager manager(double earlyRefreshBeta) {
+        meterRegistry = new SimpleMeterRegistry();
+        return new TwoTierCacheManager(remoteCacheManager, invalidationBus, meterRegistry, new ObjectMapper(),
+                TwoTierCacheSettings.builder()
+                        .nearCacheMaxBytes(1024 * 1024)
+                        .nearCacheTtl(Duration.ofMinutes(1))
+                        .timeToLive(Map.of("documents", Duration.ofMinutes(5)))
+                        .earlyRefreshBeta(earlyRefreshBeta)
+                        .build());
+    }
+
+    private double count(String tier, String result) {
+        return meterRegistry.get("cache.tier.gets").tag("tier", tier).tag("result", result).counter().count();
+    }
+
+    private DefaultMessage message(String body) {
+        return new DefaultMessage(CacheInvalidationBus.CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,10 +1,15 @@
 package com.distributed.documentsearch.controller;
 
 import com.distributed.documentsearch.config.TenantContext;
+import com.distributed.documentsearch.dto.BulkDocumentResponse;
 import com.distributed.documentsearch.dto.DocumentRequest;
 import com.distributed.documentsearch.dto.DocumentResponse;
+import com.distributed.documentsearch.dto.MultiGetResponse;
 import com.distributed.documentsearch.model.DocumentStatus;
+import com.distributed.documentsearch.service.BulkIngestService;
 import com.distributed.documentsearch.service.DocumentService;
+import com.distributed.documentsearch.service.RateLimitCosts;
+import com.distributed.documentsearch.service.RateLimitDecision;
 import com.distributed.documentsearch.service.RateLimitService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,17 +17,26 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
 import java.util.UUID;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(controllers = DocumentController.class)
+@Import(RateLimitCosts.class)
 class DocumentControllerTest {
 
     @Autowired
@@ -31,6 +45,9 @@ class DocumentControllerTest {
     @MockBean
     private DocumentService documentService;
 
+    @MockBean
+    private BulkIngestService bulkIngestService;
+
     @MockBean
     private RateLimitService rateLimitService;
 
@@ -39,7 +56,8 @@ class DocumentControllerTest {
 
     @BeforeEach
     void setUp() {
-        when(rateLimitService.isAllowed(any())).thenReturn(true);
+        when(rateLimitService.acquire(any(), anyLong()))
+                .thenReturn(new RateLimitDecision(true, 100, 99, Duration.ZERO));
     }
 
     @Test
@@ -66,14 +84,83 @@ class DocumentControllerTest {
                 .andExpect(jsonPath("$.title").value("Test"));
     }
 
+    @Test
+    void getDocument_passesRequestedFields() throws Exception {
+        UUID id = UUID.randomUUID();
+        when(documentService.getDocument(id, "tenant-1", List.of("title", "status"))).thenReturn(
+                DocumentResponse.builder().id(id).title("Test").status(DocumentStatus.INDEXED).build());
+
+        mockMvc.perform(get("/api/v1/documents/{id}", id)
+                        .param("fields", "title,status")
+                        .header("X-Tenant-Id", "tenant-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Test"))
+                .andExpect(jsonPath("$.content").doesNotExist());
+    }
+
     @Test
     void getDocument_returnsNotFoundWhenMissing() throws Exception {
         UUID id = UUID.randomUUID();
-        when(documentService.getDocument(id, "tenant-1")).thenThrow(new RuntimeException("not found"));
+        when(documentService.getDocument(id, "tenant-1", null)).thenThrow(new RuntimeException("not found"));
 
         mockMvc.perform(get("/api/v1/documents/{id}", id)
                         .header("X-Tenant-Id", "tenant-1"))
                 .andExpect(status().isNotFound());
     }
-}
 
+    @Test
+    void getDocuments_returnsFoundAndMissing_chargingDistinctIds() throws Exception {
+        UUID found = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        when(documentService.getDocuments(List.of(found, missing, found), "tenant-1", null)).thenReturn(
+                MultiGetResponse.builder()
+                        .documents(List.of(DocumentResponse.builder().id(found).title("Found").build()))
+                        .missing(List.of(missing))
+                        .build());
+
+        mockMvc.perform(post("/api/v1/documents/_mget")
+                        .header("X-Tenant-Id", "tenant-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[\"" + found + "\",\"" + missing + "\",\"" + found + "\"]}"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-RateLimit-Remaining", "99"))
+                .andExpect(jsonPath("$.documents[0].title").value("Found"))
+                .andExpect(jsonPath("$.missing[0]").value(missing.toString()));
+
+        verify(rateLimitService).acquire(eq("tenant-1"), eq(2L));
+    }
+
+    @Test
+    void getDocuments_rejectsEmptyIdList() throws Exception {
+        mockMvc.perform(post("/api/v1/documents/_mget")
+                        .header("X-Tenant-Id", "tenant-1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[]}"))
+                .andExpect(status().isBadRequest());
+
+        verify(documentService, never()).getDocuments(any(), any(), any());
+    }
+
+    @Test
+    void bulkCreateDocuments_returnsPerItemResults() throws Exception {
+        UUID id = UUID.randomUUID();
+        BulkDocumentResponse response = BulkDocumentResponse.builder()
+                .took(3L)
+                .errors(true)
+                .items(List.of(
+                        BulkDocumentResponse.ItemResult.builder().index(0).id(id).status(201).build(),
+                        BulkDocumentResponse.ItemResult.builder().index(1).status(400).error("Title is required").build()))
+                .build();
+
+        when(bulkIngestService.ingest(any(), any(InputStream.class))).thenReturn(response);
+
+        mockMvc.perform(post("/api/v1/documents/_bulk")
+                        .header("X-Tenant-Id", "tenant-1")
+                        .contentType("application/x-ndjson")
+                        .content("{\"title\":\"A\",\"content\":\"a\"}\n{\"content\":\"b\"}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.errors").value(true))
+                .andExpect(jsonPath("$.items[0].id").value(id.toString()))
+                .andExpect(jsonPath("$.items[1].status").value(400));
+    }
+}
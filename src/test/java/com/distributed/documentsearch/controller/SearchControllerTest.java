@@ -2,6 +2,8 @@ package com.distributed.documentsearch.controller;
 
 import com.distributed.documentsearch.dto.SearchRequest;
 import com.distributed.documentsearch.dto.SearchResponse;
+import com.distributed.documentsearch.service.RateLimitCosts;
+import com.distributed.documentsearch.service.RateLimitDecision;
 import com.distributed.documentsearch.service.RateLimitService;
 import com.distributed.documentsearch.service.SearchService;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,17 +11,25 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.Duration;
 import java.util.Collections;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = SearchController.class)
+@Import(RateLimitCosts.class)
 class SearchControllerTest {
 
     @Autowired
@@ -33,7 +43,8 @@ class SearchControllerTest {
 
     @BeforeEach
     void setUp() {
-        when(rateLimitService.isAllowed(any())).thenReturn(true);
+        when(rateLimitService.acquire(any(), anyLong()))
+                .thenReturn(new RateLimitDecision(true, 100, 99, Duration.ZERO));
     }
 
     @Test
@@ -63,7 +74,25 @@ class SearchControllerTest {
                         .param("size", "10"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.total").value(1))
-                .andExpect(jsonPath("$.results[0].title").value("Test Doc"));
+                .andExpect(jsonPath("$.results[0].title").value("Test Doc"))
+                .andExpect(header().string("X-RateLimit-Limit", "100"))
+                .andExpect(header().string("X-RateLimit-Remaining", "99"));
+    }
+
+    @Test
+    void search_chargesRequestedHits_andReportsRetryAfterWhenLimited() throws Exception {
+        when(rateLimitService.acquire(eq("tenant-1"), eq(5L)))
+                .thenReturn(new RateLimitDecision(false, 100, 2, Duration.ofMillis(1500)));
+
+        mockMvc.perform(get("/api/v1/search")
+                        .param("q", "test")
+                        .param("tenant", "tenant-1")
+                        .param("size", "50"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "2"))
+                .andExpect(header().string("X-RateLimit-Remaining", "2"));
+
+        verify(searchService, never()).search(any(SearchRequest.class));
     }
 }
 
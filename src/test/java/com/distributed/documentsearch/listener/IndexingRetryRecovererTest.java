@@ -0,0 +1,99 @@
+package com.distributed.documentsearch.listener;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.support.converter.MessageConversionException;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class IndexingRetryRecovererTest {
+
+    private RabbitTemplate rabbitTemplate;
+    private SimpleMeterRegistry meterRegistry;
+
+    private IndexingRetryRecoverer recoverer;
+
+    @BeforeEach
+    void setUp() {
+        rabbitTemplate = mock(RabbitTemplate.class);
+        meterRegistry = new SimpleMeterRegistry();
+        recoverer = new IndexingRetryRecoverer(rabbitTemplate, meterRegistry,
+                List.of(Duration.ofSeconds(5), Duration.ofMinutes(1)), Duration.ofMillis(100));
+    }
+
+    @Test
+    void recover_republishesToNextTier_withAttemptCount() {
+        confirm(true);
+        Message message = message(1);
+
+        recoverer.recover(message, new IOException("connection reset"));
+
+        verify(rabbitTemplate).send(eq("document-retry.60000ms"), eq("document.bulk.tenant-1"),
+                same(message), any(CorrelationData.class));
+        assertThat(message.getMessageProperties().<Integer>getHeader(IndexingRetryRecoverer.ATTEMPT_HEADER))
+                .isEqualTo(2);
+        assertThat(meterRegistry.counter("indexing.retries", "tier", "60000ms").count()).isEqualTo(1);
+    }
+
+    @Test
+    void recover_parksMessage_afterLastTier() {
+        confirm(true);
+        Message message = message(2);
+
+        recoverer.recover(message, new IOException("connection reset"));
+
+        verify(rabbitTemplate).send(eq("document-parking-lot"), eq("document.bulk.tenant-1"),
+                same(message), any(CorrelationData.class));
+        assertThat(message.getMessageProperties().<String>getHeader(IndexingRetryRecoverer.EXCEPTION_HEADER))
+                .isEqualTo("IOException: connection reset");
+        assertThat(meterRegistry.counter("indexing.parked").count()).isEqualTo(1);
+    }
+
+    @Test
+    void recover_parksMalformedMessage_rightAway() {
+        confirm(true);
+
+        recoverer.recover(message(0), new MessageConversionException("not JSON"));
+
+        verify(rabbitTemplate).send(eq("document-parking-lot"), anyString(), any(Message.class),
+                any(CorrelationData.class));
+    }
+
+    @Test
+    void recover_throws_whenBrokerDoesNotConfirm() {
+        confirm(false);
+
+        assertThrows(AmqpException.class,
+                () -> recoverer.recover(message(0), new IOException("connection reset")));
+    }
+
+    private void confirm(boolean ack) {
+        doAnswer(invocation -> {
+            CorrelationData correlation = invocation.getArgument(3);
+            correlation.getFuture().complete(new CorrelationData.Confirm(ack, null));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    private Message message(int attempts) {
+        MessageProperties properties = new MessageProperties();
+        properties.setReceivedRoutingKey("document.bulk.tenant-1");
+        if (attempts > 0) {
+            properties.setHeader(IndexingRetryRecoverer.ATTEMPT_HEADER, attempts);
+        }
+        return new Message("{}".getBytes(), properties);
+    }
+}
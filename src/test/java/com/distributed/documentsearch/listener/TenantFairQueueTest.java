@@ -0,0 +1,64 @@
+package com.distributed.documentsearch.listener;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TenantFairQueueTest {
+
+    @Test
+    void poll_servesSmallTenant_behindLargeBacklog() throws InterruptedException {
+        TenantFairQueue<String> queue = new TenantFairQueue<>(10, tenant -> 1, item -> 1);
+        for (int i = 0; i < 1000; i++) {
+            queue.add("import", "import-" + i);
+        }
+        for (int i = 0; i < 5; i++) {
+            queue.add("small", "small-" + i);
+        }
+
+        List<String> batch = queue.poll(100, 0);
+
+        assertThat(batch).hasSize(100);
+        assertThat(batch).filteredOn(item -> item.startsWith("small")).hasSize(5);
+        assertThat(queue.pendingCost("small")).isZero();
+        assertThat(queue.pendingCost("import")).isEqualTo(905);
+        assertThat(queue.pendingCost()).isEqualTo(905);
+    }
+
+    @Test
+    void poll_sharesBatches_inProportionToWeights() throws InterruptedException {
+        Map<String, Integer> weights = Map.of("heavy", 3, "light", 1);
+        TenantFairQueue<String> queue = new TenantFairQueue<>(10, weights::get, item -> 1);
+        for (int i = 0; i < 500; i++) {
+            queue.add("heavy", "heavy-" + i);
+            queue.add("light", "light-" + i);
+        }
+
+        List<String> batch = queue.poll(80, 0);
+
+        assertThat(batch).filteredOn(item -> item.startsWith("heavy")).hasSize(60);
+        assertThat(batch).filteredOn(item -> item.startsWith("light")).hasSize(20);
+    }
+
+    @Test
+    void poll_countsDocumentsPerItem_andKeepsTenantOrder() throws InterruptedException {
+        TenantFairQueue<Integer> queue = new TenantFairQueue<>(100, tenant -> 1, item -> item);
+        queue.add("bulk", 250);
+        queue.add("bulk", 50);
+        queue.add("single", 1);
+
+        // The bulk message costs more than one quantum; the other tenant goes first
+        assertThat(queue.poll(500, 0)).containsExactly(1, 250, 50);
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void poll_returnsEmptyBatch_afterTimeout() throws InterruptedException {
+        TenantFairQueue<String> queue = new TenantFairQueue<>(10, tenant -> 1, item -> 1);
+
+        assertThat(queue.poll(10, 10)).isEmpty();
+    }
+}
@@ -0,0 +1,352 @@
+package com.distributed.documentsearch.search;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.bulk.OperationType;
+import co.elastic.clients.elasticsearch._types.Refresh;
+import co.elastic.clients.elasticsearch._types.VersionType;
+import co.elastic.clients.elasticsearch._types.query_dsl.BoolQuery;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import com.distributed.documentsearch.dto.SearchResponse;
+import com.distributed.documentsearch.model.DocumentIndex;
+import com.distributed.documentsearch.service.TenantPlacementService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.elasticsearch.client.elc.NativeQuery;
+import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
+import org.springframework.data.elasticsearch.core.SearchHit;
+import org.springframework.data.elasticsearch.core.SearchHits;
+import org.springframework.data.elasticsearch.core.mapping.IndexCoordinates;
+import org.springframework.data.elasticsearch.core.query.highlight.HighlightField;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ElasticsearchSearchBackendTest {
+
+    private ElasticsearchOperations elasticsearchOperations;
+    private ElasticsearchClient elasticsearchClient;
+    private TenantPlacementService placementService;
+    private ReindexState reindexState;
+    private ElasticsearchSearchBackend backend;
+
+    @BeforeEach
+    void setUp() {
+        elasticsearchOperations = mock(ElasticsearchOperations.class);
+        elasticsearchClient = mock(ElasticsearchClient.class);
+        placementService = mock(TenantPlacementService.class);
+        when(placementService.resolve("tenant-1")).thenReturn(TenantRouting.shared("documents", "tenant-1"));
+        when(placementService.getSharedIndex()).thenReturn("documents");
+        reindexState = mock(ReindexState.class);
+        when(reindexState.target()).thenReturn(Optional.empty());
+        backend = new ElasticsearchSearchBackend(elasticsearchOperations, elasticsearchClient, placementService,
+                reindexState);
+    }
+
+    @Test
+    void search_returnsMappedResults() {
+        SearchQuery request = query("test").build();
+
+        DocumentIndex doc = DocumentIndex.builder()
+                .id("1")
+                .tenantId("tenant-1")
+                .title("Test Document")
+                .content("This is test content")
+                .metadata(null)
+                .build();
+
+        SearchHit<DocumentIndex> hit = mock(SearchHit.class);
+        when(hit.getContent()).thenReturn(doc);
+        when(hit.getScore()).thenReturn(1.0f);
+        when(hit.getHighlightField("content")).thenReturn(List.of("This is <em>test</em> content"));
+
+        SearchHits<DocumentIndex> hits = mock(SearchHits.class);
+        when(hits.getTotalHits()).thenReturn(1L);
+        when(hits.getSearchHits()).thenReturn(List.of(hit));
+
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(DocumentIndex.class), any(IndexCoordinates.class)))
+                .thenReturn(hits);
+
+        SearchPage response = backend.search(request);
+
+        assertThat(response.getTotal()).isEqualTo(1);
+        assertThat(response.getResults()).hasSize(1);
+        assertThat(response.getResults().get(0).getTitle()).isEqualTo("Test Document");
+        assertThat(response.getResults().get(0).getId()).isEqualTo("1");
+        assertThat(response.getResults().get(0).getSnippet()).isEqualTo("This is <em>test</em> content");
+    }
+
+    @Test
+    void search_excludesContentFromSource_andHighlightsSnippet() {
+        SearchQuery request = query("test").build();
+
+        SearchHits<DocumentIndex> hits = mock(SearchHits.class);
+        when(hits.getSearchHits()).thenReturn(List.of());
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(DocumentIndex.class), any(IndexCoordinates.class)))
+                .thenReturn(hits);
+
+        backend.search(request);
+
+        ArgumentCaptor<NativeQuery> captor = ArgumentCaptor.forClass(NativeQuery.class);
+        verify(elasticsearchOperations).search(captor.capture(), eq(DocumentIndex.class), any(IndexCoordinates.class));
+
+        NativeQuery query = captor.getValue();
+        assertThat(query.getSourceFilter().getExcludes()).containsExactly("content");
+        assertThat(query.getSourceFilter().getIncludes()).containsExactly("id", "title", "metadata");
+        assertThat(query.getHighlightQuery()).isPresent();
+        HighlightField field = query.getHighlightQuery().get().getHighlight().getFields().get(0);
+        assertThat(field.getName()).isEqualTo("content");
+        assertThat(field.getParameters().getType()).isEqualTo("fvh");
+        assertThat(field.getParameters().getFragmentSize()).isEqualTo(150);
+        assertThat(query.getHighlightQuery().get().getHighlight().getParameters().getEncoder()).isEqualTo("html");
+    }
+
+    @Test
+    void search_withFields_fetchesOnlyRequestedFields() {
+        SearchQuery request = query("test").fields(Set.of("id", "title")).build();
+
+        SearchHit<DocumentIndex> hit = mock(SearchHit.class);
+        when(hit.getContent()).thenReturn(DocumentIndex.builder().id("1").title("Test").build());
+        when(hit.getScore()).thenReturn(1.0f);
+
+        SearchHits<DocumentIndex> hits = mock(SearchHits.class);
+        when(hits.getSearchHits()).thenReturn(List.of(hit));
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(DocumentIndex.class), any(IndexCoordinates.class)))
+                .thenReturn(hits);
+
+        SearchPage response = backend.search(request);
+
+        ArgumentCaptor<NativeQuery> captor = ArgumentCaptor.forClass(NativeQuery.class);
+        verify(elasticsearchOperations).search(captor.capture(), eq(DocumentIndex.class), any(IndexCoordinates.class));
+        assertThat(captor.getValue().getSourceFilter().getIncludes()).containsExactly("id", "title");
+        assertThat(captor.getValue().getHighlightQuery()).isEmpty();
+
+        SearchResponse.SearchResult result = response.getResults().get(0);
+        assertThat(result.getTitle()).isEqualTo("Test");
+        assertThat(result.getSnippet()).isNull();
+        assertThat(result.getScore()).isNull();
+    }
+
+    @Test
+    void search_usesMultiMatch_withTenantInFilterClause() {
+        SearchQuery request = query("distributed systems").build();
+
+        SearchHits<DocumentIndex> hits = mock(SearchHits.class);
+        when(hits.getSearchHits()).thenReturn(List.of());
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(DocumentIndex.class), any(IndexCoordinates.class)))
+                .thenReturn(hits);
+
+        backend.search(request);
+
+        ArgumentCaptor<NativeQuery> captor = ArgumentCaptor.forClass(NativeQuery.class);
+        verify(elasticsearchOperations).search(captor.capture(), eq(DocumentIndex.class), any(IndexCoordinates.class));
+
+        Query query = captor.getValue().getQuery();
+        assertThat(query.isBool()).isTrue();
+        BoolQuery bool = query.bool();
+        assertThat(bool.filter()).hasSize(1);
+        assertThat(bool.filter().get(0).term().field()).isEqualTo("tenantId");
+        assertThat(bool.filter().get(0).term().value().stringValue()).isEqualTo("tenant-1");
+        assertThat(bool.must()).hasSize(1);
+        assertThat(bool.must().get(0).multiMatch().query()).isEqualTo("distributed systems");
+        assertThat(bool.must().get(0).multiMatch().fields()).containsExactly("title^3.0", "content");
+    }
+
+    @Test
+    void search_routesSharedTenant_toItsShard() {
+        SearchHits<DocumentIndex> hits = mock(SearchHits.class);
+        when(hits.getSearchHits()).thenReturn(List.of());
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(DocumentIndex.class), any(IndexCoordinates.class)))
+                .thenReturn(hits);
+
+        backend.search(query("test").build());
+
+        ArgumentCaptor<NativeQuery> captor = ArgumentCaptor.forClass(NativeQuery.class);
+        ArgumentCaptor<IndexCoordinates> index = ArgumentCaptor.forClass(IndexCoordinates.class);
+        verify(elasticsearchOperations).search(captor.capture(), eq(DocumentIndex.class), index.capture());
+        assertThat(captor.getValue().getRoute()).isEqualTo("tenant-1");
+        assertThat(index.getValue().getIndexName()).isEqualTo("documents");
+    }
+
+    @Test
+    void search_readsPromotedTenant_throughItsAlias() {
+        when(placementService.resolve("tenant-1")).thenReturn(TenantRouting.dedicated("documents_tenant_1"));
+        SearchHits<DocumentIndex> hits = mock(SearchHits.class);
+        when(hits.getSearchHits()).thenReturn(List.of());
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(DocumentIndex.class), any(IndexCoordinates.class)))
+                .thenReturn(hits);
+
+        backend.search(query("test").build());
+
+        ArgumentCaptor<NativeQuery> captor = ArgumentCaptor.forClass(NativeQuery.class);
+        ArgumentCaptor<IndexCoordinates> index = ArgumentCaptor.forClass(IndexCoordinates.class);
+        verify(elasticsearchOperations).search(captor.capture(), eq(DocumentIndex.class), index.capture());
+        assertThat(captor.getValue().getRoute()).isNull();
+        assertThat(index.getValue().getIndexName()).isEqualTo("documents_tenant_1");
+    }
+
+    @Test
+    void bulkIndex_writesMigratingTenant_toBothIndices() throws IOException {
+        when(placementService.resolve("tenant-1"))
+                .thenReturn(TenantRouting.migrating("documents", "tenant-1", "documents_tenant_1_v1"));
+        when(elasticsearchClient.bulk(any(BulkRequest.class))).thenReturn(BulkResponse.of(r -> r
+                .took(1)
+                .errors(true)
+                .items(item("documents", 201, null), item("documents_tenant_1_v1", 429, "rejected"))));
+
+        List<BulkItemResult> results = backend.bulkIndex(List.of(
+                DocumentIndex.builder().id("1").tenantId("tenant-1").title("Test").build()), IndexingPriority.BULK);
+
+        ArgumentCaptor<BulkRequest> captor = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(elasticsearchClient).bulk(captor.capture());
+        List<BulkOperation> operations = captor.getValue().operations();
+        assertThat(operations).hasSize(2);
+        assertThat(operations.get(0).index().index()).isEqualTo("documents");
+        assertThat(operations.get(0).index().routing()).isEqualTo("tenant-1");
+        assertThat(operations.get(1).index().index()).isEqualTo("documents_tenant_1_v1");
+        assertThat(operations.get(1).index().routing()).isNull();
+
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).isSuccess()).isFalse();
+        assertThat(results.get(0).status()).isEqualTo(429);
+    }
+
+    @Test
+    void bulkIndex_duringRebuild_writesSharedTenant_toNewIndexWithSameRouting() throws IOException {
+        when(reindexState.target()).thenReturn(Optional.of("documents_v2"));
+        when(elasticsearchClient.bulk(any(BulkRequest.class))).thenReturn(BulkResponse.of(r -> r
+                .took(1)
+                .errors(false)
+                .items(item("documents", 201, null), item("documents_v2", 201, null))));
+
+        List<BulkItemResult> results = backend.bulkIndex(List.of(
+                DocumentIndex.builder().id("1").tenantId("tenant-1").title("Test").build()), IndexingPriority.BULK);
+
+        ArgumentCaptor<BulkRequest> captor = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(elasticsearchClient).bulk(captor.capture());
+        List<BulkOperation> operations = captor.getValue().operations();
+        assertThat(operations).hasSize(2);
+        assertThat(operations.get(0).index().index()).isEqualTo("documents");
+        assertThat(operations.get(1).index().index()).isEqualTo("documents_v2");
+        assertThat(operations.get(1).index().routing()).isEqualTo("tenant-1");
+        assertThat(captor.getValue().refresh()).isEqualTo(Refresh.False);
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).isSuccess()).isTrue();
+    }
+
+    @Test
+    void bulkIndex_interactive_waitsForRefresh() throws IOException {
+        when(elasticsearchClient.bulk(any(BulkRequest.class))).thenReturn(BulkResponse.of(r -> r
+                .took(1)
+                .errors(false)
+                .items(item("documents", 201, null))));
+
+        backend.bulkIndex(List.of(DocumentIndex.builder().id("1").tenantId("tenant-1").title("Test").build()),
+                IndexingPriority.INTERACTIVE);
+
+        ArgumentCaptor<BulkRequest> captor = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(elasticsearchClient).bulk(captor.capture());
+        assertThat(captor.getValue().refresh()).isEqualTo(Refresh.WaitFor);
+    }
+
+    @Test
+    void bulkIndex_writesDocumentVersion_andReportsConflictsAsStale() throws IOException {
+        when(reindexState.target()).thenReturn(Optional.of("documents_v2"));
+        when(elasticsearchClient.bulk(any(BulkRequest.class))).thenReturn(BulkResponse.of(r -> r
+                .took(1)
+                .errors(true)
+                .items(item("documents", 201, null), item("documents_v2", 409, "version_conflict_engine_exception"))));
+
+        List<BulkItemResult> results = backend.bulkIndex(List.of(
+                DocumentIndex.builder().id("1").tenantId("tenant-1").title("Test").version(3L).build()),
+                IndexingPriority.BULK);
+
+        ArgumentCaptor<BulkRequest> captor = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(elasticsearchClient).bulk(captor.capture());
+        assertThat(captor.getValue().operations()).allSatisfy(operation -> {
+            assertThat(operation.index().version()).isEqualTo(3L);
+            assertThat(operation.index().versionType()).isEqualTo(VersionType.ExternalGte);
+        });
+        assertThat(results).hasSize(1);
+        assertThat(results.get(0).isStale()).isTrue();
+    }
+
+    @Test
+    void search_withStartCursor_opensPointInTime_andReturnsNextCursor() {
+        SearchQuery request = query("test").size(1).cursor("*").build();
+
+        SearchHit<DocumentIndex> hit = mock(SearchHit.class);
+        when(hit.getContent()).thenReturn(DocumentIndex.builder().id("1").title("Test").build());
+        when(hit.getSortValues()).thenReturn(List.of(1.5, 42L));
+
+        SearchHits<DocumentIndex> hits = mock(SearchHits.class);
+        when(hits.getSearchHits()).thenReturn(List.of(hit));
+        when(hits.getPointInTimeId()).thenReturn("pit-2");
+
+        when(elasticsearchOperations.openPointInTime(any(), any(Duration.class))).thenReturn("pit-1");
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(DocumentIndex.class))).thenReturn(hits);
+
+        SearchPage response = backend.search(request);
+
+        ArgumentCaptor<NativeQuery> captor = ArgumentCaptor.forClass(NativeQuery.class);
+        verify(elasticsearchOperations).search(captor.capture(), eq(DocumentIndex.class));
+        assertThat(captor.getValue().getPointInTime().id()).isEqualTo("pit-1");
+        assertThat(captor.getValue().getSearchAfter()).isNull();
+
+        SearchCursor next = SearchCursor.decode(response.getNextCursor());
+        assertThat(next.getPitId()).isEqualTo("pit-2");
+        assertThat(next.getSearchAfter()).containsExactly(1.5, 42);
+    }
+
+    @Test
+    void search_withCursor_resumesAfterLastHit_andClosesPointInTimeOnLastPage() {
+        SearchQuery request = query("test").cursor(new SearchCursor("pit-1", List.of(1.5, 42)).encode()).build();
+
+        SearchHits<DocumentIndex> hits = mock(SearchHits.class);
+        when(hits.getSearchHits()).thenReturn(List.of());
+        when(elasticsearchOperations.search(any(NativeQuery.class), eq(DocumentIndex.class))).thenReturn(hits);
+
+        SearchPage response = backend.search(request);
+
+        ArgumentCaptor<NativeQuery> captor = ArgumentCaptor.forClass(NativeQuery.class);
+        verify(elasticsearchOperations).search(captor.capture(), eq(DocumentIndex.class));
+        assertThat(captor.getValue().getSearchAfter()).containsExactly(1.5, 42);
+        verify(elasticsearchOperations, never()).openPointInTime(any(), any(Duration.class));
+        verify(elasticsearchOperations).closePointInTime("pit-1");
+        assertThat(response.getNextCursor()).isNull();
+    }
+
+    private BulkResponseItem item(String index, int status, String error) {
+        return BulkResponseItem.of(i -> {
+            i.operationType(OperationType.Index).index(index).id("1").status(status);
+            if (error != null) {
+                i.error(e -> e.type("es_rejected_execution_exception").reason(error));
+            }
+            return i;
+        });
+    }
+
+    private SearchQuery.SearchQueryBuilder query(String text) {
+        return SearchQuery.builder()
+                .tenantId("tenant-1")
+                .text(text)
+                .page(0)
+                .size(10)
+                .fields(SearchQuery.ALL_FIELDS);
+    }
+}
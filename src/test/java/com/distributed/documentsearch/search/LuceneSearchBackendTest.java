@@ -0,0 +1,252 @@
+package com.distributed.documentsearch.search;
+
+import com.distributed.documentsearch.dto.SearchResponse;
+import com.distributed.documentsearch.model.DocumentIndex;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LuceneSearchBackendTest {
+
+    @TempDir
+    Path directory;
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private LuceneSearchBackend backend;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        backend = open();
+    }
+
+    @AfterEach
+    void tearDown() {
+        backend.close();
+    }
+
+    @Test
+    void search_ranksTitleMatchesFirst_andHighlightsContent() {
+        backend.index(document("1", "tenant-1", "Cooking", "A long story about distributed systems and consensus."));
+        backend.index(document("2", "tenant-1", "Distributed systems", "An introduction."));
+        backend.refresh();
+
+        SearchPage page = backend.search(query("tenant-1", "distributed").build());
+
+        assertThat(page.getTotal()).isEqualTo(2);
+        assertThat(page.getResults()).extracting(SearchResponse.SearchResult::getId).containsExactly("2", "1");
+        assertThat(page.getResults().get(1).getSnippet()).contains("<em>distributed</em>");
+        assertThat(page.getResults().get(0).getMetadata()).containsEntry("lang", "en");
+    }
+
+    @Test
+    void search_escapesMarkupInSnippets() {
+        backend.index(document("1", "tenant-1", "Title", "Payload <img src=x onerror=alert(1)> & more"));
+        backend.refresh();
+
+        String snippet = backend.search(query("tenant-1", "payload").build()).getResults().get(0).getSnippet();
+
+        assertThat(snippet).startsWith("<em>Payload</em>").contains("&lt;img").doesNotContain("<img");
+    }
+
+    @Test
+    void search_isolatesTenants_andReturnsOnlyRequestedFields() {
+        backend.index(document("1", "tenant-1", "Shared title", "content"));
+        backend.index(document("2", "tenant-2", "Shared title", "content"));
+        backend.refresh();
+
+        SearchPage page = backend.search(query("tenant-2", "shared").fields(Set.of("id", "title")).build());
+
+        assertThat(page.getResults()).hasSize(1);
+        SearchResponse.SearchResult result = page.getResults().get(0);
+        assertThat(result.getId()).isEqualTo("2");
+        assertThat(result.getTitle()).isEqualTo("Shared title");
+        assertThat(result.getSnippet()).isNull();
+        assertThat(result.getScore()).isNull();
+        assertThat(backend.search(query("tenant-unknown", "shared").build()).getResults()).isEmpty();
+    }
+
+    @Test
+    void search_withCursor_walksAllHitsOnce() {
+        List<DocumentIndex> documents = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            documents.add(document("doc-" + i, "tenant-1", "Report " + i, "quarterly report"));
+        }
+        assertThat(backend.bulkIndex(documents, IndexingPriority.BULK)).allMatch(BulkItemResult::isSuccess);
+        backend.refresh();
+
+        List<String> seen = new ArrayList<>();
+        String cursor = SearchCursor.START;
+        while (cursor != null) {
+            SearchPage page = backend.search(query("tenant-1", "report").size(10).cursor(cursor).build());
+            page.getResults().forEach(result -> seen.add(result.getId()));
+            cursor = page.getNextCursor();
+        }
+
+        assertThat(seen).hasSize(25).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void bulkIndex_interactive_isSearchableOnReturn() {
+        backend.bulkIndex(List.of(document("1", "tenant-1", "Title", "content")), IndexingPriority.INTERACTIVE);
+
+        assertThat(backend.search(query("tenant-1", "title").build()).getTotal()).isEqualTo(1);
+    }
+
+    @Test
+    void digest_countsLiveDocuments_andSumsVersions_withoutTombstones() {
+        backend.index(versioned("1", 2, "First"));
+        backend.index(versioned("2", 3, "Second"));
+        backend.index(versioned("3", 1, "Third"));
+        backend.delete("tenant-1", "3", 2L);
+        backend.refresh();
+
+        assertThat(backend.digest("tenant-1")).isEqualTo(new IndexDigest(2, 5));
+        assertThat(backend.digest("tenant-unknown")).isEqualTo(IndexDigest.EMPTY);
+    }
+
+    @Test
+    void delete_removesDocumentAfterRefresh() {
+        backend.index(document("1", "tenant-1", "Title", "content"));
+        backend.refresh();
+
+        backend.delete("tenant-1", "1", null);
+        backend.refresh();
+
+        assertThat(backend.search(query("tenant-1", "title").build()).getTotal()).isZero();
+    }
+
+    @Test
+    void index_ignoresStaleVersion_andDeletionKeepsNewerVersionsOut() {
+        assertThat(backend.index(versioned("1", 2, "Second"))).isTrue();
+        assertThat(backend.index(versioned("1", 1, "First"))).isFalse();
+        assertThat(backend.delete("tenant-1", "1", 3L)).isTrue();
+        assertThat(backend.index(versioned("1", 2, "Second"))).isFalse();
+        backend.refresh();
+
+        assertThat(backend.search(query("tenant-1", "").build()).getTotal()).isZero();
+        assertThat(backend.bulkIndex(List.of(versioned("1", 2, "Second")), IndexingPriority.BULK))
+                .extracting(BulkItemResult::status).containsExactly(409);
+    }
+
+    @Test
+    void versions_surviveRestart() throws IOException {
+        backend.index(versioned("1", 5, "Fifth"));
+        backend.delete("tenant-1", "2", 4L);
+        backend.commit();
+        backend.close();
+
+        backend = open();
+
+        assertThat(backend.index(versioned("1", 4, "Fourth"))).isFalse();
+        assertThat(backend.index(versioned("2", 3, "Third"))).isFalse();
+        assertThat(backend.index(versioned("2", 4, "Fourth"))).isTrue();
+    }
+
+    @Test
+    void commit_purgesTombstonesOlderThanGcDeletes() throws IOException {
+        backend.index(versioned("1", 1, "First"));
+        backend.delete("tenant-1", "1", 2L);
+
+        now.addAndGet(30_000);
+        backend.commit();
+        assertThat(backend.index(versioned("1", 1, "First"))).isFalse();
+
+        now.addAndGet(31_000);
+        backend.commit();
+        backend.close();
+        backend = open();
+
+        // Neither the version map nor the index remembers the deletion
+        assertThat(backend.index(versioned("1", 1, "First"))).isTrue();
+    }
+
+    /**
+     * Replays every version of a set of documents, plus the deletion of half of them,
+     * from several threads in random order, as concurrent consumers would receive
+     * them after redeliveries. Whatever the interleaving, the index must end up with
+     * the last version of every surviving document and nothing else.
+     */
+    @Test
+    void concurrentOutOfOrderWrites_convergeOnLatestVersion() throws Exception {
+        int documentCount = 40;
+        int versions = 5;
+        List<Callable<Boolean>> writes = new ArrayList<>();
+        for (int d = 0; d < documentCount; d++) {
+            String id = "doc-" + d;
+            for (int v = 0; v < versions; v++) {
+                DocumentIndex document = versioned(id, v, "Revision " + v);
+                writes.add(() -> backend.index(document));
+                writes.add(() -> backend.bulkIndex(List.of(document), IndexingPriority.BULK).get(0).isSuccess());
+            }
+            if (d % 2 == 0) {
+                writes.add(() -> backend.delete("tenant-1", id, (long) versions));
+            }
+        }
+        Collections.shuffle(writes, new Random(42));
+
+        ExecutorService consumers = Executors.newFixedThreadPool(8);
+        try {
+            for (Future<Boolean> future : consumers.invokeAll(writes)) {
+                future.get();
+            }
+        } finally {
+            consumers.shutdown();
+        }
+        backend.refresh();
+
+        SearchPage page = backend.search(query("tenant-1", "").size(documentCount).build());
+        assertThat(page.getTotal()).isEqualTo(documentCount / 2);
+        assertThat(page.getResults()).allSatisfy(result -> {
+            assertThat(Integer.parseInt(result.getId().substring("doc-".length())) % 2).isEqualTo(1);
+            assertThat(result.getTitle()).isEqualTo("Revision " + (versions - 1));
+        });
+    }
+
+    private LuceneSearchBackend open() throws IOException {
+        return new LuceneSearchBackend(directory.toString(), 3.0, Duration.ofSeconds(60), new ObjectMapper(), now::get);
+    }
+
+    private DocumentIndex versioned(String id, long version, String title) {
+        DocumentIndex document = document(id, "tenant-1", title, "content");
+        document.setVersion(version);
+        return document;
+    }
+
+    private SearchQuery.SearchQueryBuilder query(String tenantId, String text) {
+        return SearchQuery.builder()
+                .tenantId(tenantId)
+                .text(text)
+                .page(0)
+                .size(10)
+                .fields(SearchQuery.ALL_FIELDS);
+    }
+
+    private DocumentIndex document(String id, String tenantId, String title, String content) {
+        return DocumentIndex.builder()
+                .id(id)
+                .tenantId(tenantId)
+                .title(title)
+                .content(content)
+                .metadata(Map.of("lang", "en"))
+                .build();
+    }
+}
@@ -0,0 +1,19 @@
+package com.distributed.documentsearch.search;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReindexJobTest {
+
+    @Test
+    void nextVersion_incrementsVersionSuffix() {
+        assertThat(ReindexJob.nextVersion("documents_v1")).isEqualTo("documents_v2");
+        assertThat(ReindexJob.nextVersion("documents_v9")).isEqualTo("documents_v10");
+    }
+
+    @Test
+    void nextVersion_startsVersioningUnversionedIndex() {
+        assertThat(ReindexJob.nextVersion("documents")).isEqualTo("documents_v2");
+    }
+}
@@ -0,0 +1,233 @@
+package com.distributed.documentsearch.service;
+
+import com.distributed.documentsearch.cache.DocumentStatusCache;
+import com.distributed.documentsearch.dto.DocumentEvent;
+import com.distributed.documentsearch.model.Document;
+import com.distributed.documentsearch.model.DocumentIndex;
+import com.distributed.documentsearch.model.DocumentStatus;
+import com.distributed.documentsearch.repository.DocumentRepository;
+import com.distributed.documentsearch.search.BulkItemResult;
+import com.distributed.documentsearch.search.IndexingPriority;
+import com.distributed.documentsearch.search.SearchBackend;
+import com.distributed.documentsearch.service.BulkIndexService.Outcome;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class BulkIndexServiceTest {
+
+    private DocumentRepository documentRepository;
+    private SearchBackend searchBackend;
+    private JdbcTemplate jdbcTemplate;
+    private IndexGenerationService indexGenerationService;
+    private DocumentStatusCache documentStatusCache;
+
+    private BulkIndexService bulkIndexService;
+
+    @BeforeEach
+    void setUp() {
+        documentRepository = mock(DocumentRepository.class);
+        searchBackend = mock(SearchBackend.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        indexGenerationService = mock(IndexGenerationService.class);
+        documentStatusCache = mock(DocumentStatusCache.class);
+        bulkIndexService = new BulkIndexService(documentRepository, searchBackend, jdbcTemplate,
+                indexGenerationService, documentStatusCache);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void indexDocuments_reportsPerItemOutcome_andBatchesStatusUpdates() {
+        Document indexed = document();
+        Document throttled = document();
+        Document rejected = document();
+        UUID missing = UUID.randomUUID();
+
+        when(documentRepository.findAllById(any())).thenReturn(List.of(indexed, throttled, rejected));
+        when(searchBackend.bulkIndex(anyList(), any())).thenReturn(List.of(
+                new BulkItemResult(indexed.getId().toString(), 201, null),
+                new BulkItemResult(throttled.getId().toString(), 429, "es_rejected_execution_exception"),
+                new BulkItemResult(rejected.getId().toString(), 400, "mapper_parsing_exception")));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 1});
+
+        Map<UUID, Outcome> outcomes = bulkIndexService.indexDocuments(List.of(
+                reference(indexed), reference(throttled), reference(rejected),
+                DocumentEvent.reference(missing.toString(), "tenant-test")), IndexingPriority.BULK);
+
+        assertThat(outcomes)
+                .containsEntry(indexed.getId(), Outcome.INDEXED)
+                .containsEntry(throttled.getId(), Outcome.RETRY)
+                .containsEntry(rejected.getId(), Outcome.REJECTED)
+                .containsEntry(missing, Outcome.MISSING);
+
+        ArgumentCaptor<List<Object[]>> captor = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), captor.capture());
+        List<String> updates = captor.getValue().stream()
+                .map(args -> args[0] + ":" + args[1])
+                .toList();
+        assertThat(updates).containsExactlyInAnyOrder(
+                DocumentStatus.INDEXED.name() + ":" + indexed.getId(),
+                DocumentStatus.FAILED.name() + ":" + rejected.getId());
+        verify(documentStatusCache).putAll(Map.of(
+                DocumentStatusCache.key(indexed.getId(), "tenant-test"), DocumentStatus.INDEXED,
+                DocumentStatusCache.key(rejected.getId(), "tenant-test"), DocumentStatus.FAILED));
+        // Not searchable before the next refresh
+        verify(indexGenerationService, times(1)).bumpAfterRefresh("tenant-test");
+        verify(indexGenerationService, never()).bump(anyString());
+    }
+
+    @Test
+    void indexDocuments_interactive_bumpsGenerationRightAway() {
+        Document document = document();
+        when(searchBackend.bulkIndex(anyList(), any()))
+                .thenReturn(List.of(new BulkItemResult(document.getId().toString(), 201, null)));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+
+        bulkIndexService.indexDocuments(List.of(DocumentEvent.snapshot(document)), IndexingPriority.INTERACTIVE);
+
+        verify(indexGenerationService).bump("tenant-test");
+        verify(indexGenerationService, never()).bumpAfterRefresh(anyString());
+    }
+
+    @Test
+    void indexDocuments_retriesWholeBatch_whenBulkRequestFails() {
+        Document first = document();
+        Document second = document();
+
+        when(documentRepository.findAllById(any())).thenReturn(List.of(first, second));
+        when(searchBackend.bulkIndex(anyList(), any()))
+                .thenThrow(new UncheckedIOException(new IOException("connection reset")));
+
+        Map<UUID, Outcome> outcomes = bulkIndexService.indexDocuments(
+                List.of(reference(first), reference(second)), IndexingPriority.BULK);
+
+        assertThat(outcomes.values()).containsOnly(Outcome.RETRY);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(indexGenerationService, never()).bump(anyString());
+        verify(indexGenerationService, never()).bumpAfterRefresh(anyString());
+    }
+
+    @Test
+    void indexDocuments_skipsBulkRequest_whenNoDocumentExists() {
+        UUID missing = UUID.randomUUID();
+        when(documentRepository.findAllById(any())).thenReturn(List.of());
+
+        Map<UUID, Outcome> outcomes = bulkIndexService.indexDocuments(
+                List.of(DocumentEvent.reference(missing.toString(), "tenant-test")), IndexingPriority.BULK);
+
+        assertThat(outcomes).containsExactly(Map.entry(missing, Outcome.MISSING));
+        verify(searchBackend, never()).bulkIndex(anyList(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void indexDocuments_indexesSnapshots_withoutReadingTheDatabase() {
+        Document document = document();
+        when(searchBackend.bulkIndex(anyList(), any()))
+                .thenReturn(List.of(new BulkItemResult(document.getId().toString(), 201, null)));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1});
+
+        Map<UUID, Outcome> outcomes = bulkIndexService.indexDocuments(
+                List.of(DocumentEvent.snapshot(document)), IndexingPriority.BULK);
+
+        assertThat(outcomes).containsExactly(Map.entry(document.getId(), Outcome.INDEXED));
+        verify(documentRepository, never()).findAllById(any());
+        ArgumentCaptor<List<DocumentIndex>> captor = ArgumentCaptor.forClass(List.class);
+        verify(searchBackend).bulkIndex(captor.capture(), eq(IndexingPriority.BULK));
+        assertThat(captor.getValue().get(0).getContent()).isEqualTo("Content");
+    }
+
+    @Test
+    void indexDocuments_removesSnapshot_whenDocumentWasDeletedMeanwhile() {
+        Document document = document();
+        when(searchBackend.bulkIndex(anyList(), any()))
+                .thenReturn(List.of(new BulkItemResult(document.getId().toString(), 201, null)));
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{0});
+
+        Map<UUID, Outcome> outcomes = bulkIndexService.indexDocuments(
+                List.of(DocumentEvent.snapshot(document)), IndexingPriority.BULK);
+
+        assertThat(outcomes).containsExactly(Map.entry(document.getId(), Outcome.MISSING));
+        verify(searchBackend).delete("tenant-test", document.getId().toString(), 0L);
+        verify(indexGenerationService, never()).bump(anyString());
+        verify(indexGenerationService, never()).bumpAfterRefresh(anyString());
+    }
+
+    @Test
+    void indexDocuments_acknowledgesStaleVersions_withoutUpdatingStatus() {
+        Document document = document();
+        when(searchBackend.bulkIndex(anyList(), any())).thenReturn(List.of(
+                new BulkItemResult(document.getId().toString(), 409, "version_conflict_engine_exception")));
+
+        Map<UUID, Outcome> outcomes = bulkIndexService.indexDocuments(
+                List.of(DocumentEvent.snapshot(document)), IndexingPriority.BULK);
+
+        assertThat(outcomes).containsExactly(Map.entry(document.getId(), Outcome.STALE));
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+        verify(indexGenerationService, never()).bump(anyString());
+        verify(indexGenerationService, never()).bumpAfterRefresh(anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void indexDocuments_keepsLatestVersion_ofDocumentRepeatedInBatch() {
+        Document document = document();
+        DocumentEvent older = DocumentEvent.snapshot(document);
+        document.setTitle("Renamed");
+        document.setVersion(1L);
+        DocumentEvent newer = DocumentEvent.snapshot(document);
+        when(searchBackend.bulkIndex(anyList(), any()))
+                .thenReturn(List.of(new BulkItemResult(document.getId().toString(), 201, null)));
+
+        bulkIndexService.indexDocuments(List.of(newer, older), IndexingPriority.BULK);
+
+        ArgumentCaptor<List<DocumentIndex>> captor = ArgumentCaptor.forClass(List.class);
+        verify(searchBackend).bulkIndex(captor.capture(), eq(IndexingPriority.BULK));
+        assertThat(captor.getValue()).hasSize(1);
+        assertThat(captor.getValue().get(0).getVersion()).isEqualTo(1L);
+        assertThat(captor.getValue().get(0).getTitle()).isEqualTo("Renamed");
+    }
+
+    @Test
+    void indexDocuments_readsDatabase_forEventsOfNewerSchema() {
+        Document document = document();
+        DocumentEvent event = DocumentEvent.snapshot(document);
+        event.setSchemaVersion(DocumentEvent.SCHEMA_VERSION + 1);
+        when(documentRepository.findAllById(any())).thenReturn(List.of(document));
+        when(searchBackend.bulkIndex(anyList(), any()))
+                .thenReturn(List.of(new BulkItemResult(document.getId().toString(), 201, null)));
+
+        bulkIndexService.indexDocuments(List.of(event), IndexingPriority.BULK);
+
+        verify(documentRepository).findAllById(any());
+    }
+
+    private DocumentEvent reference(Document document) {
+        return DocumentEvent.reference(document.getId().toString(), document.getTenantId());
+    }
+
+    private Document document() {
+        return Document.builder()
+                .id(UUID.randomUUID())
+                .tenantId("tenant-test")
+                .title("Title")
+                .content("Content")
+                .status(DocumentStatus.INDEXING)
+                .version(0L)
+                .build();
+    }
+}
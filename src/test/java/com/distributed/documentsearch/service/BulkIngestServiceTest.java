@@ -0,0 +1,183 @@
+package com.distributed.documentsearch.service;
+
+import com.distributed.documentsearch.cache.DocumentExistenceFilter;
+import com.distributed.documentsearch.dto.BulkDocumentResponse;
+import com.distributed.documentsearch.dto.DocumentBatchEvent;
+import com.distributed.documentsearch.dto.DocumentEvent;
+import com.distributed.documentsearch.exception.RequestCostExceedsLimitException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class BulkIngestServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private OutboxService outboxService;
+    private RateLimitService rateLimitService;
+
+    private BulkIngestService bulkIngestService;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        outboxService = mock(OutboxService.class);
+        rateLimitService = mock(RateLimitService.class);
+        when(rateLimitService.acquire(anyString(), anyLong())).thenReturn(RateLimitDecision.allowed(100, 50));
+
+        bulkIngestService = new BulkIngestService(
+                jdbcTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                outboxService,
+                new DocumentEventFactory(DataSize.ofKilobytes(64)),
+                rateLimitService,
+                new RateLimitCosts(),
+                new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                mock(DocumentExistenceFilter.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void ingest_acceptsNdjson_andReportsInvalidItems() throws IOException {
+        String body = """
+                {"title":"First","content":"one"}
+                {"content":"missing title"}
+                {"title":"Third","content":"three","metadata":{"lang":"en"}}
+                """;
+
+        BulkDocumentResponse response = bulkIngestService.ingest("tenant-1", stream(body));
+
+        assertThat(response.getErrors()).isTrue();
+        assertThat(response.getItems()).extracting(BulkDocumentResponse.ItemResult::getStatus)
+                .containsExactly(201, 400, 201);
+        assertThat(response.getItems().get(1).getError()).isEqualTo("Title is required");
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), rows.capture());
+        assertThat(rows.getValue()).hasSize(2);
+        assertThat(rows.getValue().get(1)[5]).isEqualTo("{\"lang\":\"en\"}");
+
+        verify(rateLimitService).acquire("tenant-1", 2);
+        ArgumentCaptor<DocumentBatchEvent> event = ArgumentCaptor.forClass(DocumentBatchEvent.class);
+        verify(outboxService, times(1))
+                .enqueue(eq("document-exchange"), eq("document.bulk.tenant-1"), event.capture());
+        assertThat(event.getValue().getDocuments()).hasSize(2);
+        assertThat(event.getValue().getDocuments().get(1).getMetadata()).containsEntry("lang", "en");
+        assertThat(event.getValue().getDocuments()).allMatch(DocumentEvent::isSelfContained);
+    }
+
+    @Test
+    void ingest_acceptsJsonArray_inChunks() throws IOException {
+        setChunkSize(2);
+        String body = """
+                [{"title":"A","content":"a"},{"title":"B","content":"b"},{"title":"C","content":"c"}]
+                """;
+
+        BulkDocumentResponse response = bulkIngestService.ingest("tenant-1", stream(body));
+
+        assertThat(response.getErrors()).isFalse();
+        assertThat(response.getItems()).hasSize(3);
+        verify(jdbcTemplate, times(2)).batchUpdate(anyString(), anyList());
+        verify(outboxService, times(2))
+                .enqueue(anyString(), anyString(), any(DocumentBatchEvent.class));
+    }
+
+    @Test
+    void ingest_reportsEveryItemAfterFirstChunkDeniedByRateLimit() throws IOException {
+        setChunkSize(1);
+        when(rateLimitService.acquire(anyString(), anyLong())).thenReturn(
+                RateLimitDecision.allowed(100, 50), RateLimitDecision.denied(100, 0, Duration.ofSeconds(1)));
+        String body = """
+                {"title":"A","content":"a"}
+                {"title":"B","content":"b"}
+                {"title":"C","content":"c"}
+                """;
+
+        BulkDocumentResponse response = bulkIngestService.ingest("tenant-1", stream(body));
+
+        assertThat(response.getItems()).extracting(BulkDocumentResponse.ItemResult::getStatus)
+                .containsExactly(201, 429, 429);
+        assertThat(response.getItems()).extracting(BulkDocumentResponse.ItemResult::getIndex)
+                .containsExactly(0, 1, 2);
+        verify(rateLimitService, times(2)).acquire(anyString(), anyLong());
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void ingest_releasesCharge_andReportsRemainingItems_whenChunkFailsToPersist() throws IOException {
+        setChunkSize(1);
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenThrow(new RuntimeException("Database down"));
+        String body = """
+                {"title":"A","content":"a"}
+                {"title":"B","content":"b"}
+                """;
+
+        BulkDocumentResponse response = bulkIngestService.ingest("tenant-1", stream(body));
+
+        assertThat(response.getItems()).extracting(BulkDocumentResponse.ItemResult::getStatus)
+                .containsExactly(500, 503);
+        verify(rateLimitService).release(eq("tenant-1"), any(RateLimitDecision.class), eq(1L));
+        verify(outboxService, never()).enqueue(anyString(), anyString(), any());
+    }
+
+    @Test
+    void ingest_rejectsEveryItem_whenChunksCostMoreThanTheLimit() throws IOException {
+        when(rateLimitService.acquire(anyString(), anyLong()))
+                .thenThrow(new RequestCostExceedsLimitException("Request costs 2 rate limit units"));
+        String body = """
+                {"title":"A","content":"a"}
+                {"title":"B","content":"b"}
+                """;
+
+        BulkDocumentResponse response = bulkIngestService.ingest("tenant-1", stream(body));
+
+        assertThat(response.getItems()).extracting(BulkDocumentResponse.ItemResult::getStatus)
+                .containsExactly(400, 400);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    void ingest_persistsValidPrefix_whenStreamIsMalformed() throws IOException {
+        String body = """
+                {"title":"A","content":"a"}
+                {"title":"B",
+                """;
+
+        BulkDocumentResponse response = bulkIngestService.ingest("tenant-1", stream(body));
+
+        assertThat(response.getItems()).extracting(BulkDocumentResponse.ItemResult::getStatus)
+                .containsExactly(201, 400);
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), anyList());
+    }
+
+    private InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void setChunkSize(int chunkSize) {
+        try {
+            java.lang.reflect.Field field = BulkIngestService.class.getDeclaredField("chunkSize");
+            field.setAccessible(true);
+            field.set(bulkIngestService, chunkSize);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -1,19 +1,27 @@
 package com.distributed.documentsearch.service;
 
+import com.distributed.documentsearch.cache.DocumentExistenceFilter;
+import com.distributed.documentsearch.cache.DocumentStatusCache;
 import com.distributed.documentsearch.config.TenantContext;
+import com.distributed.documentsearch.dto.DocumentEvent;
 import com.distributed.documentsearch.dto.DocumentRequest;
 import com.distributed.documentsearch.dto.DocumentResponse;
+import com.distributed.documentsearch.dto.MultiGetResponse;
+import com.distributed.documentsearch.exception.DocumentNotFoundException;
 import com.distributed.documentsearch.model.Document;
-import com.distributed.documentsearch.model.DocumentIndex;
 import com.distributed.documentsearch.model.DocumentStatus;
-import com.distributed.documentsearch.repository.DocumentIndexRepository;
+import com.distributed.documentsearch.model.DocumentSummary;
 import com.distributed.documentsearch.repository.DocumentRepository;
+import com.distributed.documentsearch.search.SearchBackend;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
-import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.util.unit.DataSize;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -25,17 +33,27 @@ import static org.mockito.Mockito.*;
 class DocumentServiceTest {
 
     private DocumentRepository documentRepository;
-    private DocumentIndexRepository documentIndexRepository;
-    private RabbitTemplate rabbitTemplate;
+    private SearchBackend searchBackend;
+    private OutboxService outboxService;
+    private IndexGenerationService indexGenerationService;
+    private ConcurrentMapCacheManager cacheManager;
+    private DocumentStatusCache documentStatusCache;
+    private DocumentExistenceFilter documentExistenceFilter;
 
     private DocumentService documentService;
 
     @BeforeEach
     void setUp() {
         documentRepository = mock(DocumentRepository.class);
-        documentIndexRepository = mock(DocumentIndexRepository.class);
-        rabbitTemplate = mock(RabbitTemplate.class);
-        documentService = new DocumentService(documentRepository, documentIndexRepository, rabbitTemplate);
+        searchBackend = mock(SearchBackend.class);
+        outboxService = mock(OutboxService.class);
+        indexGenerationService = mock(IndexGenerationService.class);
+        cacheManager = new ConcurrentMapCacheManager("documents");
+        documentStatusCache = mock(DocumentStatusCache.class);
+        documentExistenceFilter = mock(DocumentExistenceFilter.class);
+        documentService = new DocumentService(documentRepository, searchBackend, outboxService,
+                new DocumentEventFactory(DataSize.ofKilobytes(64)), indexGenerationService,
+                cacheManager, documentStatusCache, documentExistenceFilter);
 
         TenantContext.setTenantId("tenant-test");
     }
@@ -46,7 +64,7 @@ class DocumentServiceTest {
     }
 
     @Test
-    void createDocument_persistsEntity_andPublishesIndexMessage() {
+    void createDocument_persistsEntity_andEnqueuesIndexMessage() {
         DocumentRequest request = new DocumentRequest();
         request.setTitle("Test Title");
         request.setContent("Test Content");
@@ -59,7 +77,7 @@ class DocumentServiceTest {
                 .status(DocumentStatus.INDEXING)
                 .build();
 
-        when(documentRepository.save(any(Document.class))).thenReturn(saved);
+        when(documentRepository.saveAndFlush(any(Document.class))).thenReturn(saved);
 
         DocumentResponse response = documentService.createDocument(request);
 
@@ -68,9 +86,48 @@ class DocumentServiceTest {
         assertThat(response.getTitle()).isEqualTo("Test Title");
         assertThat(response.getStatus()).isEqualTo(DocumentStatus.INDEXING);
 
-        verify(documentRepository, times(1)).save(any(Document.class));
-        verify(rabbitTemplate, times(1))
-                .convertAndSend(eq("document-exchange"), startsWith("document.index."), eq(saved.getId().toString()));
+        verify(documentRepository, times(1)).saveAndFlush(any(Document.class));
+        ArgumentCaptor<DocumentEvent> event = ArgumentCaptor.forClass(DocumentEvent.class);
+        verify(outboxService, times(1))
+                .enqueue(eq("document-exchange"), eq("document.index.tenant-test"), event.capture());
+        assertThat(event.getValue().getDocumentId()).isEqualTo(saved.getId().toString());
+        assertThat(event.getValue().isSelfContained()).isTrue();
+        assertThat(event.getValue().getContent()).isEqualTo("Test Content");
+        verify(documentExistenceFilter).addAll("tenant-test", List.of(saved.getId()));
+    }
+
+    @Test
+    void createDocument_writesThroughToCache() {
+        DocumentRequest request = new DocumentRequest();
+        request.setTitle("Test Title");
+        request.setContent("Test Content");
+        UUID id = UUID.randomUUID();
+        when(documentRepository.saveAndFlush(any(Document.class))).thenAnswer(invocation -> {
+            Document document = invocation.getArgument(0);
+            document.setId(id);
+            return document;
+        });
+
+        documentService.createDocument(request);
+        DocumentResponse cached = documentService.getDocument(id, "tenant-test", null);
+
+        assertThat(cached.getTitle()).isEqualTo("Test Title");
+        verify(documentRepository, never()).findByIdAndTenantId(any(), any());
+    }
+
+    @Test
+    void getDocument_patchesCachedStatus_fromStatusKey() {
+        UUID id = UUID.randomUUID();
+        cacheManager.getCache("documents").put(DocumentStatusCache.key(id, "tenant-test"),
+                DocumentResponse.builder().id(id).tenantId("tenant-test").status(DocumentStatus.INDEXING).build());
+        when(documentStatusCache.get(id, "tenant-test")).thenReturn(DocumentStatus.INDEXED);
+
+        DocumentResponse response = documentService.getDocument(id, "tenant-test", null);
+
+        assertThat(response.getStatus()).isEqualTo(DocumentStatus.INDEXED);
+        assertThat(cacheManager.getCache("documents").get(DocumentStatusCache.key(id, "tenant-test"),
+                DocumentResponse.class).getStatus()).isEqualTo(DocumentStatus.INDEXING);
+        verify(documentRepository, never()).findByIdAndTenantId(any(), any());
     }
 
     @Test
@@ -86,23 +143,77 @@ class DocumentServiceTest {
 
         when(documentRepository.findByIdAndTenantId(id, "tenant-test")).thenReturn(Optional.of(existing));
 
-        DocumentResponse response = documentService.getDocument(id, "tenant-test");
+        DocumentResponse response = documentService.getDocument(id, "tenant-test", null);
 
         assertThat(response.getId()).isEqualTo(id);
         assertThat(response.getTenantId()).isEqualTo("tenant-test");
         assertThat(response.getStatus()).isEqualTo(DocumentStatus.INDEXED);
     }
 
+    @Test
+    void getDocument_readsSummaryWithoutContent_andCachesItSeparately() {
+        UUID id = UUID.randomUUID();
+        when(documentRepository.findSummaryByIdAndTenantId(id, "tenant-test")).thenReturn(Optional.of(
+                new DocumentSummary(id, "tenant-test", "Title", DocumentStatus.INDEXED, Map.of("lang", "en"), null, null)));
+
+        DocumentResponse response = documentService.getDocument(id, "tenant-test", List.of("Title", "status", "bogus"));
+
+        assertThat(response.getId()).isEqualTo(id);
+        assertThat(response.getTitle()).isEqualTo("Title");
+        assertThat(response.getStatus()).isEqualTo(DocumentStatus.INDEXED);
+        assertThat(response.getMetadata()).isNull();
+        assertThat(cacheManager.getCache("documents").get(DocumentStatusCache.key(id, "tenant-test") + ":summary"))
+                .isNotNull();
+        assertThat(cacheManager.getCache("documents").get(DocumentStatusCache.key(id, "tenant-test"))).isNull();
+        verify(documentRepository, never()).findByIdAndTenantId(any(), any());
+    }
+
     @Test
     void getDocument_throws_whenNotFound() {
         UUID id = UUID.randomUUID();
         when(documentRepository.findByIdAndTenantId(id, "tenant-test")).thenReturn(Optional.empty());
 
-        assertThrows(RuntimeException.class, () -> documentService.getDocument(id, "tenant-test"));
+        assertThrows(RuntimeException.class, () -> documentService.getDocument(id, "tenant-test", null));
+        verify(documentExistenceFilter).markMissing(id, "tenant-test");
+    }
+
+    @Test
+    void getDocument_skipsDatabase_whenFilterRulesDocumentOut() {
+        UUID id = UUID.randomUUID();
+        when(documentExistenceFilter.isMissing(id, "tenant-test")).thenReturn(true);
+
+        assertThrows(DocumentNotFoundException.class, () -> documentService.getDocument(id, "tenant-test", null));
+        verify(documentRepository, never()).findByIdAndTenantId(any(), any());
     }
 
     @Test
-    void deleteDocument_marksDeleted_deletesFromIndex_andPublishesDeleteMessage() {
+    void getDocuments_readsCacheTogether_andLoadsMissesWithOneQuery() {
+        UUID cached = UUID.randomUUID();
+        UUID stored = UUID.randomUUID();
+        UUID missing = UUID.randomUUID();
+        cacheManager.getCache("documents").put(DocumentStatusCache.key(cached, "tenant-test"),
+                DocumentResponse.builder().id(cached).tenantId("tenant-test").status(DocumentStatus.INDEXING).build());
+        when(documentStatusCache.getAll(List.of(DocumentStatusCache.key(cached, "tenant-test"))))
+                .thenReturn(Map.of(DocumentStatusCache.key(cached, "tenant-test"), DocumentStatus.INDEXED));
+        when(documentRepository.findAllByIdsAndTenantId(new UUID[]{missing, stored}, "tenant-test"))
+                .thenReturn(List.of(Document.builder()
+                        .id(stored)
+                        .tenantId("tenant-test")
+                        .title("Stored")
+                        .status(DocumentStatus.INDEXED)
+                        .build()));
+
+        MultiGetResponse response = documentService.getDocuments(List.of(missing, stored, cached, stored), "tenant-test", null);
+
+        assertThat(response.getDocuments()).extracting(DocumentResponse::getId).containsExactly(stored, cached);
+        assertThat(response.getDocuments().get(1).getStatus()).isEqualTo(DocumentStatus.INDEXED);
+        assertThat(response.getMissing()).containsExactly(missing);
+        assertThat(cacheManager.getCache("documents").get(DocumentStatusCache.key(stored, "tenant-test"))).isNotNull();
+        verify(documentExistenceFilter).markMissing(missing, "tenant-test");
+    }
+
+    @Test
+    void deleteDocument_marksDeleted_deletesFromIndex_andEnqueuesDeleteMessage() {
         UUID id = UUID.randomUUID();
         Document existing = Document.builder()
                 .id(id)
@@ -113,56 +224,36 @@ class DocumentServiceTest {
                 .build();
 
         when(documentRepository.findByIdAndTenantId(id, "tenant-test")).thenReturn(Optional.of(existing));
+        // The flush increments the version, as JPA does on update
+        when(documentRepository.saveAndFlush(any(Document.class))).thenAnswer(invocation -> {
+            Document document = invocation.getArgument(0);
+            document.setVersion(1L);
+            return document;
+        });
 
         documentService.deleteDocument(id, "tenant-test");
 
         ArgumentCaptor<Document> captor = ArgumentCaptor.forClass(Document.class);
-        verify(documentRepository, atLeastOnce()).save(captor.capture());
+        verify(documentRepository, atLeastOnce()).saveAndFlush(captor.capture());
         Document saved = captor.getValue();
         assertThat(saved.getStatus()).isEqualTo(DocumentStatus.DELETED);
 
-        verify(documentIndexRepository, times(1)).deleteById(id.toString());
-        verify(rabbitTemplate, times(1))
-                .convertAndSend(eq("document-exchange"), startsWith("document.delete."), eq(id.toString()));
+        verify(searchBackend, times(1)).delete("tenant-test", id.toString(), 1L);
+        verify(indexGenerationService).bump("tenant-test");
+        ArgumentCaptor<DocumentEvent> event = ArgumentCaptor.forClass(DocumentEvent.class);
+        verify(outboxService, times(1))
+                .enqueue(eq("document-exchange"), eq("document.delete.tenant-test"), event.capture());
+        assertThat(event.getValue().getDocumentId()).isEqualTo(id.toString());
+        assertThat(event.getValue().getVersion()).isEqualTo(1L);
     }
 
     @Test
-    void indexDocument_updatesStatusToIndexed_onSuccess() {
+    void deleteIndex_skipsGenerationBump_whenDeletionIsStale() {
         UUID id = UUID.randomUUID();
-        Document existing = Document.builder()
-                .id(id)
-                .tenantId("tenant-test")
-                .title("Title")
-                .content("Content")
-                .status(DocumentStatus.INDEXING)
-                .build();
-
-        when(documentRepository.findById(id)).thenReturn(Optional.of(existing));
+        when(searchBackend.delete("tenant-test", id.toString(), 1L)).thenReturn(false);
 
-        documentService.indexDocument(id);
+        documentService.deleteIndex(id, "tenant-test", 1L);
 
-        verify(documentIndexRepository, times(1)).save(any(DocumentIndex.class));
-        verify(documentRepository, atLeastOnce()).save(existing);
-        assertThat(existing.getStatus()).isEqualTo(DocumentStatus.INDEXED);
-    }
-
-    @Test
-    void indexDocument_setsStatusFailed_onError() {
-        UUID id = UUID.randomUUID();
-        Document existing = Document.builder()
-                .id(id)
-                .tenantId("tenant-test")
-                .title("Title")
-                .content("Content")
-                .status(DocumentStatus.INDEXING)
-                .build();
-
-        when(documentRepository.findById(id)).thenReturn(Optional.of(existing));
-        when(documentIndexRepository.save(any(DocumentIndex.class))).thenThrow(new RuntimeException("ES error"));
-
-        assertThrows(RuntimeException.class, () -> documentService.indexDocument(id));
-        verify(documentRepository, atLeastOnce()).save(existing);
-        assertThat(existing.getStatus()).isEqualTo(DocumentStatus.FAILED);
+        verify(indexGenerationService, never()).bump(anyString());
     }
 }
-
@@ -0,0 +1,60 @@
+package com.distributed.documentsearch.service;
+
+import com.distributed.documentsearch.cache.DocumentExistenceFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ExistenceFilterRebuilderTest {
+
+    private DocumentExistenceFilter filter;
+    private JdbcTemplate jdbcTemplate;
+
+    private ExistenceFilterRebuilder rebuilder;
+
+    @BeforeEach
+    void setUp() {
+        filter = mock(DocumentExistenceFilter.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        rebuilder = new ExistenceFilterRebuilder(filter, jdbcTemplate, 3_600_000, 2);
+    }
+
+    @Test
+    void rebuild_addsAllIdsPageByPage_thenPublishes() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+        when(jdbcTemplate.queryForList(anyString(), eq(UUID.class), eq("tenant-1"), any(UUID.class), eq(2)))
+                .thenReturn(List.of(first, second), List.of(third));
+        when(filter.publishRebuild("tenant-1")).thenReturn(true);
+
+        long added = rebuilder.rebuild("tenant-1");
+
+        assertThat(added).isEqualTo(3);
+        InOrder inOrder = inOrder(filter);
+        inOrder.verify(filter).beginRebuild("tenant-1");
+        inOrder.verify(filter).addRebuilt("tenant-1", List.of(first, second));
+        inOrder.verify(filter).addRebuilt("tenant-1", List.of(third));
+        inOrder.verify(filter).publishRebuild("tenant-1");
+        verify(jdbcTemplate).queryForList(anyString(), eq(UUID.class), eq("tenant-1"), eq(second), eq(2));
+    }
+
+    @Test
+    void rebuildAll_skipsWhenAnotherNodeRebuilds() {
+        when(filter.claimRebuild(Duration.ofHours(1))).thenReturn(false);
+
+        rebuilder.rebuildAll();
+
+        verify(filter, never()).beginRebuild(anyString());
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
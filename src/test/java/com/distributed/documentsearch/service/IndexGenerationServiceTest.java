@@ -0,0 +1,88 @@
+package com.distributed.documentsearch.service;
+
+import com.distributed.documentsearch.cache.SearchCacheKeyGenerator;
+import com.distributed.documentsearch.dto.SearchRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.scheduling.TaskScheduler;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class IndexGenerationServiceTest {
+
+    private ValueOperations<String, String> values;
+    private TaskScheduler taskScheduler;
+    private AtomicLong now;
+    private IndexGenerationService indexGenerationService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RedisTemplate<String, String> redisTemplate = mock(RedisTemplate.class);
+        values = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        AtomicLong counter = new AtomicLong();
+        when(values.increment(anyString())).thenAnswer(invocation -> counter.incrementAndGet());
+        taskScheduler = mock(TaskScheduler.class);
+        now = new AtomicLong(10_000);
+
+        indexGenerationService = new IndexGenerationService(redisTemplate, Duration.ofSeconds(1), taskScheduler,
+                Duration.ofSeconds(2), now::get);
+    }
+
+    @Test
+    void bumpAfterRefresh_invalidatesSearchesRunBeforeTheWriteWasSearchable() {
+        SearchCacheKeyGenerator keyGenerator = new SearchCacheKeyGenerator(indexGenerationService);
+        SearchRequest request = new SearchRequest();
+        request.setTenant("tenant-1");
+        request.setQ("report");
+
+        indexGenerationService.bumpAfterRefresh("tenant-1");
+
+        // Searched before the refresh: the old hits are cached under the current generation
+        Object inWindow = keyGenerator.generate(null, null, request);
+        verify(values, never()).increment(anyString());
+
+        now.addAndGet(2000);
+        lastScheduled().run();
+
+        assertThat(keyGenerator.generate(null, null, request)).isNotEqualTo(inWindow);
+    }
+
+    @Test
+    void bumpAfterRefresh_coalescesWrites_andBumpsAgainForWritesAfterTheCoveredOnes() {
+        indexGenerationService.bumpAfterRefresh("tenant-1");
+        now.addAndGet(500);
+        indexGenerationService.bumpAfterRefresh("tenant-1");
+        verify(taskScheduler, times(1)).schedule(any(Runnable.class), any(Instant.class));
+
+        now.addAndGet(1500);
+        lastScheduled().run();
+
+        // The second write is only 1.5s old, so another bump follows
+        verify(values, times(1)).increment("index-generation:tenant-1");
+        verify(taskScheduler, times(2)).schedule(any(Runnable.class), any(Instant.class));
+
+        now.addAndGet(500);
+        lastScheduled().run();
+
+        verify(values, times(2)).increment("index-generation:tenant-1");
+        verify(taskScheduler, times(2)).schedule(any(Runnable.class), any(Instant.class));
+    }
+
+    private Runnable lastScheduled() {
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(taskScheduler, atLeastOnce()).schedule(captor.capture(), any(Instant.class));
+        return captor.getValue();
+    }
+}
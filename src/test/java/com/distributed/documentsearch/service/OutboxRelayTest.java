@@ -0,0 +1,109 @@
+package com.distributed.documentsearch.service;
+
+import com.distributed.documentsearch.model.OutboxEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class OutboxRelayTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private RabbitTemplate rabbitTemplate;
+
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        rabbitTemplate = mock(RabbitTemplate.class);
+        outboxRelay = new OutboxRelay(
+                jdbcTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                rabbitTemplate,
+                2,
+                Duration.ofMillis(100));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relayBatch_publishesClaimedRows_andDeletesConfirmedOnes() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(2)))
+                .thenReturn(List.of(event(1L), event(2L)));
+        confirm(Set.of("1", "2"));
+
+        int published = outboxRelay.relayBatch();
+
+        assertThat(published).isEqualTo(2);
+        ArgumentCaptor<Message> message = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate, times(2)).send(eq("document-exchange"), eq("document.index.tenant-1"),
+                message.capture(), any(CorrelationData.class));
+        assertThat(new String(message.getValue().getBody())).isEqualTo("\"doc-2\"");
+        assertThat(message.getValue().getMessageProperties().getHeaders())
+                .containsEntry("__TypeId__", "java.lang.String");
+
+        ArgumentCaptor<List<Object[]>> deleted = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("DELETE"), deleted.capture());
+        assertThat(deleted.getValue()).map(args -> args[0]).containsExactly(1L, 2L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relayBatch_keepsUnconfirmedRows_forTheNextPoll() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(2)))
+                .thenReturn(List.of(event(1L), event(2L)));
+        confirm(Set.of("1"));
+
+        int published = outboxRelay.relayBatch();
+
+        assertThat(published).isZero();
+        ArgumentCaptor<List<Object[]>> deleted = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(contains("DELETE"), deleted.capture());
+        assertThat(deleted.getValue()).map(args -> args[0]).containsExactly(1L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void relay_drainsOutbox_inFullBatches() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), eq(2)))
+                .thenReturn(List.of(event(1L), event(2L)), List.of(event(3L)));
+        confirm(Set.of("1", "2", "3"));
+
+        outboxRelay.relay();
+
+        verify(rabbitTemplate, times(3)).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+        verify(jdbcTemplate, times(2)).batchUpdate(contains("DELETE"), anyList());
+    }
+
+    private void confirm(Set<String> acked) {
+        doAnswer(invocation -> {
+            CorrelationData correlation = invocation.getArgument(3);
+            correlation.getFuture().complete(new CorrelationData.Confirm(acked.contains(correlation.getId()), null));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    private OutboxEvent event(long id) {
+        return OutboxEvent.builder()
+                .id(id)
+                .exchange("document-exchange")
+                .routingKey("document.index.tenant-1")
+                .payloadType(String.class.getName())
+                .payload("\"doc-" + id + "\"")
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+package com.distributed.documentsearch.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rate-limit decisions per second of the leased local buckets, compared with
+ * charging every request to Redis (INCRBY plus EXPIRE), as the service did
+ * before leases.
+ *
+ * Needs a Redis server, by default localhost:6379 ({@code docker-compose up -d redis});
+ * set {@code -Dredis.host} and {@code -Dredis.port} otherwise:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.distributed.documentsearch.service.RateLimitBenchmark
+ * </pre>
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class RateLimitBenchmark {
+
+    /** Limit high enough that every request is admitted */
+    private static final int LIMIT = Integer.MAX_VALUE;
+
+    private static final int WINDOW_SIZE_SECONDS = 60;
+
+    @Param({"16"})
+    int tenants;
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+    private RateLimitService leased;
+
+    @Setup
+    public void setUp() {
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration(
+                System.getProperty("redis.host", "localhost"), Integer.getInteger("redis.port", 6379)));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        leased = new RateLimitService(redisTemplate, true, LIMIT, WINDOW_SIZE_SECONDS, 1000);
+    }
+
+    @TearDown
+    public void tearDown() {
+        leased.close();
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public boolean leasedLocalBuckets(TenantCursor cursor) {
+        return leased.acquire(cursor.next(tenants), 1).allowed();
+    }
+
+    @Benchmark
+    public boolean redisPerRequest(TenantCursor cursor) {
+        return chargeRedis(cursor.next(tenants));
+    }
+
+    /**
+     * The fixed window check the leases replaced.
+     */
+    private boolean chargeRedis(String tenantId) {
+        long window = System.currentTimeMillis() / (WINDOW_SIZE_SECONDS * 1000L);
+        String key = "ratelimit:baseline:" + tenantId + ":" + window;
+        Long count = redisTemplate.opsForValue().increment(key, 1);
+        if (count != null && count == 1) {
+            redisTemplate.expire(key, Duration.ofSeconds(WINDOW_SIZE_SECONDS));
+        }
+        return count != null && count <= LIMIT;
+    }
+
+    /**
+     * Spreads each thread's requests over the tenants.
+     */
+    @State(Scope.Thread)
+    public static class TenantCursor {
+
+        private int next;
+
+        String next(int tenants) {
+            next = (next + 1) % tenants;
+            return "tenant-" + next;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RateLimitBenchmark.class.getSimpleName())
+                .build())
+                .run();
+    }
+}
@@ -1,75 +1,143 @@
 package com.distributed.documentsearch.service;
 
+import com.distributed.documentsearch.exception.RequestCostExceedsLimitException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
 
 import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 class RateLimitServiceTest {
 
     private RedisTemplate<String, String> redisTemplate;
-    private ValueOperations<String, String> valueOperations;
+    private AtomicLong now;
     private RateLimitService rateLimitService;
 
     @BeforeEach
     void setUp() {
         redisTemplate = mock(RedisTemplate.class);
-        valueOperations = mock(ValueOperations.class);
-        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        now = new AtomicLong(60_000);
 
-        rateLimitService = new RateLimitService(redisTemplate);
+        // Leases of 4 units from a budget of 10 per minute, fetched on the calling thread
+        rateLimitService = new RateLimitService(redisTemplate, true, 10, 60, 4, Runnable::run, now::get);
+    }
 
-        // Manually configure fields via reflection
-        setField("rateLimitEnabled", true);
-        setField("requestsPerMinute", 2);
-        setField("windowSizeSeconds", 60);
+    @Test
+    void acquire_admitsFromLeasedUnits_withoutRedisRoundTrips() {
+        when(lease()).thenReturn(List.of(4L, 6L, 0L));
+
+        RateLimitDecision first = rateLimitService.acquire("tenant-1", 1);
+        RateLimitDecision second = rateLimitService.acquire("tenant-1", 1);
+
+        assertThat(first.allowed()).isTrue();
+        assertThat(first.remaining()).isEqualTo(9);
+        assertThat(second.allowed()).isTrue();
+        assertThat(second.remaining()).isEqualTo(8);
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class),
+                eq(List.of("ratelimit:tenant-1")), eq("4"), eq("10"), eq("60000"), eq("1"));
     }
 
-    private void setField(String fieldName, Object value) {
-        try {
-            java.lang.reflect.Field field = RateLimitService.class.getDeclaredField(fieldName);
-            field.setAccessible(true);
-            field.set(rateLimitService, value);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+    @Test
+    void acquire_prefetchesNextLease_whenBucketRunsLow() {
+        when(lease()).thenReturn(List.of(4L, 6L, 0L));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(rateLimitService.acquire("tenant-1", 1).allowed()).isTrue();
+        }
+
+        // 1 unit left after the third request
+        verify(redisTemplate, times(2)).execute(any(RedisScript.class), anyList(),
+                anyString(), anyString(), anyString(), anyString());
     }
+
+    @Test
+    void acquire_rejectsRequestsCostingMoreThanTheLimit_withoutTouchingTheBudget() {
+        assertThatThrownBy(() -> rateLimitService.acquire("tenant-1", 11))
+                .isInstanceOf(RequestCostExceedsLimitException.class);
+
+        verifyNoInteractions(redisTemplate);
     }
 
     @Test
-    void isAllowed_allowsRequestsWithinLimit() {
-        when(valueOperations.increment(anyString())).thenReturn(1L, 2L);
+    void acquire_deniesLocally_untilRedisSaysToRetry() {
+        when(lease()).thenReturn(List.of(0L, 0L, 6000L), List.of(4L, 0L, 0L));
+
+        RateLimitDecision first = rateLimitService.acquire("tenant-1", 1);
+        now.addAndGet(1000);
+        RateLimitDecision second = rateLimitService.acquire("tenant-1", 1);
 
-        boolean first = rateLimitService.isAllowed("tenant-1");
-        boolean second = rateLimitService.isAllowed("tenant-1");
+        assertThat(first.allowed()).isFalse();
+        assertThat(first.retryAfter()).isEqualTo(Duration.ofSeconds(6));
+        assertThat(second.allowed()).isFalse();
+        assertThat(second.retryAfter()).isEqualTo(Duration.ofSeconds(5));
+        verify(redisTemplate, times(1)).execute(any(RedisScript.class), anyList(),
+                anyString(), anyString(), anyString(), anyString());
 
-        assertThat(first).isTrue();
-        assertThat(second).isTrue();
-        verify(redisTemplate, atLeastOnce()).expire(anyString(), any(Duration.class));
+        now.addAndGet(5000);
+
+        assertThat(rateLimitService.acquire("tenant-1", 1).allowed()).isTrue();
     }
 
     @Test
-    void isAllowed_blocksWhenLimitExceeded() {
-        when(valueOperations.increment(anyString())).thenReturn(3L);
+    void acquire_failsOpenWhenRedisThrows() {
+        when(lease()).thenThrow(new RuntimeException("Redis down"));
 
-        boolean allowed = rateLimitService.isAllowed("tenant-1");
+        boolean allowed = rateLimitService.isAllowed("tenant-1", 1);
 
-        assertThat(allowed).isFalse();
+        assertThat(allowed).isTrue();
     }
 
     @Test
-    void isAllowed_failsOpenWhenRedisThrows() {
-        when(valueOperations.increment(anyString())).thenThrow(new RuntimeException("Redis down"));
+    void acquire_chargesCostAgainstLimit() {
+        // Only 3 units available right away
+        when(lease()).thenReturn(List.of(3L, 0L, 1800L));
 
-        boolean allowed = rateLimitService.isAllowed("tenant-1");
+        RateLimitDecision decision = rateLimitService.acquire("tenant-1", 5);
 
-        assertThat(allowed).isTrue();
+        assertThat(decision.allowed()).isFalse();
+        assertThat(decision.remaining()).isEqualTo(3);
+        assertThat(decision.retryAfter()).isEqualTo(Duration.ofMillis(1800));
+        verify(redisTemplate).execute(any(RedisScript.class), anyList(), eq("5"), anyString(), anyString(), eq("5"));
+    }
+
+    @Test
+    void release_returnsChargedUnitsToBucket() {
+        when(lease()).thenReturn(List.of(4L, 6L, 0L));
+
+        RateLimitDecision decision = rateLimitService.acquire("tenant-1", 1);
+        rateLimitService.release("tenant-1", decision, 1);
+
+        assertThat(rateLimitService.acquire("tenant-1", 1).remaining()).isEqualTo(9);
     }
-}
 
+    @Test
+    void release_ignoresDecisionsMadeWithoutCharging() {
+        when(lease()).thenReturn(List.of(4L, 6L, 0L))
+                .thenThrow(new RuntimeException("Redis down"))
+                .thenReturn(List.of(0L, 6L, 0L));
+        rateLimitService.acquire("tenant-1", 1);
+
+        // Bucket short and Redis down: admitted without charging
+        RateLimitDecision decision = rateLimitService.acquire("tenant-1", 5);
+        rateLimitService.release("tenant-1", decision, 5);
+
+        assertThat(decision.remaining()).isEqualTo(-1);
+        assertThat(rateLimitService.acquire("tenant-1", 3).remaining()).isEqualTo(6);
+    }
+
+    private Object lease() {
+        return redisTemplate.execute(any(RedisScript.class), anyList(),
+                anyString(), anyString(), anyString(), anyString());
+    }
+}
@@ -0,0 +1,128 @@
+package com.distributed.documentsearch.service;
+
+import com.distributed.documentsearch.cache.DocumentStatusCache;
+import com.distributed.documentsearch.dto.DocumentEvent;
+import com.distributed.documentsearch.model.Document;
+import com.distributed.documentsearch.model.DocumentStatus;
+import com.distributed.documentsearch.repository.DocumentRepository;
+import com.distributed.documentsearch.search.IndexDigest;
+import com.distributed.documentsearch.search.SearchBackend;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ReconciliationSweeperTest {
+
+    private DocumentRepository documentRepository;
+    private SearchBackend searchBackend;
+    private OutboxService outboxService;
+    private JdbcTemplate jdbcTemplate;
+    private DocumentStatusCache documentStatusCache;
+    private SimpleMeterRegistry meterRegistry;
+
+    private ReconciliationSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        documentRepository = mock(DocumentRepository.class);
+        searchBackend = mock(SearchBackend.class);
+        outboxService = mock(OutboxService.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        documentStatusCache = mock(DocumentStatusCache.class);
+        meterRegistry = new SimpleMeterRegistry();
+        sweeper = new ReconciliationSweeper(
+                documentRepository,
+                searchBackend,
+                outboxService,
+                new DocumentEventFactory(DataSize.ofKilobytes(64)),
+                jdbcTemplate,
+                documentStatusCache,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)),
+                RateLimiterRegistry.ofDefaults(),
+                meterRegistry,
+                Duration.ofMinutes(10),
+                2);
+    }
+
+    @Test
+    void sweep_walksKeysetPages_andRepublishesUnchangedDocuments() {
+        LocalDateTime staleBefore = LocalDateTime.now();
+        Document first = document(staleBefore.minusHours(3));
+        Document second = document(staleBefore.minusHours(2));
+        Document third = document(staleBefore.minusHours(1));
+        when(documentRepository.findStale(eq(DocumentStatus.FAILED), eq(staleBefore), any(), any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(first, second), PageRequest.ofSize(2), true))
+                .thenReturn(new SliceImpl<>(List.of(third), PageRequest.ofSize(2), false));
+        // The second document changed since it was read
+        when(jdbcTemplate.batchUpdate(anyString(), anyList())).thenReturn(new int[]{1, 0}, new int[]{1});
+
+        int republished = sweeper.sweep(DocumentStatus.FAILED, staleBefore);
+
+        assertThat(republished).isEqualTo(2);
+        verify(documentRepository).findStale(eq(DocumentStatus.FAILED), eq(staleBefore),
+                eq(second.getUpdatedAt()), eq(second.getId()), any());
+        ArgumentCaptor<DocumentEvent> events = ArgumentCaptor.forClass(DocumentEvent.class);
+        verify(outboxService, times(2))
+                .enqueue(eq("document-exchange"), eq("document.bulk.tenant-test"), events.capture());
+        assertThat(events.getAllValues()).map(DocumentEvent::getDocumentId)
+                .containsExactly(first.getId().toString(), third.getId().toString());
+        verify(documentStatusCache).putAll(Map.of(
+                DocumentStatusCache.key(first.getId(), "tenant-test"), DocumentStatus.INDEXING));
+    }
+
+    @Test
+    void checkDrift_returnsDifferingTenants_andGaugesTotalCountDifference() {
+        Map<String, IndexDigest> stored = Map.of(
+                "tenant-ok", new IndexDigest(10, 25),
+                "tenant-drifted", new IndexDigest(10, 25));
+        when(searchBackend.digest("tenant-ok")).thenReturn(new IndexDigest(10, 25));
+        when(searchBackend.digest("tenant-drifted")).thenReturn(new IndexDigest(7, 18));
+
+        assertThat(sweeper.checkDrift(stored)).containsExactly("tenant-drifted");
+        assertThat(meterRegistry.get("reconciliation.drift").gauge().value()).isEqualTo(3);
+        assertThat(meterRegistry.get("reconciliation.drift").meters()).hasSize(1);
+        assertThat(meterRegistry.get("reconciliation.drifting-tenants").gauge().value()).isZero();
+    }
+
+    @Test
+    void checkDrift_countsTenantsDifferingInConsecutiveChecks() {
+        Map<String, IndexDigest> stored = Map.of("tenant-drifted", new IndexDigest(10, 25));
+        when(searchBackend.digest("tenant-drifted")).thenReturn(new IndexDigest(7, 18));
+
+        sweeper.checkDrift(stored);
+        assertThat(meterRegistry.get("reconciliation.drifting-tenants").gauge().value()).isZero();
+        sweeper.checkDrift(stored);
+
+        assertThat(meterRegistry.get("reconciliation.drifting-tenants").gauge().value()).isEqualTo(1);
+    }
+
+    private Document document(LocalDateTime updatedAt) {
+        return Document.builder()
+                .id(UUID.randomUUID())
+                .tenantId("tenant-test")
+                .title("Title")
+                .content("Content")
+                .status(DocumentStatus.FAILED)
+                .version(1L)
+                .updatedAt(updatedAt)
+                .build();
+    }
+}
@@ -0,0 +1,160 @@
+package com.distributed.documentsearch.service;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import com.distributed.documentsearch.dto.SearchRequest;
+import com.distributed.documentsearch.model.DocumentIndex;
+import com.distributed.documentsearch.repository.TenantPlacementRepository;
+import com.distributed.documentsearch.search.ElasticsearchSearchBackend;
+import com.distributed.documentsearch.search.IndexingPriority;
+import com.distributed.documentsearch.search.ReindexState;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.elasticsearch.client.ClientConfiguration;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchClients;
+import org.springframework.data.elasticsearch.client.elc.ElasticsearchTemplate;
+import org.springframework.data.elasticsearch.core.IndexOperations;
+import org.springframework.data.elasticsearch.core.query.Criteria;
+import org.springframework.data.elasticsearch.core.query.CriteriaQuery;
+import org.testcontainers.elasticsearch.ElasticsearchContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Latency comparison between the former wildcard {@link Criteria} search and the
+ * multi_match query issued by {@link SearchService}.
+ *
+ * Needs Docker and is therefore not part of the default test run. Execute it
+ * explicitly with {@code mvn test -Dtest=SearchLatencyIT}.
+ */
+@Slf4j
+class SearchLatencyIT {
+
+    private static final String IMAGE = "docker.elastic.co/elasticsearch/elasticsearch:8.11.0";
+    private static final String TENANT = "tenant-latency";
+    private static final int DOCUMENTS = 20_000;
+    private static final int WARMUP_QUERIES = 50;
+    private static final int MEASURED_QUERIES = 300;
+
+    private static final String[] VOCABULARY = {
+            "distributed", "systems", "consensus", "replication", "partition", "latency", "throughput",
+            "cache", "index", "shard", "queue", "broker", "tenant", "search", "ranking", "analyzer",
+            "snapshot", "failover", "quorum", "leader", "follower", "compaction", "segment", "merge"
+    };
+
+    private static ElasticsearchContainer container;
+    private static ElasticsearchClient client;
+    private static ElasticsearchTemplate operations;
+    private static ElasticsearchSearchBackend backend;
+
+    @BeforeAll
+    static void startElasticsearch() {
+        container = new ElasticsearchContainer(DockerImageName.parse(IMAGE))
+                .withEnv("xpack.security.enabled", "false");
+        container.start();
+
+        client = ElasticsearchClients.createImperative(ClientConfiguration.create(container.getHttpHostAddress()));
+        operations = new ElasticsearchTemplate(client);
+        backend = new ElasticsearchSearchBackend(operations, client, new TenantPlacementService(
+                mock(TenantPlacementRepository.class), "documents", Duration.ofMinutes(1)), mock(ReindexState.class));
+
+        IndexOperations indexOps = operations.indexOps(DocumentIndex.class);
+        indexOps.createWithMapping();
+
+        Random random = new Random(42);
+        List<DocumentIndex> batch = new ArrayList<>();
+        for (int i = 0; i < DOCUMENTS; i++) {
+            batch.add(DocumentIndex.builder()
+                    .id(UUID.randomUUID().toString())
+                    .tenantId(i % 4 == 0 ? TENANT : "tenant-other-" + (i % 4))
+                    .title(sentence(random, 6))
+                    .content(sentence(random, 200))
+                    .build());
+            if (batch.size() == 1000) {
+                backend.bulkIndex(batch, IndexingPriority.BULK);
+                batch.clear();
+            }
+        }
+        indexOps.refresh();
+    }
+
+    @AfterAll
+    static void stopElasticsearch() {
+        if (container != null) {
+            container.stop();
+        }
+    }
+
+    @Test
+    void multiMatch_isFasterThanWildcardCriteria() {
+        SearchService searchService = new SearchService(backend);
+        Random random = new Random(7);
+
+        long[] criteria = measure(() -> {
+            String term = VOCABULARY[random.nextInt(VOCABULARY.length)];
+            Criteria legacy = new Criteria("tenantId").is(TENANT).and(
+                    new Criteria("title").contains(term).or(new Criteria("content").contains(term)));
+            return operations.search(new CriteriaQuery(legacy, PageRequest.of(0, 10)), DocumentIndex.class)
+                    .getTotalHits();
+        });
+
+        long[] multiMatch = measure(() -> {
+            SearchRequest request = new SearchRequest();
+            request.setTenant(TENANT);
+            request.setQ(VOCABULARY[random.nextInt(VOCABULARY.length)]);
+            return searchService.search(request).getTotal();
+        });
+
+        log.info("criteria    p50={}ms p99={}ms", format(percentile(criteria, 50)), format(percentile(criteria, 99)));
+        log.info("multi_match p50={}ms p99={}ms", format(percentile(multiMatch, 50)), format(percentile(multiMatch, 99)));
+
+        assertThat(percentile(multiMatch, 99)).isLessThan(percentile(criteria, 99));
+    }
+
+    private long[] measure(Supplier<Long> search) {
+        for (int i = 0; i < WARMUP_QUERIES; i++) {
+            assertThat(search.get()).isPositive();
+        }
+        long[] nanos = new long[MEASURED_QUERIES];
+        for (int i = 0; i < MEASURED_QUERIES; i++) {
+            long start = System.nanoTime();
+            search.get();
+            nanos[i] = System.nanoTime() - start;
+        }
+        Arrays.sort(nanos);
+        return nanos;
+    }
+
+    private static String format(double millis) {
+        return String.format(Locale.ROOT, "%.2f", millis);
+    }
+
+    private double percentile(long[] sortedNanos, int percentile) {
+        int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(percentile / 100.0 * sortedNanos.length) - 1);
+        return sortedNanos[index] / 1_000_000.0;
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(VOCABULARY[random.nextInt(VOCABULARY.length)]);
+        }
+        return sentence.toString();
+    }
+}
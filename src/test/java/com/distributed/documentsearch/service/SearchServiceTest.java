@@ -2,65 +2,83 @@ package com.distributed.documentsearch.service;
 
 import com.distributed.documentsearch.dto.SearchRequest;
 import com.distributed.documentsearch.dto.SearchResponse;
-import com.distributed.documentsearch.model.DocumentIndex;
+import com.distributed.documentsearch.search.SearchBackend;
+import com.distributed.documentsearch.search.SearchPage;
+import com.distributed.documentsearch.search.SearchQuery;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.data.elasticsearch.core.ElasticsearchOperations;
-import org.springframework.data.elasticsearch.core.SearchHit;
-import org.springframework.data.elasticsearch.core.SearchHits;
-import org.springframework.data.elasticsearch.core.query.CriteriaQuery;
+import org.mockito.ArgumentCaptor;
 
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 class SearchServiceTest {
 
-    private ElasticsearchOperations elasticsearchOperations;
+    private SearchBackend searchBackend;
     private SearchService searchService;
 
     @BeforeEach
     void setUp() {
-        elasticsearchOperations = mock(ElasticsearchOperations.class);
-        searchService = new SearchService(elasticsearchOperations);
+        searchBackend = mock(SearchBackend.class);
+        searchService = new SearchService(searchBackend);
     }
 
     @Test
     void search_returnsMappedResults() {
         SearchRequest request = new SearchRequest();
         request.setTenant("tenant-1");
-        request.setQ("test");
-        request.setPage(1);
+        request.setQ("  test ");
+        request.setPage(2);
         request.setSize(10);
 
-        DocumentIndex doc = DocumentIndex.builder()
+        SearchResponse.SearchResult result = SearchResponse.SearchResult.builder()
                 .id("1")
-                .tenantId("tenant-1")
                 .title("Test Document")
-                .content("This is test content")
-                .metadata(null)
                 .build();
+        when(searchBackend.search(any(SearchQuery.class)))
+                .thenReturn(SearchPage.builder().total(11).results(List.of(result)).build());
+
+        SearchResponse response = searchService.search(request);
 
-        SearchHit<DocumentIndex> hit = mock(SearchHit.class);
-        when(hit.getContent()).thenReturn(doc);
-        when(hit.getScore()).thenReturn(1.0f);
+        assertThat(response.getQuery()).isEqualTo("test");
+        assertThat(response.getTotal()).isEqualTo(11);
+        assertThat(response.getPage()).isEqualTo(2);
+        assertThat(response.getSize()).isEqualTo(1);
+        assertThat(response.getResults()).containsExactly(result);
+
+        ArgumentCaptor<SearchQuery> captor = ArgumentCaptor.forClass(SearchQuery.class);
+        verify(searchBackend).search(captor.capture());
+        assertThat(captor.getValue().getTenantId()).isEqualTo("tenant-1");
+        assertThat(captor.getValue().getText()).isEqualTo("test");
+        assertThat(captor.getValue().getPage()).isEqualTo(1);
+        assertThat(captor.getValue().getFields()).isEqualTo(SearchQuery.ALL_FIELDS);
+        assertThat(captor.getValue().getCursor()).isNull();
+    }
 
-        SearchHits<DocumentIndex> hits = mock(SearchHits.class);
-        when(hits.getTotalHits()).thenReturn(1L);
-        when(hits.getSearchHits()).thenReturn(List.of(hit));
+    @Test
+    void search_withFieldsAndCursor_passesThemToBackend() {
+        SearchRequest request = new SearchRequest();
+        request.setTenant("tenant-1");
+        request.setQ("test");
+        request.setFields(List.of("Title", "unknown"));
+        request.setCursor("*");
 
-        when(elasticsearchOperations.search(any(CriteriaQuery.class), eq(DocumentIndex.class)))
-                .thenReturn(hits);
+        when(searchBackend.search(any(SearchQuery.class)))
+                .thenReturn(SearchPage.builder().total(0).results(List.of()).nextCursor("next").build());
 
         SearchResponse response = searchService.search(request);
 
-        assertThat(response.getTotal()).isEqualTo(1);
-        assertThat(response.getResults()).hasSize(1);
-        assertThat(response.getResults().get(0).getTitle()).isEqualTo("Test Document");
-        assertThat(response.getResults().get(0).getId()).isEqualTo("1");
+        assertThat(response.getNextCursor()).isEqualTo("next");
+        assertThat(response.getPage()).isNull();
+
+        ArgumentCaptor<SearchQuery> captor = ArgumentCaptor.forClass(SearchQuery.class);
+        verify(searchBackend).search(captor.capture());
+        assertThat(captor.getValue().getFields()).containsExactly("id", "title");
+        assertThat(captor.getValue().getCursor()).isEqualTo("*");
     }
 }
@@ -0,0 +1,91 @@
+package com.distributed.documentsearch.service;
+
+import com.distributed.documentsearch.model.TenantPlacement;
+import com.distributed.documentsearch.model.TenantPlacementStatus;
+import com.distributed.documentsearch.repository.TenantPlacementRepository;
+import com.distributed.documentsearch.search.TenantRouting;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class TenantPlacementServiceTest {
+
+    private TenantPlacementRepository placementRepository;
+    private TenantPlacementService placementService;
+
+    @BeforeEach
+    void setUp() {
+        placementRepository = mock(TenantPlacementRepository.class);
+        when(placementRepository.save(any(TenantPlacement.class))).thenAnswer(inv -> inv.getArgument(0));
+        placementService = new TenantPlacementService(placementRepository, "documents", Duration.ofMinutes(1));
+    }
+
+    @Test
+    void resolve_routesTenantWithoutPlacement_toSharedIndexByTenantId() {
+        when(placementRepository.findById("tenant-1")).thenReturn(Optional.empty());
+
+        TenantRouting routing = placementService.resolve("tenant-1");
+
+        assertThat(routing.read()).isEqualTo(new TenantRouting.Target("documents", "tenant-1"));
+        assertThat(routing.writes()).containsExactly(routing.read());
+    }
+
+    @Test
+    void resolve_cachesPlacement() {
+        when(placementRepository.findById("tenant-1")).thenReturn(Optional.empty());
+
+        placementService.resolve("tenant-1");
+        placementService.resolve("tenant-1");
+
+        verify(placementRepository, times(1)).findById("tenant-1");
+    }
+
+    @Test
+    void place_migrating_keepsReadsOnSharedIndex_andWritesToBoth() {
+        when(placementRepository.findById("tenant-1")).thenReturn(Optional.empty());
+        placementService.resolve("tenant-1");
+
+        TenantPlacement placement = placementService.place("tenant-1", TenantPlacementStatus.MIGRATING);
+        when(placementRepository.findById("tenant-1")).thenReturn(Optional.of(placement));
+
+        TenantRouting routing = placementService.resolve("tenant-1");
+        assertThat(routing.read()).isEqualTo(new TenantRouting.Target("documents", "tenant-1"));
+        assertThat(routing.writes()).containsExactly(
+                new TenantRouting.Target("documents", "tenant-1"),
+                new TenantRouting.Target(placement.getIndexName(), null));
+    }
+
+    @Test
+    void resolve_readsAndWritesDedicatedTenant_throughItsAlias() {
+        TenantPlacement placement = TenantPlacement.builder()
+                .tenantId("tenant-1")
+                .status(TenantPlacementStatus.DEDICATED)
+                .indexName(TenantPlacementService.dedicatedIndexFor("tenant-1"))
+                .aliasName(TenantPlacementService.aliasFor("tenant-1"))
+                .build();
+        when(placementRepository.findById("tenant-1")).thenReturn(Optional.of(placement));
+
+        TenantRouting routing = placementService.resolve("tenant-1");
+
+        TenantRouting.Target alias = new TenantRouting.Target(placement.getAliasName(), null);
+        assertThat(routing.read()).isEqualTo(alias);
+        assertThat(routing.writes()).isEqualTo(List.of(alias));
+    }
+
+    @Test
+    void aliasFor_producesValidIndexName_distinctPerTenant() {
+        String upper = TenantPlacementService.aliasFor("Acme/EU");
+        String lower = TenantPlacementService.aliasFor("acme/eu");
+
+        assertThat(upper).startsWith("documents_tenant_acme_eu_").matches("[a-z0-9_-]+");
+        assertThat(upper).isNotEqualTo(lower);
+        assertThat(TenantPlacementService.dedicatedIndexFor("Acme/EU")).isEqualTo(upper + "_v1");
+    }
+}